@@ -0,0 +1,61 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the Kafka requests and encoding of the replies, in JSON and in the binary encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanApplicationKafkaSerializationBenchmark {
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private final LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest request = new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest(
+        "0c4b8b5e-5f3c-4a3d-9f1e-7f3c2a1b0d9e",
+        "6f1c2d3e-4b5a-4c6d-8e7f-9a0b1c2d3e4f",
+        "d7a5a4b0-64a1-4b6e-8b55-1e4d2f0c9a31",
+        "fr",
+        40_000
+    );
+
+    private final LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse response = new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse(
+        "0c4b8b5e-5f3c-4a3d-9f1e-7f3c2a1b0d9e",
+        "success",
+        "01E5Z3Q4N8K2M"
+    );
+
+    private LoanApplicationKafkaCodec codec;
+    private boolean binary;
+    private byte[] encodedRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.codec = new LoanApplicationKafkaCodec(objectMapper);
+        this.binary = "binary".equals(this.format);
+        this.encodedRequest = this.binary
+            ? LoanApplicationKafkaClientCodec.writeRequest(this.request)
+            : objectMapper.writeValueAsString(this.request).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object readRequest() throws IOException {
+        return this.codec.readRequest(this.encodedRequest, this.binary);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return this.codec.writeResponse(this.response, this.binary);
+    }
+}
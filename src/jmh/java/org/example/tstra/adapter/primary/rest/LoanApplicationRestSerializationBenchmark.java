@@ -0,0 +1,51 @@
+package org.example.tstra.adapter.primary.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of the REST DTOs. Run it with {@code -prof gc} to get the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanApplicationRestSerializationBenchmark {
+
+    private final byte[] requestJson = "{\"productId\": \"d7a5a4b0-64a1-4b6e-8b55-1e4d2f0c9a31\", \"language\": \"fr\", \"purchaseAmount\": 40000 }"
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final LoanApplicationRestApi.CreateLoanApplicationRestResponse response = new LoanApplicationRestApi.CreateLoanApplicationRestResponse(
+        "01E5Z3Q4N8K2M",
+        "www.djf.com"
+    );
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.requestReader = objectMapper.readerFor(LoanApplicationRestApi.CreateLoanApplicationRestRequest.class);
+        this.responseWriter = objectMapper.writerFor(LoanApplicationRestApi.CreateLoanApplicationRestResponse.class);
+    }
+
+    @Benchmark
+    public Object readRequest() throws IOException {
+        return this.requestReader.readValue(this.requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws JsonProcessingException {
+        return this.responseWriter.writeValueAsBytes(this.response);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.tstra.adapter.secondary.id;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TimeOrderedLoanApplicationIdGenerator} with {@link UUID#randomUUID()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanApplicationIdGeneratorBenchmark {
+
+    private final TimeOrderedLoanApplicationIdGenerator timeOrdered = new TimeOrderedLoanApplicationIdGenerator(1);
+
+    @Benchmark
+    @Threads(1)
+    public String timeOrdered_1Thread() {
+        return this.timeOrdered.generateId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrdered_4Threads() {
+        return this.timeOrdered.generateId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String timeOrdered_maxThreads() {
+        return this.timeOrdered.generateId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String randomUuid_1Thread() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomUuid_4Threads() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String randomUuid_maxThreads() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.tstra.adapter.secondary.offheap;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-heap product lookups on a table of a million products; {@code probe} only walks the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffHeapReferenceStoreBenchmark {
+
+    private static final int MERCHANTS = 1_000;
+    private static final int PRODUCTS_PER_MERCHANT = 1_000;
+
+    private final String[] merchantIds = new String[MERCHANTS];
+    private final String[] productIds = new String[PRODUCTS_PER_MERCHANT];
+
+    private OffHeapTable table;
+    private OffHeapReferenceStore store;
+    private int next;
+
+    @Setup
+    public void setUp() throws PositiveAmount.InvalidPositiveAmount {
+        for (int i = 0; i < MERCHANTS; i++) {
+            this.merchantIds[i] = "merchant-" + i;
+        }
+        for (int i = 0; i < PRODUCTS_PER_MERCHANT; i++) {
+            this.productIds[i] = "product-" + i;
+        }
+        this.table = OffHeapTable.allocate(16, OffHeapTable.capacityFor((long) MERCHANTS * PRODUCTS_PER_MERCHANT));
+        OffHeapReferenceStore.Writer writer = OffHeapReferenceStore.allocate(16, MERCHANTS, (long) MERCHANTS * PRODUCTS_PER_MERCHANT);
+        for (String merchantId : this.merchantIds) {
+            writer.putMerchant(new Merchant(merchantId, PositiveAmount.of(100), PositiveAmount.of(500_000)));
+            for (String productId : this.productIds) {
+                writer.putProduct(merchantId, new Product(productId, PositiveAmount.of(1_000), PositiveAmount.of(200_000)));
+                this.table.put(merchantId, productId, 1_000, 200_000);
+            }
+        }
+        this.store = writer.build();
+    }
+
+    @Benchmark
+    public long probe() {
+        int i = this.next++;
+        return this.table.find(this.merchantIds[i % MERCHANTS], this.productIds[(i / MERCHANTS) % PRODUCTS_PER_MERCHANT]);
+    }
+
+    @Benchmark
+    public Object findProductId() {
+        int i = this.next++;
+        try {
+            return this.store.findProductId(this.merchantIds[i % MERCHANTS], this.productIds[(i / MERCHANTS) % PRODUCTS_PER_MERCHANT]);
+        } catch (CreateLoanApplication.ProductNotFoundException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.tstra.application.usecase;
+
+import lombok.NonNull;
+import org.example.tstra.domain.LoanApplication;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Use case throughput with in-memory ports, on the accepted path and on every rejection path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateLoanApplicationBenchmark {
+
+    @Param({
+        "accepted",
+        "merchantNotFound",
+        "productNotFound",
+        "invalidPurchaseAmount",
+        "purchaseAmountOutOfRange",
+        "invalidLanguage"
+    })
+    public String path;
+
+    private CreateLoanApplication useCase;
+    private CreateLoanApplication.CreateLoanApplicationRequest request;
+
+    @Setup
+    public void setUp() throws PositiveAmount.InvalidPositiveAmount {
+        Merchant merchant = new Merchant("merchant", PositiveAmount.of(100), PositiveAmount.of(500_000));
+        Product product = new Product("product", PositiveAmount.of(1_000), PositiveAmount.of(200_000));
+        this.useCase = new CreateLoanApplication(
+            new SequenceLoanApplicationIdGenerator(),
+            new InMemoryMerchantService(merchant),
+            new InMemoryProductService(merchant, product),
+            new InMemoryLoanApplicationRepository()
+        );
+
+        switch (this.path) {
+            case "accepted":
+                this.request = new CreateLoanApplication.CreateLoanApplicationRequest("merchant", "product", "fr", 40_000);
+                break;
+            case "merchantNotFound":
+                this.request = new CreateLoanApplication.CreateLoanApplicationRequest("unknown", "product", "fr", 40_000);
+                break;
+            case "productNotFound":
+                this.request = new CreateLoanApplication.CreateLoanApplicationRequest("merchant", "unknown", "fr", 40_000);
+                break;
+            case "invalidPurchaseAmount":
+                this.request = new CreateLoanApplication.CreateLoanApplicationRequest("merchant", "product", "fr", -1);
+                break;
+            case "purchaseAmountOutOfRange":
+                this.request = new CreateLoanApplication.CreateLoanApplicationRequest("merchant", "product", "fr", 300_000);
+                break;
+            case "invalidLanguage":
+                this.request = new CreateLoanApplication.CreateLoanApplicationRequest("merchant", "product", "xx", 40_000);
+                break;
+            default:
+                throw new IllegalArgumentException(this.path);
+        }
+    }
+
+    @Benchmark
+    public Object execute() {
+        try {
+            return this.useCase.execute(this.request);
+        } catch (CreateLoanApplication.CreateLoanApplicationException e) {
+            return e;
+        }
+    }
+
+    static final class SequenceLoanApplicationIdGenerator implements CreateLoanApplication.LoanApplicationIdGenerator {
+        private long next;
+
+        @Override
+        public String generateId() {
+            return Long.toString(this.next++);
+        }
+    }
+
+    static final class InMemoryMerchantService implements CreateLoanApplication.MerchantService {
+        private final Map<String, Merchant> merchants = new HashMap<>();
+
+        InMemoryMerchantService(Merchant... merchants) {
+            for (Merchant merchant : merchants) {
+                this.merchants.put(merchant.getMerchantId(), merchant);
+            }
+        }
+
+        @Override
+        public Merchant findMerchantId(@NonNull String merchantId) throws CreateLoanApplication.MerchantNotFoundException {
+            Merchant merchant = this.merchants.get(merchantId);
+            if (merchant == null) {
+                throw new CreateLoanApplication.MerchantNotFoundException();
+            }
+            return merchant;
+        }
+    }
+
+    static final class InMemoryProductService implements CreateLoanApplication.ProductService {
+        private final Map<String, Map<String, Product>> products = new HashMap<>();
+
+        InMemoryProductService(Merchant merchant, Product... products) {
+            Map<String, Product> productsOfMerchant = new HashMap<>();
+            for (Product product : products) {
+                productsOfMerchant.put(product.getProductId(), product);
+            }
+            this.products.put(merchant.getMerchantId(), productsOfMerchant);
+        }
+
+        @Override
+        public Product findProductId(@NonNull String merchantId, @NonNull String productId) throws CreateLoanApplication.ProductNotFoundException {
+            Product product = this.products.getOrDefault(merchantId, new HashMap<>()).get(productId);
+            if (product == null) {
+                throw new CreateLoanApplication.ProductNotFoundException();
+            }
+            return product;
+        }
+    }
+
+    /**
+     * Keeps the last persisted loan applications only, so that long runs do not fill the heap.
+     */
+    static final class InMemoryLoanApplicationRepository implements CreateLoanApplication.LoanApplicationRepository {
+        private final LoanApplication[] loanApplications = new LoanApplication[1024];
+        private int next;
+
+        @Override
+        public LoanApplication persist(@NonNull LoanApplication loanApplication) {
+            this.loanApplications[this.next++ & (this.loanApplications.length - 1)] = loanApplication;
+            return loanApplication;
+        }
+    }
+}
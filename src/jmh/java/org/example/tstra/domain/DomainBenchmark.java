@@ -0,0 +1,96 @@
+package org.example.tstra.domain;
+
+import org.example.tstra.application.service.EffectiveAmountRangeIndex;
+import org.example.tstra.application.service.PurchaseAmountInRangePolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value object factories and purchase amount policy, with and without the effective range index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainBenchmark {
+
+    private final String language = "fr";
+    private final String invalidLanguage = "xx";
+    private final int amount = 40_000;
+    private final int invalidAmount = -1;
+
+    private Merchant merchant;
+    private Product product;
+    private PositiveAmount purchaseAmount;
+    private PurchaseAmountInRangePolicy policy;
+    private PurchaseAmountInRangePolicy indexedPolicy;
+
+    @Setup
+    public void setUp() throws PositiveAmount.InvalidPositiveAmount {
+        this.merchant = new Merchant("merchant", PositiveAmount.of(100), PositiveAmount.of(500_000));
+        this.product = new Product("product", PositiveAmount.of(1_000), PositiveAmount.of(200_000));
+        this.purchaseAmount = PositiveAmount.of(this.amount);
+        this.policy = new PurchaseAmountInRangePolicy();
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+        index.load(this.merchant, Collections.singletonList(this.product));
+        this.indexedPolicy = new PurchaseAmountInRangePolicy(index);
+    }
+
+    @Benchmark
+    public Object languageOf() {
+        try {
+            return Language.of(this.language);
+        } catch (Language.InvalidLanguageException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object languageOf_invalid() {
+        try {
+            return Language.of(this.invalidLanguage);
+        } catch (Language.InvalidLanguageException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object positiveAmountOf() {
+        try {
+            return PositiveAmount.of(this.amount);
+        } catch (PositiveAmount.InvalidPositiveAmount e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object positiveAmountOf_invalid() {
+        try {
+            return PositiveAmount.of(this.invalidAmount);
+        } catch (PositiveAmount.InvalidPositiveAmount e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object purchaseAmountInRangePolicyValidate() {
+        try {
+            return this.policy.validate(this.purchaseAmount, this.merchant, this.product);
+        } catch (PurchaseAmountInRangePolicy.InvalidPurchaseAmount e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object purchaseAmountInRangePolicyValidate_indexed() {
+        try {
+            return this.indexedPolicy.validate(this.purchaseAmount, this.merchant, this.product);
+        } catch (PurchaseAmountInRangePolicy.InvalidPurchaseAmount e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.tstra.loadtest;
+
+import lombok.NonNull;
+import org.example.tstra.adapter.secondary.id.TimeOrderedLoanApplicationIdGenerator;
+import org.example.tstra.application.service.EffectiveAmountRangeIndex;
+import org.example.tstra.application.service.PurchaseAmountInRangePolicy;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.example.tstra.domain.LoanApplication;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Use case of the load test, on a fixed catalogue and a repository that only counts.
+ */
+@Configuration
+class InMemoryPorts {
+
+    static final int MIN_PURCHASE_AMOUNT = 1_000;
+    static final int MAX_PURCHASE_AMOUNT = 200_000;
+
+    @Bean
+    Catalogue catalogue(
+        @Value("${loadtest.merchants}") int merchants,
+        @Value("${loadtest.products-per-merchant}") int productsPerMerchant) throws PositiveAmount.InvalidPositiveAmount {
+        return new Catalogue(merchants, productsPerMerchant);
+    }
+
+    @Bean
+    CountingLoanApplicationRepository loanApplicationRepository() {
+        return new CountingLoanApplicationRepository();
+    }
+
+    @Bean
+    CreateLoanApplication createLoanApplication(Catalogue catalogue, CountingLoanApplicationRepository repository, CreateLoanApplication.Monitor monitor) {
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+        for (Merchant merchant : catalogue.merchants.values()) {
+            index.load(merchant, catalogue.products.get(merchant.getMerchantId()).values());
+        }
+        return new CreateLoanApplication(
+            new TimeOrderedLoanApplicationIdGenerator(0),
+            catalogue,
+            catalogue,
+            repository,
+            new PurchaseAmountInRangePolicy(index),
+            monitor
+        );
+    }
+
+    // The load test never reads a loan application back
+    @Bean
+    GetLoanApplication getLoanApplication() {
+        return new GetLoanApplication(new NoLoanApplications());
+    }
+
+    static final class Catalogue implements CreateLoanApplication.MerchantService, CreateLoanApplication.ProductService {
+        private final Map<String, Merchant> merchants = new HashMap<>();
+        private final Map<String, Map<String, Product>> products = new HashMap<>();
+
+        Catalogue(int merchants, int productsPerMerchant) throws PositiveAmount.InvalidPositiveAmount {
+            for (int m = 0; m < merchants; m++) {
+                Merchant merchant = new Merchant(merchantId(m), PositiveAmount.of(100), PositiveAmount.of(500_000));
+                Map<String, Product> productsOfMerchant = new HashMap<>();
+                for (int p = 0; p < productsPerMerchant; p++) {
+                    productsOfMerchant.put(productId(p), new Product(productId(p), PositiveAmount.of(MIN_PURCHASE_AMOUNT), PositiveAmount.of(MAX_PURCHASE_AMOUNT)));
+                }
+                this.merchants.put(merchant.getMerchantId(), merchant);
+                this.products.put(merchant.getMerchantId(), productsOfMerchant);
+            }
+        }
+
+        static String merchantId(int merchant) {
+            return "merchant-" + merchant;
+        }
+
+        static String productId(int product) {
+            return "product-" + product;
+        }
+
+        @Override
+        public Merchant findMerchantId(@NonNull String merchantId) throws CreateLoanApplication.MerchantNotFoundException {
+            Merchant merchant = this.merchants.get(merchantId);
+            if (merchant == null) {
+                throw new CreateLoanApplication.MerchantNotFoundException();
+            }
+            return merchant;
+        }
+
+        @Override
+        public Product findProductId(@NonNull String merchantId, @NonNull String productId) throws CreateLoanApplication.ProductNotFoundException {
+            Product product = this.products.getOrDefault(merchantId, new HashMap<>()).get(productId);
+            if (product == null) {
+                throw new CreateLoanApplication.ProductNotFoundException();
+            }
+            return product;
+        }
+    }
+
+    static final class CountingLoanApplicationRepository implements CreateLoanApplication.LoanApplicationRepository {
+        private final AtomicLong persisted = new AtomicLong();
+
+        @Override
+        public LoanApplication persist(@NonNull LoanApplication loanApplication) {
+            this.persisted.incrementAndGet();
+            return loanApplication;
+        }
+
+        @Override
+        public List<LoanApplication> persistAll(@NonNull List<LoanApplication> loanApplications) {
+            this.persisted.addAndGet(loanApplications.size());
+            return new ArrayList<>(loanApplications);
+        }
+
+        long persisted() {
+            return this.persisted.get();
+        }
+    }
+
+    static final class NoLoanApplications implements GetLoanApplication.LoanApplicationReader {
+        @Override
+        public Optional<LoanApplication> findById(@NonNull String loanApplicationId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Stream<LoanApplication> findByMerchantId(@NonNull String merchantId, String afterLoanApplicationId) {
+            return Stream.empty();
+        }
+    }
+}
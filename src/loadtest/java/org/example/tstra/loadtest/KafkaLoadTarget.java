@@ -0,0 +1,148 @@
+package org.example.tstra.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes JSON requests to the requests topic and matches the replies read from the responses topic by
+ * correlation id. The response time of a request runs until its reply is read by the load test.
+ */
+@Slf4j
+final class KafkaLoadTarget implements LoadTarget {
+
+    private static final String REQUESTS_TOPIC = "requests";
+    private static final String RESPONSES_TOPIC = "responses";
+
+    private final ObjectMapper objectMapper;
+    private final KafkaProducer<String, String> producer;
+    private final KafkaConsumer<String, String> consumer;
+    private final Thread replyReader;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextCorrelationId = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    KafkaLoadTarget(@NonNull String bootstrapServers, @NonNull ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+
+        Map<String, Object> producerProperties = new HashMap<>();
+        producerProperties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        producerProperties.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        this.producer = new KafkaProducer<>(producerProperties, new StringSerializer(), new StringSerializer());
+
+        Map<String, Object> consumerProperties = new HashMap<>();
+        consumerProperties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.consumer = new KafkaConsumer<>(consumerProperties, new StringDeserializer(), new StringDeserializer());
+        List<TopicPartition> partitions = this.consumer.partitionsFor(RESPONSES_TOPIC).stream()
+            .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+            .collect(Collectors.toList());
+        this.consumer.assign(partitions);
+        this.consumer.seekToEnd(partitions);
+        // Resolves the end offsets now, so that no reply sent from here on is skipped
+        partitions.forEach(this.consumer::position);
+
+        this.replyReader = new Thread(this::readReplies, "loadtest-kafka-replies");
+        this.replyReader.setDaemon(true);
+        this.replyReader.start();
+    }
+
+    @Override
+    public void send(LoadRequest request, long intendedStartNanos, LatencyRecorder recorder) {
+        String correlationId = this.runId + "-" + this.nextCorrelationId.incrementAndGet();
+        Map<String, Object> body = new HashMap<>();
+        body.put("correlationId", correlationId);
+        body.put("merchantId", request.getMerchantId());
+        body.put("productId", request.getProductId());
+        body.put("language", request.getLanguage());
+        body.put("purchaseAmount", request.getPurchaseAmount());
+
+        long start = System.nanoTime();
+        Pending pending = new Pending(intendedStartNanos, start, recorder);
+        this.pending.put(correlationId, pending);
+        try {
+            this.producer.send(new ProducerRecord<>(REQUESTS_TOPIC, request.getMerchantId(), this.objectMapper.writeValueAsString(body)), (metadata, e) -> {
+                if (e != null && this.pending.remove(correlationId, pending)) {
+                    recorder.failed(intendedStartNanos, start);
+                }
+            });
+        } catch (JsonProcessingException | RuntimeException e) {
+            if (this.pending.remove(correlationId, pending)) {
+                recorder.failed(intendedStartNanos, start);
+            }
+        }
+    }
+
+    private void readReplies() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (ConsumerRecord<String, String> record : this.consumer.poll(Duration.ofMillis(100))) {
+                    this.complete(record.value());
+                }
+            }
+        } catch (WakeupException e) {
+            // Closing
+        }
+    }
+
+    private void complete(String reply) {
+        JsonNode json;
+        try {
+            json = this.objectMapper.readTree(reply);
+        } catch (IOException e) {
+            log.warn("Unreadable reply {}", reply);
+            return;
+        }
+        JsonNode correlationId = json.get("correlationId");
+        Pending pending = correlationId == null ? null : this.pending.remove(correlationId.asText());
+        if (pending == null) {
+            return;
+        }
+        if ("success".equals(json.path("type").asText())) {
+            pending.recorder.succeeded(pending.intendedStartNanos, pending.startNanos);
+        } else {
+            pending.recorder.failed(pending.intendedStartNanos, pending.startNanos);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        this.producer.close();
+        this.consumer.wakeup();
+        this.replyReader.join();
+        this.consumer.close();
+    }
+
+    private static final class Pending {
+        private final long intendedStartNanos;
+        private final long startNanos;
+        private final LatencyRecorder recorder;
+
+        Pending(long intendedStartNanos, long startNanos, LatencyRecorder recorder) {
+            this.intendedStartNanos = intendedStartNanos;
+            this.startNanos = startNanos;
+            this.recorder = recorder;
+        }
+    }
+}
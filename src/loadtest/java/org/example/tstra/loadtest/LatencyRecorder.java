@@ -0,0 +1,91 @@
+package org.example.tstra.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies of one phase of a run, in nanoseconds. Response times start when the request was due, not when it was
+ * sent, so stalls are not omitted; lost requests count up to the moment the run gives up on them.
+ */
+final class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder responseTimes = new Recorder(HIGHEST_TRACKABLE_VALUE, SIGNIFICANT_DIGITS);
+    private final Recorder serviceTimes = new Recorder(HIGHEST_TRACKABLE_VALUE, SIGNIFICANT_DIGITS);
+    private final Set<Long> outstanding = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+
+    void sent(long intendedStartNanos) {
+        this.outstanding.add(intendedStartNanos);
+        this.sent.incrementAndGet();
+    }
+
+    void succeeded(long intendedStartNanos, long startNanos) {
+        if (this.outstanding.remove(intendedStartNanos)) {
+            this.record(intendedStartNanos, startNanos);
+            this.succeeded.incrementAndGet();
+        }
+    }
+
+    void failed(long intendedStartNanos, long startNanos) {
+        if (this.outstanding.remove(intendedStartNanos)) {
+            this.record(intendedStartNanos, startNanos);
+            this.failed.incrementAndGet();
+        }
+    }
+
+    // Replies arriving after the outstanding requests are recorded as lost are ignored
+    void lostOutstanding() {
+        long now = System.nanoTime();
+        for (Long intendedStartNanos : this.outstanding) {
+            if (this.outstanding.remove(intendedStartNanos)) {
+                this.responseTimes.recordValue(Math.min(now - intendedStartNanos, HIGHEST_TRACKABLE_VALUE));
+                this.lost.incrementAndGet();
+            }
+        }
+    }
+
+    long outstanding() {
+        return this.outstanding.size();
+    }
+
+    long sentCount() {
+        return this.sent.get();
+    }
+
+    long succeededCount() {
+        return this.succeeded.get();
+    }
+
+    long failedCount() {
+        return this.failed.get();
+    }
+
+    long lostCount() {
+        return this.lost.get();
+    }
+
+    Histogram responseTimes() {
+        return this.responseTimes.getIntervalHistogram();
+    }
+
+    Histogram serviceTimes() {
+        return this.serviceTimes.getIntervalHistogram();
+    }
+
+    private void record(long intendedStartNanos, long startNanos) {
+        long end = System.nanoTime();
+        this.responseTimes.recordValue(Math.min(end - intendedStartNanos, HIGHEST_TRACKABLE_VALUE));
+        this.serviceTimes.recordValue(Math.min(end - startNanos, HIGHEST_TRACKABLE_VALUE));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.tstra.loadtest;
+
+import lombok.NonNull;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Outcome of the measured phase of a target. The summary is meant to be diffed between releases, and the
+ * {@code .hgrm} percentile distributions to be plotted together with the HdrHistogram plotter.
+ */
+final class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99, 100};
+
+    private final String target;
+    private final double rate;
+    private final Duration duration;
+    private final long sent;
+    private final long succeeded;
+    private final long failed;
+    private final long lost;
+    private final Histogram responseTimes;
+    private final Histogram serviceTimes;
+
+    LatencyReport(@NonNull String target, double rate, @NonNull Duration duration, @NonNull LatencyRecorder recorder) {
+        this.target = target;
+        this.rate = rate;
+        this.duration = duration;
+        this.sent = recorder.sentCount();
+        this.succeeded = recorder.succeededCount();
+        this.failed = recorder.failedCount();
+        this.lost = recorder.lostCount();
+        this.responseTimes = recorder.responseTimes();
+        this.serviceTimes = recorder.serviceTimes();
+    }
+
+    void printSummary(@NonNull PrintStream out) {
+        out.printf(Locale.ROOT, "[%s]%n", this.target);
+        out.printf(Locale.ROOT, "rate.target      = %.1f/s%n", this.rate);
+        out.printf(Locale.ROOT, "rate.achieved    = %.1f/s%n", (this.succeeded + this.failed) / (this.duration.toNanos() / 1e9));
+        out.printf(Locale.ROOT, "requests.sent    = %d%n", this.sent);
+        out.printf(Locale.ROOT, "requests.success = %d%n", this.succeeded);
+        out.printf(Locale.ROOT, "requests.failure = %d%n", this.failed);
+        out.printf(Locale.ROOT, "requests.lost    = %d%n", this.lost);
+        printPercentiles(out, "response_time", this.responseTimes);
+        printPercentiles(out, "service_time", this.serviceTimes);
+        out.println();
+    }
+
+    void writeDistributions(@NonNull Path directory) throws IOException {
+        writeDistribution(directory.resolve(this.target + "-response-time.hgrm"), this.responseTimes);
+        writeDistribution(directory.resolve(this.target + "-service-time.hgrm"), this.serviceTimes);
+    }
+
+    private static void printPercentiles(PrintStream out, String name, Histogram histogram) {
+        for (double percentile : PERCENTILES) {
+            out.printf(Locale.ROOT, "%s.%-7s = %.3f ms%n",
+                name,
+                percentile == 100 ? "max" : "p" + new BigDecimal(Double.toString(percentile)).stripTrailingZeros().toPlainString(),
+                histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+        }
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+}
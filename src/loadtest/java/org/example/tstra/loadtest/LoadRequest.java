@@ -0,0 +1,36 @@
+package org.example.tstra.loadtest;
+
+import lombok.Value;
+
+import java.util.Random;
+
+/**
+ * A loan application request sent by the load test.
+ */
+@Value
+class LoadRequest {
+
+    String merchantId;
+    String productId;
+    String language;
+    int purchaseAmount;
+
+    /**
+     * Valid requests spread over the whole catalogue, drawn with a fixed seed so that two runs send the same
+     * sequence.
+     */
+    static LoadRequest[] mix(int size, int merchants, int productsPerMerchant) {
+        Random random = new Random(42);
+        String[] languages = {"fr", "nl"};
+        LoadRequest[] requests = new LoadRequest[size];
+        for (int i = 0; i < size; i++) {
+            requests[i] = new LoadRequest(
+                InMemoryPorts.Catalogue.merchantId(random.nextInt(merchants)),
+                InMemoryPorts.Catalogue.productId(random.nextInt(productsPerMerchant)),
+                languages[random.nextInt(languages.length)],
+                InMemoryPorts.MIN_PURCHASE_AMOUNT + random.nextInt(InMemoryPorts.MAX_PURCHASE_AMOUNT - InMemoryPorts.MIN_PURCHASE_AMOUNT)
+            );
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.tstra.loadtest;
+
+/**
+ * An adapter of the application driven by the load test.
+ */
+interface LoadTarget extends AutoCloseable {
+
+    /**
+     * Sends the request without waiting for its reply, and reports the reply to the recorder. It must return
+     * quickly, so that the next request leaves on schedule.
+     */
+    void send(LoadRequest request, long intendedStartNanos, LatencyRecorder recorder);
+
+    @Override
+    void close() throws Exception;
+}
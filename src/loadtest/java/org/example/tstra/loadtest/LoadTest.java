@@ -0,0 +1,94 @@
+package org.example.tstra.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.tstra.LoanApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives the REST API, then the requests topic, at a fixed open-loop rate, see {@link LoadTestOptions}.
+ */
+public final class LoadTest {
+
+    static final String REST = "rest";
+    static final String KAFKA = "kafka";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Files.createDirectories(options.getReportDirectory());
+
+        // The broker starts before Spring Boot sets the logging up, keep it from logging every request
+        LoggingSystem.get(LoadTest.class.getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, false, 1, "requests", "responses");
+        broker.afterPropertiesSet();
+        ConfigurableApplicationContext application = null;
+        try {
+            application = new SpringApplicationBuilder(LoanApplication.class, InMemoryPorts.class).run(
+                "--server.port=0",
+                "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                "--spring.kafka.consumer.auto-offset-reset=earliest",
+                "--loan-application.kafka.listener-mode=" + options.getListenerMode(),
+                "--loadtest.merchants=" + options.getMerchants(),
+                "--loadtest.products-per-merchant=" + options.getProductsPerMerchant()
+            );
+            int port = application.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            ObjectMapper objectMapper = application.getBean(ObjectMapper.class);
+            LoadRequest[] requests = LoadRequest.mix(4096, options.getMerchants(), options.getProductsPerMerchant());
+
+            List<LatencyReport> reports = new ArrayList<>();
+            for (String target : options.getTargets()) {
+                try (LoadTarget loadTarget = REST.equals(target)
+                    ? new RestLoadTarget(port, options.getRestConnections(), objectMapper)
+                    : new KafkaLoadTarget(broker.getBrokersAsString(), objectMapper)) {
+                    reports.add(run(target, loadTarget, requests, options));
+                }
+            }
+            report(options, reports);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            broker.destroy();
+        }
+    }
+
+    private static LatencyReport run(String target, LoadTarget loadTarget, LoadRequest[] requests, LoadTestOptions options) {
+        OpenLoopGenerator generator = new OpenLoopGenerator(loadTarget, requests, options.getRate());
+        System.out.printf("Warming up %s for %s%n", target, options.getWarmup());
+        generator.run(options.getWarmup(), options.getDrain(), new LatencyRecorder());
+        System.out.printf("Measuring %s for %s%n", target, options.getDuration());
+        LatencyRecorder recorder = new LatencyRecorder();
+        generator.run(options.getDuration(), options.getDrain(), recorder);
+        return new LatencyReport(target, options.getRate(), options.getDuration(), recorder);
+    }
+
+    private static void report(LoadTestOptions options, List<LatencyReport> reports) throws Exception {
+        ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(summary, true, "UTF-8")) {
+            out.printf("# label=%s date=%s java=%s%n", options.getLabel(), Instant.now(), System.getProperty("java.version"));
+            out.printf("# %s%n%n", options);
+            for (LatencyReport report : reports) {
+                report.printSummary(out);
+                report.writeDistributions(options.getReportDirectory());
+            }
+        }
+        String text = new String(summary.toByteArray(), StandardCharsets.UTF_8);
+        Files.write(options.getReportDirectory().resolve("summary.txt"), text.getBytes(StandardCharsets.UTF_8));
+        System.out.print(text);
+        System.out.printf("Report written to %s%n", options.getReportDirectory().toAbsolutePath());
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.tstra.loadtest;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of {@link LoadTest}, given as {@code --name=value} arguments.
+ */
+@Value
+class LoadTestOptions {
+
+    List<String> targets;
+    double rate;
+    Duration warmup;
+    Duration duration;
+    Duration drain;
+    int merchants;
+    int productsPerMerchant;
+    int restConnections;
+    String listenerMode;
+    String label;
+    Path reportDirectory;
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String label = values.getOrDefault("label", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        LoadTestOptions options = new LoadTestOptions(
+            Arrays.asList(values.getOrDefault("targets", "rest,kafka").split(",")),
+            Double.parseDouble(values.getOrDefault("rate", "1000")),
+            Duration.parse(values.getOrDefault("warmup", "PT10S")),
+            Duration.parse(values.getOrDefault("duration", "PT30S")),
+            Duration.parse(values.getOrDefault("drain", "PT10S")),
+            Integer.parseInt(values.getOrDefault("merchants", "100")),
+            Integer.parseInt(values.getOrDefault("products-per-merchant", "10")),
+            Integer.parseInt(values.getOrDefault("rest-connections", "64")),
+            values.getOrDefault("listener-mode", "record"),
+            label,
+            Paths.get(values.getOrDefault("report-directory", "target/loadtest")).resolve(label)
+        );
+        for (String target : options.targets) {
+            if (!LoadTest.REST.equals(target) && !LoadTest.KAFKA.equals(target)) {
+                throw new IllegalArgumentException("Unknown target " + target);
+            }
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("The rate must be positive");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.tstra.loadtest;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate whatever the response times: request {@code i} is due {@code i / rate} seconds in.
+ */
+final class OpenLoopGenerator {
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final LoadTarget target;
+    private final LoadRequest[] requests;
+    private final double intervalNanos;
+    private long next;
+
+    OpenLoopGenerator(@NonNull LoadTarget target, @NonNull LoadRequest[] requests, double rate) {
+        this.target = target;
+        this.requests = requests;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    }
+
+    // Requests still unanswered after the drain are recorded as lost
+    void run(@NonNull Duration duration, @NonNull Duration drain, @NonNull LatencyRecorder recorder) {
+        long start = System.nanoTime();
+        long durationNanos = duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intendedStart = start + (long) (i * this.intervalNanos);
+            if (intendedStart - start >= durationNanos) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+            recorder.sent(intendedStart);
+            this.target.send(this.requests[(int) (this.next++ % this.requests.length)], intendedStart, recorder);
+        }
+
+        long drainDeadline = System.nanoTime() + drain.toNanos();
+        while (recorder.outstanding() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(POLL_INTERVAL_NANOS);
+        }
+        recorder.lostOutstanding();
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.tstra.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts requests to {@code /api/v1/loan-applications} over a fixed number of keep-alive connections. Requests
+ * waiting for a free connection are queued, not dropped, and the wait is part of their response time.
+ */
+final class RestLoadTarget implements LoadTarget {
+
+    private final String url;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final ExecutorService connections;
+
+    RestLoadTarget(int port, int connections, @NonNull ObjectMapper objectMapper) {
+        // Lets the JDK client keep every connection alive rather than the default 5
+        System.setProperty("http.maxConnections", Integer.toString(connections));
+        this.url = "http://localhost:" + port + "/api/v1/loan-applications";
+        this.objectMapper = objectMapper;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.connections = Executors.newFixedThreadPool(connections, runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-rest-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void send(LoadRequest request, long intendedStartNanos, LatencyRecorder recorder) {
+        this.connections.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                ResponseEntity<String> response = this.restTemplate.postForEntity(this.url, this.entityOf(request), String.class);
+                if (response.getStatusCode() == HttpStatus.CREATED) {
+                    recorder.succeeded(intendedStartNanos, start);
+                } else {
+                    recorder.failed(intendedStartNanos, start);
+                }
+            } catch (RestClientException e) {
+                recorder.failed(intendedStartNanos, start);
+            }
+        });
+    }
+
+    private HttpEntity<String> entityOf(LoadRequest request) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("productId", request.getProductId());
+        body.put("language", request.getLanguage());
+        body.put("purchaseAmount", request.getPurchaseAmount());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Custom-MerchantId", request.getMerchantId());
+        try {
+            return new HttpEntity<>(this.objectMapper.writeValueAsString(body), headers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        this.connections.shutdownNow();
+        this.connections.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.tstra;
+
+import org.example.tstra.adapter.secondary.metrics.CompositeCreateLoanApplicationMonitor;
+import org.example.tstra.adapter.secondary.metrics.MicrometerCreateLoanApplicationMonitor;
+import org.example.tstra.adapter.secondary.metrics.RollingLoanApplicationAggregates;
+import org.example.tstra.application.service.EffectiveAmountRangeIndex;
+import org.example.tstra.application.service.PurchaseAmountInRangePolicy;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class LoanApplicationConfiguration {
+
+    @Bean
+    public PurchaseAmountInRangePolicy purchaseAmountInRangePolicy(ObjectProvider<EffectiveAmountRangeIndex> effectiveAmountRangeIndex) {
+        EffectiveAmountRangeIndex index = effectiveAmountRangeIndex.getIfAvailable();
+        return index == null ? new PurchaseAmountInRangePolicy() : new PurchaseAmountInRangePolicy(index);
+    }
+
+    @Bean
+    @Primary
+    public CreateLoanApplication.Monitor createLoanApplicationMonitor(
+        MicrometerCreateLoanApplicationMonitor micrometerCreateLoanApplicationMonitor,
+        RollingLoanApplicationAggregates rollingLoanApplicationAggregates) {
+        return new CompositeCreateLoanApplicationMonitor(micrometerCreateLoanApplicationMonitor, rollingLoanApplicationAggregates);
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.tstra.adapter.primary.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs {@link CreateLoanApplication} at most once per idempotency key: replays get the stored response, duplicates
+ * of a running request wait for its outcome, and failed requests release their key.
+ */
+@Component
+public class IdempotentCreateLoanApplication {
+
+    private final CreateLoanApplication useCase;
+    private final long awaitTimeoutNanos;
+    private final ConcurrentMap<String, Execution> executions;
+
+    @Inject
+    public IdempotentCreateLoanApplication(
+        @NonNull CreateLoanApplication useCase,
+        @Value("${loan-application.idempotency.maximum-size:100000}") long maximumSize,
+        @Value("${loan-application.idempotency.time-to-live:PT1H}") @NonNull Duration timeToLive,
+        @Value("${loan-application.idempotency.await-timeout:PT30S}") @NonNull Duration awaitTimeout) {
+        this(useCase, maximumSize, timeToLive, awaitTimeout, Ticker.systemTicker());
+    }
+
+    IdempotentCreateLoanApplication(
+        @NonNull CreateLoanApplication useCase,
+        long maximumSize,
+        @NonNull Duration timeToLive,
+        @NonNull Duration awaitTimeout,
+        @NonNull Ticker ticker) {
+        this.useCase = useCase;
+        this.awaitTimeoutNanos = awaitTimeout.toNanos();
+        Cache<String, Execution> cache = Caffeine.newBuilder()
+            .maximumWeight(maximumSize)
+            .weigher((String key, Execution execution) -> execution.outcome.isDone() ? 1 : 0)
+            .expireAfterWrite(timeToLive.toNanos(), TimeUnit.NANOSECONDS)
+            .ticker(ticker)
+            .build();
+        this.executions = cache.asMap();
+    }
+
+    public CreateLoanApplication.CreateLoanApplicationResponse execute(
+        String key,
+        @NonNull CreateLoanApplication.CreateLoanApplicationRequest request) throws CreateLoanApplication.CreateLoanApplicationException {
+        if (key == null) {
+            return this.useCase.execute(request);
+        }
+
+        Execution execution = new Execution(request);
+        Execution existing = this.executions.putIfAbsent(key, execution);
+        if (existing != null) {
+            return existing.await(request, this.awaitTimeoutNanos);
+        }
+
+        try {
+            CreateLoanApplication.CreateLoanApplicationResponse response = this.useCase.execute(request);
+            this.complete(key, execution, response);
+            return response;
+        } catch (Throwable e) {
+            this.fail(key, execution, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #execute}; a duplicate of a running request shares its future.
+     */
+    public CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> executeAsync(
+        String key,
+        @NonNull CreateLoanApplication.CreateLoanApplicationRequest request,
+        @NonNull Executor executor) {
+        if (key == null) {
+            return this.useCase.executeAsync(request, executor);
+        }
+
+        Execution execution = new Execution(request);
+        Execution existing = this.executions.putIfAbsent(key, execution);
+        if (existing != null) {
+            return existing.outcomeOf(request);
+        }
+
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> outcome;
+        try {
+            outcome = this.useCase.executeAsync(request, executor);
+        } catch (Throwable e) {
+            this.fail(key, execution, e);
+            throw e;
+        }
+        return outcome.whenComplete((response, error) -> {
+            if (error == null) {
+                this.complete(key, execution, response);
+            } else {
+                this.fail(key, execution, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Batch counterpart of {@link #execute}; {@code keys} holds the key of each request, or null.
+     */
+    public List<CreateLoanApplication.CreateLoanApplicationResult> executeAll(
+        @NonNull List<String> keys,
+        @NonNull List<CreateLoanApplication.CreateLoanApplicationRequest> requests) {
+        if (keys.size() != requests.size()) {
+            throw new IllegalArgumentException("Expected one key per request");
+        }
+
+        Execution[] executions = new Execution[requests.size()];
+        boolean[] owned = new boolean[requests.size()];
+        List<CreateLoanApplication.CreateLoanApplicationRequest> toExecute = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String key = keys.get(i);
+            if (key == null) {
+                owned[i] = true;
+                toExecute.add(requests.get(i));
+                continue;
+            }
+            Execution execution = new Execution(requests.get(i));
+            Execution existing = this.executions.putIfAbsent(key, execution);
+            executions[i] = existing != null ? existing : execution;
+            if (existing == null) {
+                owned[i] = true;
+                toExecute.add(requests.get(i));
+            }
+        }
+
+        List<CreateLoanApplication.CreateLoanApplicationResult> executed;
+        try {
+            executed = this.useCase.executeAll(toExecute);
+        } catch (Throwable e) {
+            for (int i = 0; i < requests.size(); i++) {
+                if (owned[i] && executions[i] != null) {
+                    this.fail(keys.get(i), executions[i], e);
+                }
+            }
+            throw e;
+        }
+
+        List<CreateLoanApplication.CreateLoanApplicationResult> results = new ArrayList<>(requests.size());
+        int next = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            if (!owned[i]) {
+                results.add(null);
+                continue;
+            }
+            CreateLoanApplication.CreateLoanApplicationResult result = executed.get(next++);
+            if (executions[i] != null) {
+                if (result.isSuccess()) {
+                    this.complete(keys.get(i), executions[i], result.getResponse());
+                } else {
+                    this.fail(keys.get(i), executions[i], result.getError());
+                }
+            }
+            results.add(result);
+        }
+
+        // Duplicates are awaited last: they may wait on executions of this very batch
+        for (int i = 0; i < requests.size(); i++) {
+            if (!owned[i]) {
+                try {
+                    results.set(i, new CreateLoanApplication.CreateLoanApplicationResult(executions[i].await(requests.get(i), this.awaitTimeoutNanos), null));
+                } catch (CreateLoanApplication.CreateLoanApplicationException | RuntimeException e) {
+                    results.set(i, new CreateLoanApplication.CreateLoanApplicationResult(null, e));
+                }
+            }
+        }
+        return results;
+    }
+
+    private void complete(String key, Execution execution, CreateLoanApplication.CreateLoanApplicationResponse response) {
+        execution.outcome.complete(response);
+        // Weighs the entry again, now that it is completed
+        this.executions.replace(key, execution, execution);
+    }
+
+    private void fail(String key, Execution execution, Throwable error) {
+        this.executions.remove(key, execution);
+        execution.outcome.completeExceptionally(error);
+    }
+
+    private static final class Execution {
+        private final CreateLoanApplication.CreateLoanApplicationRequest request;
+        private final CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> outcome = new CompletableFuture<>();
+
+        Execution(CreateLoanApplication.CreateLoanApplicationRequest request) {
+            this.request = request;
+        }
+
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> outcomeOf(CreateLoanApplication.CreateLoanApplicationRequest request) {
+            if (!this.request.equals(request)) {
+                CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> conflict = new CompletableFuture<>();
+                conflict.completeExceptionally(new IdempotencyKeyConflictException());
+                return conflict;
+            }
+            return this.outcome.thenApply(Function.identity());
+        }
+
+        CreateLoanApplication.CreateLoanApplicationResponse await(CreateLoanApplication.CreateLoanApplicationRequest request, long timeoutNanos) throws CreateLoanApplication.CreateLoanApplicationException {
+            if (!this.request.equals(request)) {
+                throw new IdempotencyKeyConflictException();
+            }
+            try {
+                return this.outcome.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new DuplicateRequestInProgressException();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DuplicateRequestInProgressException();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CreateLoanApplication.CreateLoanApplicationException) {
+                    throw (CreateLoanApplication.CreateLoanApplicationException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new CompletionException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * The idempotency key was already used for a different request.
+     */
+    public static final class IdempotencyKeyConflictException extends RuntimeException {
+        public IdempotencyKeyConflictException() {
+            super("The idempotency key was already used for a different request");
+        }
+    }
+
+    /**
+     * The request of the idempotency key did not complete in time.
+     */
+    public static final class DuplicateRequestInProgressException extends RuntimeException {
+        public DuplicateRequestInProgressException() {
+            super("The request of the idempotency key is still in progress, retry later");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ContainerAwareErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.SeekToCurrentErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeks back to a deferred record that is not due yet, and to the records polled after it, so that they are all
+ * delivered again; nothing is acknowledged meanwhile. Other failures are logged and the record skipped.
+ */
+class DeferredRecordErrorHandler implements ContainerAwareErrorHandler {
+
+    private final SeekToCurrentErrorHandler failures = new SeekToCurrentErrorHandler(new FixedBackOff(0, 0));
+
+    @Override
+    public void handle(Exception thrownException, List<ConsumerRecord<?, ?>> records, Consumer<?, ?> consumer, MessageListenerContainer container) {
+        if (!(thrownException.getCause() instanceof LoanApplicationAsyncKafkaApi.DeferralNotDueException)) {
+            this.failures.handle(thrownException, records, consumer, container);
+            return;
+        }
+        Map<TopicPartition, Long> offsets = new LinkedHashMap<>();
+        for (ConsumerRecord<?, ?> record : records) {
+            offsets.putIfAbsent(new TopicPartition(record.topic(), record.partition()), record.offset());
+        }
+        offsets.forEach(consumer::seek);
+    }
+}
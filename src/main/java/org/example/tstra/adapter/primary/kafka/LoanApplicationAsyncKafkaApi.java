@@ -1,56 +1,349 @@
 package org.example.tstra.adapter.primary.kafka;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.example.tstra.adapter.primary.idempotency.IdempotentCreateLoanApplication;
+import org.example.tstra.adapter.primary.metrics.AdapterMetrics;
+import org.example.tstra.adapter.primary.ratelimit.MerchantRateLimiter;
 import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka entry point of the use case. Requests are decoded with {@link LoanApplicationKafkaCodec}, replied to in
+ * their own encoding, and idempotent on their correlation id.
+ */
+@Slf4j
 @Component
-public class LoanApplicationAsyncKafkaApi {
+public class LoanApplicationAsyncKafkaApi implements DisposableBean {
+
+    static final String RESPONSES_TOPIC = "responses";
+    static final String JSON_PROCESSING_ERROR = "{\"type\":\"error\", \"message\":\"JsonProcessingException\"}";
+    static final String RAW_VALUE_DESERIALIZER = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer";
+    static final String DEFERRED_TOPIC = "requests-deferred";
+    static final String DEFERRED_LISTENER_ID = "loan-application-app-deferred";
+    static final String ATTEMPT_HEADER = "loan-application-attempt";
+    static final String NOT_BEFORE_HEADER = "loan-application-not-before";
+    static final String RATE_LIMITED = "TooManyRequests";
+
+    private static final byte[] JSON_PROCESSING_ERROR_BYTES = JSON_PROCESSING_ERROR.getBytes(StandardCharsets.UTF_8);
+    private static final DeferralNotDueException DEFERRAL_NOT_DUE = new DeferralNotDueException();
 
-    private final CreateLoanApplication useCase;
-    private final ObjectMapper objectMapper;
+    private final IdempotentCreateLoanApplication useCase;
+    private final LoanApplicationKafkaCodec codec;
+    private final LoanApplicationReplyPublisher replyPublisher;
+    private final AdapterMetrics.Timers requestTimers;
+    private final AdapterMetrics.Timers batchTimers;
+    private final MerchantRateLimiter rateLimiter;
+    private final int maxDeferrals;
+    private final long maxDeferralMillis;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ScheduledExecutorService deferralScheduler;
 
     public LoanApplicationAsyncKafkaApi(
-        @NonNull CreateLoanApplication useCase,
-        @NonNull ObjectMapper objectMapper) {
+        @NonNull IdempotentCreateLoanApplication useCase,
+        @NonNull ObjectMapper objectMapper,
+        @NonNull LoanApplicationReplyPublisher replyPublisher,
+        @NonNull AdapterMetrics adapterMetrics,
+        @NonNull ObjectProvider<MerchantRateLimiter> rateLimiter,
+        @Value("${loan-application.rate-limit.kafka.max-deferrals:20}") int maxDeferrals,
+        @Value("${loan-application.rate-limit.kafka.max-deferral:PT5S}") @NonNull Duration maxDeferral,
+        @NonNull KafkaListenerEndpointRegistry listenerRegistry) {
         this.useCase = useCase;
-        this.objectMapper = objectMapper;
+        this.codec = new LoanApplicationKafkaCodec(objectMapper);
+        this.replyPublisher = replyPublisher;
+        this.requestTimers = adapterMetrics.timers("kafka", "request");
+        this.batchTimers = adapterMetrics.timers("kafka", "batch");
+        this.rateLimiter = rateLimiter.getIfAvailable();
+        this.maxDeferrals = maxDeferrals;
+        this.maxDeferralMillis = maxDeferral.toMillis();
+        this.listenerRegistry = listenerRegistry;
+        this.deferralScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loan-application-deferral-resume");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @KafkaListener(
+        id = "loan-application-app",
+        topics = "requests",
+        properties = RAW_VALUE_DESERIALIZER,
+        autoStartup = "#{'${loan-application.kafka.listener-mode:record}' == 'record'}")
+    public void handleEvent(ConsumerRecord<String, byte[]> record) {
+        boolean binary = LoanApplicationKafkaCodec.isBinary(record.headers());
+        CreateLoanApplicationKafkaRequest request;
+        try {
+            request = this.read(record, binary);
+        } catch (IOException e) {
+            this.replyPublisher.send(this.malformed(binary), binary);
+            return;
+        }
+        try {
+            ListenableFuture<SendResult<String, byte[]>> deferral = this.deferIfRateLimited(record, request, binary);
+            if (deferral == null || !awaitDeferral(deferral, request)) {
+                this.replyPublisher.send(this.handle(request, binary), binary);
+            }
+        } catch (IOException e) {
+            log.error("Failed to handle loan application request {}", request.correlationId, e);
+        }
     }
 
-    @KafkaListener(id = "loan-application-app", topics = "requests")
-    @SendTo("responses")
-    public String handleEvent(String json) {
+    /**
+     * Handles the records deferred by the rate limit, once their {@value #NOT_BEFORE_HEADER} time has passed. Until
+     * then the container is paused rather than blocked, and the record is sought back to be delivered again.
+     */
+    @KafkaListener(
+        id = DEFERRED_LISTENER_ID,
+        groupId = "loan-application-app",
+        topics = DEFERRED_TOPIC,
+        properties = RAW_VALUE_DESERIALIZER,
+        containerFactory = LoanApplicationKafkaConfiguration.DEFERRED_LISTENER_CONTAINER_FACTORY,
+        autoStartup = "${loan-application.rate-limit.enabled:false}")
+    public void handleDeferredEvent(ConsumerRecord<String, byte[]> record) {
+        long wait = headerOf(record, NOT_BEFORE_HEADER) - System.currentTimeMillis();
+        // Further away than a deferral can be, the time comes from a skewed clock: not worth waiting for
+        if (wait > 0 && wait <= this.maxDeferralMillis) {
+            MessageListenerContainer container = this.listenerRegistry.getListenerContainer(DEFERRED_LISTENER_ID);
+            container.pause();
+            this.deferralScheduler.schedule(container::resume, wait, TimeUnit.MILLISECONDS);
+            throw DEFERRAL_NOT_DUE;
+        }
+        this.handleEvent(record);
+    }
+
+    /**
+     * Batch counterpart of {@link #handleEvent(ConsumerRecord)}: replies are flushed before the offsets of the batch
+     * are committed, and records still fail independently.
+     */
+    @KafkaListener(
+        id = "loan-application-app-batch",
+        groupId = "loan-application-app",
+        topics = "requests",
+        properties = RAW_VALUE_DESERIALIZER,
+        containerFactory = LoanApplicationKafkaConfiguration.BATCH_LISTENER_CONTAINER_FACTORY,
+        autoStartup = "#{'${loan-application.kafka.listener-mode:record}' == 'batch'}")
+    public void handleEvents(List<ConsumerRecord<String, byte[]>> records) throws ExecutionException, InterruptedException {
+        long start = System.nanoTime();
         try {
-            CreateLoanApplicationKafkaRequest request = this.objectMapper.readValue(json, CreateLoanApplicationKafkaRequest.class);
+            this.handleBatch(records);
+            this.batchTimers.record(AdapterMetrics.SUCCESS, start);
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            this.batchTimers.record(e.getClass().getSimpleName(), start);
+            throw e;
+        }
+    }
+
+    private void handleBatch(List<ConsumerRecord<String, byte[]>> records) throws ExecutionException, InterruptedException {
+        List<ListenableFuture<SendResult<String, byte[]>>> replies = new ArrayList<>(records.size());
+        List<CreateLoanApplicationKafkaRequest> requests = new ArrayList<>(records.size());
+        List<String> keys = new ArrayList<>(records.size());
+        List<Boolean> binaries = new ArrayList<>(records.size());
+        List<CreateLoanApplication.CreateLoanApplicationRequest> useCaseRequests = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            boolean binary = LoanApplicationKafkaCodec.isBinary(record.headers());
+            CreateLoanApplicationKafkaRequest request = null;
             try {
-                CreateLoanApplication.CreateLoanApplicationResponse result = this.useCase.execute(new CreateLoanApplication.CreateLoanApplicationRequest(
-                    request.merchantId,
-                    request.productId,
-                    request.language,
-                    request.purchaseAmount
-                ));
-                return this.objectMapper.writeValueAsString(new CreateLoanApplicationKafkaResponse(
-                    request.correlationId,
-                    "success",
-                    result.getLoanApplicationId()
-                ));
-            } catch (CreateLoanApplication.CreateLoanApplicationException e) {
-                return this.objectMapper.writeValueAsString(new CreateLoanApplicationKafkaResponse(
-                    request.correlationId,
-                    e.getClass().getSimpleName(),
-                    e.getMessage()
-                ));
+                request = this.read(record, binary);
+                ListenableFuture<SendResult<String, byte[]>> deferral = this.deferIfRateLimited(record, request, binary);
+                if (deferral != null) {
+                    replies.add(deferral);
+                    continue;
+                }
+                useCaseRequests.add(toUseCaseRequest(request));
+                keys.add(idempotencyKey(request));
+                requests.add(request);
+                binaries.add(binary);
+            } catch (IOException e) {
+                replies.add(this.replyPublisher.send(this.malformed(binary), binary));
+            } catch (RuntimeException e) {
+                log.error("Failed to handle loan application request", e);
+                replies.add(this.replyPublisher.send(this.error(request, e, binary), binary));
             }
-        } catch (JsonProcessingException e) {
-            return "{\"type\":\"error\", \"message\":\"JsonProcessingException\"}";
+        }
+
+        List<CreateLoanApplication.CreateLoanApplicationResult> results = this.useCase.executeAll(keys, useCaseRequests);
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreateLoanApplicationKafkaRequest request = requests.get(i);
+            boolean binary = binaries.get(i);
+            try {
+                replies.add(this.replyPublisher.send(this.reply(request, results.get(i), binary), binary));
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to handle loan application request {}", request.correlationId, e);
+                replies.add(this.replyPublisher.send(this.error(request, e, binary), binary));
+            }
+        }
+
+        this.replyPublisher.flush();
+        for (ListenableFuture<SendResult<String, byte[]>> reply : replies) {
+            reply.get();
         }
     }
 
+    CreateLoanApplicationKafkaRequest read(ConsumerRecord<String, byte[]> record, boolean binary) throws IOException {
+        return this.codec.readRequest(record.value(), binary);
+    }
+
+    /**
+     * Sends a request over its merchant's rate limit to {@value #DEFERRED_TOPIC}, or replies {@value #RATE_LIMITED}
+     * once deferred too often. Returns null when the request is to be handled now.
+     */
+    ListenableFuture<SendResult<String, byte[]>> deferIfRateLimited(ConsumerRecord<String, byte[]> record, CreateLoanApplicationKafkaRequest request, boolean binary) throws IOException {
+        if (this.rateLimiter == null || request.merchantId == null) {
+            return null;
+        }
+        long delay = this.rateLimiter.tryAcquire(request.merchantId);
+        if (delay == 0) {
+            return null;
+        }
+        int attempt = (int) headerOf(record, ATTEMPT_HEADER);
+        if (attempt >= this.maxDeferrals) {
+            return this.replyPublisher.send(this.codec.writeResponse(new CreateLoanApplicationKafkaResponse(
+                request.correlationId,
+                RATE_LIMITED,
+                "Too many requests for the merchant"
+            ), binary), binary);
+        }
+        long delayMillis = Math.min(TimeUnit.NANOSECONDS.toMillis(delay) + 1, this.maxDeferralMillis);
+        return this.replyPublisher.defer(record, attempt + 1, System.currentTimeMillis() + delayMillis);
+    }
+
+    /**
+     * Executes the request and returns its encoded reply.
+     */
+    byte[] handle(CreateLoanApplicationKafkaRequest request, boolean binary) throws IOException {
+        long start = System.nanoTime();
+        try {
+            CreateLoanApplication.CreateLoanApplicationResponse result = this.useCase.execute(idempotencyKey(request), toUseCaseRequest(request));
+            this.requestTimers.record(AdapterMetrics.SUCCESS, start);
+            return this.success(request, result, binary);
+        } catch (CreateLoanApplication.CreateLoanApplicationException | IdempotentCreateLoanApplication.IdempotencyKeyConflictException | IdempotentCreateLoanApplication.DuplicateRequestInProgressException e) {
+            this.requestTimers.record(e.getClass().getSimpleName(), start);
+            return this.failure(request, e, binary);
+        } catch (RuntimeException e) {
+            this.requestTimers.record(e.getClass().getSimpleName(), start);
+            throw e;
+        }
+    }
+
+    /**
+     * Reply to a record that could not be decoded.
+     */
+    byte[] malformed(boolean binary) {
+        if (!binary) {
+            return JSON_PROCESSING_ERROR_BYTES;
+        }
+        try {
+            return this.codec.writeResponse(new CreateLoanApplicationKafkaResponse(null, "error", "MalformedMessageException"), true);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reply to a record that failed unexpectedly, so that its requester is not left waiting.
+     */
+    byte[] error(CreateLoanApplicationKafkaRequest request, Exception e, boolean binary) {
+        if (request == null) {
+            return this.malformed(binary);
+        }
+        try {
+            return this.failure(request, e, binary);
+        } catch (IOException ioException) {
+            throw new IllegalStateException(ioException);
+        }
+    }
+
+    private byte[] reply(CreateLoanApplicationKafkaRequest request, CreateLoanApplication.CreateLoanApplicationResult result, boolean binary) throws IOException {
+        try {
+            return this.success(request, result.getOrThrow(), binary);
+        } catch (CreateLoanApplication.CreateLoanApplicationException | IdempotentCreateLoanApplication.IdempotencyKeyConflictException | IdempotentCreateLoanApplication.DuplicateRequestInProgressException e) {
+            return this.failure(request, e, binary);
+        }
+    }
+
+    private byte[] success(CreateLoanApplicationKafkaRequest request, CreateLoanApplication.CreateLoanApplicationResponse result, boolean binary) throws IOException {
+        return this.codec.writeResponse(new CreateLoanApplicationKafkaResponse(
+            request.correlationId,
+            "success",
+            result.getLoanApplicationId()
+        ), binary);
+    }
+
+    private byte[] failure(CreateLoanApplicationKafkaRequest request, Exception e, boolean binary) throws IOException {
+        return this.codec.writeResponse(new CreateLoanApplicationKafkaResponse(
+            request.correlationId,
+            e.getClass().getSimpleName(),
+            e.getMessage()
+        ), binary);
+    }
+
+    @Override
+    public void destroy() {
+        this.deferralScheduler.shutdownNow();
+    }
+
+    static long headerOf(ConsumerRecord<String, byte[]> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        if (header == null || header.value() == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // A request whose deferral failed is handled right away rather than lost with the offset commit
+    private static boolean awaitDeferral(ListenableFuture<SendResult<String, byte[]>> deferral, CreateLoanApplicationKafkaRequest request) {
+        try {
+            deferral.get();
+            return true;
+        } catch (ExecutionException e) {
+            log.error("Failed to defer loan application request {}, handling it now", request.correlationId, e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String idempotencyKey(CreateLoanApplicationKafkaRequest request) {
+        return request.correlationId == null ? null : "kafka:" + request.correlationId;
+    }
+
+    private static CreateLoanApplication.CreateLoanApplicationRequest toUseCaseRequest(CreateLoanApplicationKafkaRequest request) {
+        return new CreateLoanApplication.CreateLoanApplicationRequest(
+            request.merchantId,
+            request.productId,
+            request.language,
+            request.purchaseAmount
+        );
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -71,4 +364,13 @@ public class LoanApplicationAsyncKafkaApi {
         String message;
     }
 
+    /**
+     * Thrown for a deferred record that is not due yet, for the error handler of its container to seek back to it.
+     * Carries no stack trace.
+     */
+    static final class DeferralNotDueException extends RuntimeException {
+        DeferralNotDueException() {
+            super("The deferred record is not due yet", null, false, false);
+        }
+    }
 }
@@ -0,0 +1,172 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JSON, or {@link #BINARY_FORMAT} when the {@link #FORMAT_HEADER} header says so: a version byte, then strings as a
+ * varint of their UTF-8 length plus one (0 for null) and ints as zigzag varints.
+ */
+final class LoanApplicationKafkaCodec {
+
+    static final String FORMAT_HEADER = "loan-application-format";
+    static final String BINARY_FORMAT = "binary-v1";
+
+    private static final byte[] BINARY_FORMAT_BYTES = BINARY_FORMAT.getBytes(StandardCharsets.US_ASCII);
+    private static final byte BINARY_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+
+    LoanApplicationKafkaCodec(@NonNull ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    static boolean isBinary(Headers headers) {
+        Header header = headers.lastHeader(FORMAT_HEADER);
+        return header != null && Arrays.equals(BINARY_FORMAT_BYTES, header.value());
+    }
+
+    LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest readRequest(byte[] value, boolean binary) throws IOException {
+        if (value == null) {
+            throw new MalformedMessageException("Empty record");
+        }
+        if (!binary) {
+            return this.objectMapper.readValue(value, LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest.class);
+        }
+        Reader reader = new Reader(value);
+        reader.readVersion();
+        LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest request = new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest(
+            reader.readString(),
+            reader.readString(),
+            reader.readString(),
+            reader.readString(),
+            reader.readInt()
+        );
+        reader.readEnd();
+        return request;
+    }
+
+    byte[] writeResponse(LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse response, boolean binary) throws IOException {
+        if (!binary) {
+            return this.objectMapper.writeValueAsBytes(response);
+        }
+        Writer writer = new Writer();
+        writer.writeString(response.getCorrelationId());
+        writer.writeString(response.getType());
+        writer.writeString(response.getMessage());
+        return writer.toByteArray();
+    }
+
+    static final class MalformedMessageException extends IOException {
+        MalformedMessageException(String message) {
+            super(message);
+        }
+    }
+
+    static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        void readVersion() throws MalformedMessageException {
+            if (this.bytes.length == 0 || this.bytes[this.position++] != BINARY_VERSION) {
+                throw new MalformedMessageException("Unsupported binary version");
+            }
+        }
+
+        void readEnd() throws MalformedMessageException {
+            if (this.position != this.bytes.length) {
+                throw new MalformedMessageException("Trailing bytes");
+            }
+        }
+
+        String readString() throws MalformedMessageException {
+            int encodedLength = this.readVarint();
+            if (encodedLength == 0) {
+                return null;
+            }
+            if (encodedLength < 0) {
+                throw new MalformedMessageException("Invalid string length");
+            }
+            int length = encodedLength - 1;
+            if (length > this.bytes.length - this.position) {
+                throw new MalformedMessageException("Truncated string");
+            }
+            String value = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return value;
+        }
+
+        int readInt() throws MalformedMessageException {
+            int zigzag = this.readVarint();
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        private int readVarint() throws MalformedMessageException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (this.position == this.bytes.length) {
+                    throw new MalformedMessageException("Truncated varint");
+                }
+                byte b = this.bytes[this.position++];
+                if (shift == 28 && (b & 0x70) != 0) {
+                    throw new MalformedMessageException("Varint overflow");
+                }
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new MalformedMessageException("Varint too long");
+        }
+    }
+
+    static final class Writer {
+        private byte[] bytes = new byte[64];
+        private int position;
+
+        Writer() {
+            this.bytes[this.position++] = BINARY_VERSION;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                this.writeVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            this.writeVarint(utf8.length + 1);
+            this.ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, this.bytes, this.position, utf8.length);
+            this.position += utf8.length;
+        }
+
+        void writeVarint(int value) {
+            this.ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                this.bytes[this.position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.bytes[this.position++] = (byte) value;
+        }
+
+        private void ensureCapacity(int length) {
+            if (this.position + length > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.position + length));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(this.bytes, this.position);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads the records of a poll across single threaded workers picked by merchant id, so the requests of a merchant
+ * stay in order. Offsets are committed up to the lowest offset still in flight.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "loan-application.kafka.listener-mode", havingValue = "merchant-parallel")
+public class LoanApplicationMerchantParallelKafkaApi implements DisposableBean {
+
+    private static final long COMMIT_INTERVAL_MILLIS = 100;
+
+    private final LoanApplicationAsyncKafkaApi api;
+    private final LoanApplicationReplyPublisher replyPublisher;
+    private final ExecutorService[] workers;
+
+    public LoanApplicationMerchantParallelKafkaApi(
+        @NonNull LoanApplicationAsyncKafkaApi api,
+        @NonNull LoanApplicationReplyPublisher replyPublisher,
+        @Value("${loan-application.kafka.merchant-parallel.workers:0}") int workers) {
+        this.api = api;
+        this.replyPublisher = replyPublisher;
+        this.workers = new ExecutorService[workers > 0 ? workers : Runtime.getRuntime().availableProcessors()];
+        AtomicInteger threadNumber = new AtomicInteger();
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "loan-application-merchant-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @KafkaListener(
+        id = "loan-application-app-merchant-parallel",
+        groupId = "loan-application-app",
+        topics = "requests",
+        properties = LoanApplicationAsyncKafkaApi.RAW_VALUE_DESERIALIZER,
+        containerFactory = LoanApplicationKafkaConfiguration.MANUAL_COMMIT_BATCH_LISTENER_CONTAINER_FACTORY)
+    public void handleEvents(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) throws InterruptedException {
+        PartitionOffsetTracker offsets = new PartitionOffsetTracker();
+        List<Future<?>> submitted = new ArrayList<>(records.size());
+        boolean dispatched = false;
+        try {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                long offset = record.offset();
+                offsets.track(partition, offset);
+
+                boolean binary = LoanApplicationKafkaCodec.isBinary(record.headers());
+                LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest request;
+                try {
+                    request = this.api.read(record, binary);
+                } catch (IOException e) {
+                    this.reply(this.api.malformed(binary), binary, () -> offsets.complete(partition, offset));
+                    continue;
+                }
+
+                ListenableFuture<SendResult<String, byte[]>> deferral;
+                try {
+                    deferral = this.api.deferIfRateLimited(record, request, binary);
+                } catch (IOException | RuntimeException e) {
+                    log.error("Failed to defer loan application request {}", request.getCorrelationId(), e);
+                    offsets.complete(partition, offset);
+                    continue;
+                }
+                if (deferral != null) {
+                    this.onAcknowledged(deferral, () -> offsets.complete(partition, offset));
+                    continue;
+                }
+
+                submitted.add(this.workerOf(request.getMerchantId()).submit(() -> {
+                    try {
+                        this.reply(this.api.handle(request, binary), binary, () -> offsets.complete(partition, offset));
+                    } catch (IOException | RuntimeException e) {
+                        log.error("Failed to handle loan application request {}", request.getCorrelationId(), e);
+                        offsets.complete(partition, offset);
+                    }
+                }));
+            }
+            dispatched = true;
+        } finally {
+            if (!dispatched) {
+                awaitWorkers(submitted);
+            }
+        }
+
+        while (offsets.inFlight() > 0) {
+            offsets.awaitCompletion(COMMIT_INTERVAL_MILLIS);
+            Map<TopicPartition, OffsetAndMetadata> committable = offsets.committableOffsets();
+            if (!committable.isEmpty()) {
+                consumer.commitAsync(committable, null);
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.committableOffsets();
+        if (!committable.isEmpty()) {
+            consumer.commitSync(committable);
+        }
+    }
+
+    // Lets the workers of a failed poll finish, so that no offset is committed or retried under them
+    private static void awaitWorkers(List<Future<?>> submitted) {
+        for (Future<?> worker : submitted) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                log.error("Loan application worker failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private ExecutorService workerOf(String merchantId) {
+        return this.workers[Math.floorMod(Objects.hashCode(merchantId), this.workers.length)];
+    }
+
+    private void reply(byte[] reply, boolean binary, Runnable onAcknowledged) {
+        this.onAcknowledged(this.replyPublisher.send(reply, binary), onAcknowledged);
+    }
+
+    private void onAcknowledged(ListenableFuture<SendResult<String, byte[]>> send, Runnable onAcknowledged) {
+        send.addCallback(
+            result -> onAcknowledged.run(),
+            e -> {
+                log.error("Failed to send loan application reply", e);
+                onAcknowledged.run();
+            }
+        );
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ExecutorService worker : this.workers) {
+            worker.shutdown();
+        }
+        for (ExecutorService worker : this.workers) {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
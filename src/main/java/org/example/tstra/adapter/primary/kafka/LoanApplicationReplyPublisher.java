@@ -0,0 +1,68 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import lombok.NonNull;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Publishes encoded replies to the responses topic and deferred requests to the deferred requests topic, with a
+ * producer of its own so that the auto-configured {@link KafkaTemplate} stays the application template.
+ */
+@Component
+public class LoanApplicationReplyPublisher implements DisposableBean {
+
+    private static final byte[] BINARY_FORMAT = LoanApplicationKafkaCodec.BINARY_FORMAT.getBytes(StandardCharsets.US_ASCII);
+
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    public LoanApplicationReplyPublisher(@NonNull KafkaProperties kafkaProperties) {
+        this.producerFactory = new DefaultKafkaProducerFactory<>(
+            kafkaProperties.buildProducerProperties(),
+            new StringSerializer(),
+            new ByteArraySerializer()
+        );
+        this.kafkaTemplate = new KafkaTemplate<>(this.producerFactory);
+    }
+
+    ListenableFuture<SendResult<String, byte[]>> send(byte[] reply, boolean binary) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(LoanApplicationAsyncKafkaApi.RESPONSES_TOPIC, reply);
+        if (binary) {
+            record.headers().add(LoanApplicationKafkaCodec.FORMAT_HEADER, BINARY_FORMAT);
+        }
+        return this.kafkaTemplate.send(record);
+    }
+
+    ListenableFuture<SendResult<String, byte[]>> defer(ConsumerRecord<String, byte[]> request, int attempt, long notBeforeMillis) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(LoanApplicationAsyncKafkaApi.DEFERRED_TOPIC, request.key(), request.value());
+        for (Header header : request.headers()) {
+            if (!LoanApplicationAsyncKafkaApi.ATTEMPT_HEADER.equals(header.key()) && !LoanApplicationAsyncKafkaApi.NOT_BEFORE_HEADER.equals(header.key())) {
+                record.headers().add(header);
+            }
+        }
+        record.headers().add(LoanApplicationAsyncKafkaApi.ATTEMPT_HEADER, Integer.toString(attempt).getBytes(StandardCharsets.US_ASCII));
+        record.headers().add(LoanApplicationAsyncKafkaApi.NOT_BEFORE_HEADER, Long.toString(notBeforeMillis).getBytes(StandardCharsets.US_ASCII));
+        return this.kafkaTemplate.send(record);
+    }
+
+    void flush() {
+        this.kafkaTemplate.flush();
+    }
+
+    @Override
+    public void destroy() {
+        this.producerFactory.destroy();
+    }
+}
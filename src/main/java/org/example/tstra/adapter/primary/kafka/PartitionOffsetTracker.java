@@ -0,0 +1,77 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Per partition, the offsets below the lowest record still in flight are safe to commit.
+ */
+final class PartitionOffsetTracker {
+
+    private final Map<TopicPartition, Offsets> partitions = new HashMap<>();
+    private int inFlight;
+
+    synchronized void track(TopicPartition partition, long offset) {
+        this.partitions.computeIfAbsent(partition, p -> new Offsets()).track(offset);
+        this.inFlight++;
+    }
+
+    synchronized void complete(TopicPartition partition, long offset) {
+        Offsets offsets = this.partitions.get(partition);
+        if (offsets != null && offsets.complete(offset)) {
+            this.inFlight--;
+            this.notifyAll();
+        }
+    }
+
+    synchronized int inFlight() {
+        return this.inFlight;
+    }
+
+    /**
+     * Waits until a record completes, at most {@code timeoutMillis}. Returns immediately when nothing is in flight.
+     */
+    synchronized void awaitCompletion(long timeoutMillis) throws InterruptedException {
+        if (this.inFlight > 0) {
+            this.wait(timeoutMillis);
+        }
+    }
+
+    /**
+     * Returns the offsets to commit for the partitions that made progress since the previous call.
+     */
+    synchronized Map<TopicPartition, OffsetAndMetadata> committableOffsets() {
+        Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+        this.partitions.forEach((partition, offsets) -> {
+            long offset = offsets.committable();
+            if (offset > offsets.committed) {
+                offsets.committed = offset;
+                committable.put(partition, new OffsetAndMetadata(offset));
+            }
+        });
+        return committable;
+    }
+
+    private static final class Offsets {
+        private final TreeSet<Long> inFlight = new TreeSet<>();
+        private long next = -1;
+        private long committed = -1;
+
+        void track(long offset) {
+            this.inFlight.add(offset);
+            this.next = Math.max(this.next, offset + 1);
+        }
+
+        boolean complete(long offset) {
+            return this.inFlight.remove(offset);
+        }
+
+        long committable() {
+            return this.inFlight.isEmpty() ? this.next : this.inFlight.first();
+        }
+    }
+}
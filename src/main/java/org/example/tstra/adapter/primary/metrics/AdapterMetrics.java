@@ -0,0 +1,60 @@
+package org.example.tstra.adapter.primary.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end latency of the primary adapters, published to the {@value #DURATION} timer tagged by adapter,
+ * operation and outcome: {@value #SUCCESS} or the simple name of the exception the request was rejected with.
+ */
+@Component
+public class AdapterMetrics {
+
+    public static final String DURATION = "loan_application.adapter.duration";
+    public static final String SUCCESS = "success";
+
+    private final MeterRegistry registry;
+
+    public AdapterMetrics(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timers timers(@NonNull String adapter, @NonNull String operation) {
+        return new Timers(adapter, operation);
+    }
+
+    /**
+     * Timers of one adapter operation, one per outcome, created on first use.
+     */
+    public final class Timers {
+        private final String adapter;
+        private final String operation;
+        private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+        private Timers(String adapter, String operation) {
+            this.adapter = adapter;
+            this.operation = operation;
+        }
+
+        public void record(@NonNull String outcome, long startNanos) {
+            long duration = System.nanoTime() - startNanos;
+            Timer timer = this.timers.get(outcome);
+            if (timer == null) {
+                timer = this.timers.computeIfAbsent(outcome, o -> Timer.builder(DURATION)
+                    .description("End to end duration of a loan application request in a primary adapter")
+                    .tag("adapter", this.adapter)
+                    .tag("operation", this.operation)
+                    .tag("outcome", o)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(AdapterMetrics.this.registry));
+            }
+            timer.record(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+}
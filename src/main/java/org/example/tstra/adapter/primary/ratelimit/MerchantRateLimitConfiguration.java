@@ -0,0 +1,48 @@
+package org.example.tstra.adapter.primary.ratelimit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-merchant rate limiting of the primary adapters, on with {@code loan-application.rate-limit.enabled=true}.
+ */
+@Configuration
+@EnableConfigurationProperties(MerchantRateLimitProperties.class)
+@ConditionalOnProperty(name = "loan-application.rate-limit.enabled", havingValue = "true")
+public class MerchantRateLimitConfiguration {
+
+    public static final String RATE_LIMITED = "loan_application.rate_limit.limited";
+    public static final String TRACKED_MERCHANTS = "loan_application.rate_limit.tracked_merchants";
+
+    @Bean
+    public MerchantRateLimiter merchantRateLimiter(MerchantRateLimitProperties properties, MeterRegistry registry) {
+        Map<String, MerchantRateLimiter.Limit> limits = new HashMap<>();
+        properties.getMerchants().forEach((merchantId, limit) -> limits.put(
+            merchantId,
+            new MerchantRateLimiter.Limit(
+                limit.getRequestsPerSecond() == null ? properties.getRequestsPerSecond() : limit.getRequestsPerSecond(),
+                limit.getBurst() == null ? properties.getBurst() : limit.getBurst()
+            )
+        ));
+        MerchantRateLimiter limiter = new MerchantRateLimiter(
+            new MerchantRateLimiter.Limit(properties.getRequestsPerSecond(), properties.getBurst()),
+            limits,
+            properties.getMaximumMerchants()
+        );
+        FunctionCounter.builder(RATE_LIMITED, limiter, MerchantRateLimiter::limitedCount)
+            .description("Loan application requests rejected by the rate limit of their merchant")
+            .register(registry);
+        Gauge.builder(TRACKED_MERCHANTS, limiter, MerchantRateLimiter::trackedMerchants)
+            .description("Merchants holding a rate limit bucket")
+            .register(registry);
+        return limiter;
+    }
+}
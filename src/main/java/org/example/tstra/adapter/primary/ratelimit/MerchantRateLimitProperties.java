@@ -0,0 +1,37 @@
+package org.example.tstra.adapter.primary.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits of {@link MerchantRateLimiter}: a default one, and one per merchant under
+ * {@code loan-application.rate-limit.merchants.<merchantId>} whose unset fields are those of the default one.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "loan-application.rate-limit")
+public class MerchantRateLimitProperties {
+
+    @Positive
+    private double requestsPerSecond = 50;
+    @Positive
+    private int burst = 100;
+    @Positive
+    private long maximumMerchants = 100_000;
+    @Valid
+    private Map<String, MerchantLimit> merchants = new HashMap<>();
+
+    @Data
+    public static class MerchantLimit {
+        @Positive
+        private Double requestsPerSecond;
+        @Positive
+        private Integer burst;
+    }
+}
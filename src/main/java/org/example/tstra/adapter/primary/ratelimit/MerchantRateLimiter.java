@@ -0,0 +1,129 @@
+package org.example.tstra.adapter.primary.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket per merchant, after the generic cell rate algorithm, in a Caffeine cache whose buckets
+ * expire once full again.
+ */
+public class MerchantRateLimiter {
+
+    private final Limit defaultLimit;
+    private final Map<String, Limit> limits;
+    private final Ticker ticker;
+    private final Cache<String, Bucket> buckets;
+    private final LongAdder limited = new LongAdder();
+
+    public MerchantRateLimiter(@NonNull Limit defaultLimit, @NonNull Map<String, Limit> limits, long maximumMerchants) {
+        this(defaultLimit, limits, maximumMerchants, Ticker.systemTicker());
+    }
+
+    MerchantRateLimiter(@NonNull Limit defaultLimit, @NonNull Map<String, Limit> limits, long maximumMerchants, @NonNull Ticker ticker) {
+        this.defaultLimit = defaultLimit;
+        this.limits = new HashMap<>(limits);
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maximumMerchants)
+            .expireAfter(new BucketExpiry())
+            .ticker(ticker)
+            .build();
+    }
+
+    // 0 when the request may go through, otherwise the nanoseconds until the merchant gets a token again
+    public long tryAcquire(@NonNull String merchantId) {
+        long now = this.ticker.read();
+        Bucket bucket = this.buckets.get(merchantId, id -> new Bucket(this.limits.getOrDefault(id, this.defaultLimit), now));
+        long delay = bucket.tryAcquire(now);
+        if (delay > 0) {
+            this.limited.increment();
+        }
+        return delay;
+    }
+
+    /**
+     * Requests rejected so far.
+     */
+    public long limitedCount() {
+        return this.limited.sum();
+    }
+
+    /**
+     * Merchants currently holding a bucket.
+     */
+    public long trackedMerchants() {
+        this.buckets.cleanUp();
+        return this.buckets.estimatedSize();
+    }
+
+    @Value
+    public static class Limit {
+        double requestsPerSecond;
+        int burst;
+
+        public Limit(double requestsPerSecond, int burst) {
+            if (!(requestsPerSecond > 0) || burst < 1) {
+                throw new IllegalArgumentException("requestsPerSecond and burst must be positive");
+            }
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+        }
+    }
+
+    private static final class Bucket {
+        private final long emissionInterval;
+        private final long tolerance;
+        private final AtomicLong theoreticalArrivalTime;
+
+        Bucket(Limit limit, long now) {
+            this.emissionInterval = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / limit.requestsPerSecond));
+            this.tolerance = this.emissionInterval * (limit.burst - 1);
+            this.theoreticalArrivalTime = new AtomicLong(now);
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long theoreticalArrivalTime = this.theoreticalArrivalTime.get();
+                long allowedAt = theoreticalArrivalTime - this.tolerance;
+                if (now < allowedAt) {
+                    return allowedAt - now;
+                }
+                if (this.theoreticalArrivalTime.compareAndSet(theoreticalArrivalTime, Math.max(theoreticalArrivalTime, now) + this.emissionInterval)) {
+                    return 0;
+                }
+            }
+        }
+
+        // Past this, the bucket is full again whatever its state
+        long refillNanos() {
+            return this.tolerance + this.emissionInterval;
+        }
+    }
+
+    private static final class BucketExpiry implements Expiry<String, Bucket> {
+        @Override
+        public long expireAfterCreate(String merchantId, Bucket bucket, long currentTime) {
+            return bucket.refillNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String merchantId, Bucket bucket, long currentTime, long currentDuration) {
+            return bucket.refillNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String merchantId, Bucket bucket, long currentTime, long currentDuration) {
+            return bucket.refillNanos();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.tstra.adapter.primary.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import lombok.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Answers a 429 with a {@code Retry-After} header, rather than queueing, once the {@link GradientConcurrencyLimit} is
+ * reached. Exports are let through, as their duration says nothing about the load.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final GradientConcurrencyLimit limit;
+    private final ObjectMapper objectMapper;
+    private final String retryAfterSeconds;
+    private final Counter shed;
+
+    public ConcurrencyLimitFilter(
+        @NonNull GradientConcurrencyLimit limit,
+        @NonNull ObjectMapper objectMapper,
+        @NonNull Duration retryAfter,
+        @NonNull Counter shed) {
+        this.limit = limit;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.getSeconds()));
+        this.shed = shed;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith(LoanApplicationRestApi.EXPORT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!this.limit.tryAcquire()) {
+            this.shed.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, this.retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            this.objectMapper.writeValue(response.getOutputStream(), new LoanApplicationRestApi.Error(
+                "TooManyRequests",
+                "Too many loan applications are being created, retry later"
+            ));
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        ConcurrencyLimitFilter.this.limit.release(System.nanoTime() - start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+        } finally {
+            if (!async) {
+                this.limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.tstra.adapter.primary.rest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted from the observed latency, after the Gradient2 algorithm of Netflix' concurrency-limits:
+ * it grows while the windowed latency stays within {@value #TOLERANCE} of its long term average and shrinks beyond.
+ */
+public class GradientConcurrencyLimit {
+
+    static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOWS = 60;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double longRtt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int windowSize) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit || windowSize < 1) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit and a positive windowSize");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    // A request that got a slot must give it back with release
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = this.inFlight.get();
+            if (current >= this.limit) {
+                return false;
+            }
+            if (this.inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        this.sample(rttNanos, this.inFlight.getAndDecrement());
+    }
+
+    public int limit() {
+        return this.limit;
+    }
+
+    public int inFlight() {
+        return this.inFlight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int inFlight) {
+        this.windowRttSum += rttNanos;
+        this.windowMaxInFlight = Math.max(this.windowMaxInFlight, inFlight);
+        if (++this.windowSamples < this.windowSize) {
+            return;
+        }
+
+        double shortRtt = Math.max(1, (double) this.windowRttSum / this.windowSamples);
+        int maxInFlight = this.windowMaxInFlight;
+        this.windowRttSum = 0;
+        this.windowSamples = 0;
+        this.windowMaxInFlight = 0;
+
+        this.longRtt = this.longRtt == 0 ? shortRtt : this.longRtt + (shortRtt - this.longRtt) / LONG_WINDOWS;
+        // Latency back to normal after a long overload: forget the overload faster than the average would
+        if (this.longRtt / shortRtt > 2) {
+            this.longRtt *= 0.95;
+        }
+        if (maxInFlight < this.estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * this.longRtt / shortRtt));
+        double newLimit = this.estimatedLimit * gradient + Math.sqrt(this.estimatedLimit);
+        newLimit = this.estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+        this.limit = (int) this.estimatedLimit;
+    }
+}
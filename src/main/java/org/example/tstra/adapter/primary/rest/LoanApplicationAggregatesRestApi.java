@@ -0,0 +1,55 @@
+package org.example.tstra.adapter.primary.rest;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.example.tstra.adapter.secondary.metrics.RollingLoanApplicationAggregates;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serves the rolling loan application aggregates of a merchant, or of one of its products, over the last minute,
+ * hour and day. A merchant or product without recent requests gets zeros.
+ */
+@RestController
+@RequestMapping(path = "/api/v1/aggregates/merchants/{merchantId}")
+public class LoanApplicationAggregatesRestApi {
+
+    private final RollingLoanApplicationAggregates aggregates;
+
+    @Inject
+    public LoanApplicationAggregatesRestApi(@NonNull RollingLoanApplicationAggregates aggregates) {
+        this.aggregates = aggregates;
+    }
+
+    @GetMapping
+    public AggregatesRestResponse merchantAggregates(@PathVariable String merchantId) {
+        return toResponse(merchantId, null, this.aggregates.ofMerchant(merchantId));
+    }
+
+    @GetMapping(path = "/products/{productId}")
+    public AggregatesRestResponse productAggregates(@PathVariable String merchantId, @PathVariable String productId) {
+        return toResponse(merchantId, productId, this.aggregates.ofProduct(merchantId, productId));
+    }
+
+    private static AggregatesRestResponse toResponse(
+        String merchantId,
+        String productId,
+        Map<RollingLoanApplicationAggregates.Window, RollingLoanApplicationAggregates.Aggregate> aggregates) {
+        Map<String, RollingLoanApplicationAggregates.Aggregate> windows = new LinkedHashMap<>();
+        aggregates.forEach((window, aggregate) -> windows.put(window.getLabel(), aggregate));
+        return new AggregatesRestResponse(merchantId, productId, windows);
+    }
+
+    @Value
+    public static class AggregatesRestResponse {
+        String merchantId;
+        String productId;
+        Map<String, RollingLoanApplicationAggregates.Aggregate> windows;
+    }
+}
@@ -1,58 +1,353 @@
 package org.example.tstra.adapter.primary.rest;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.NonNull;
 import lombok.Value;
+import org.example.tstra.adapter.primary.idempotency.IdempotentCreateLoanApplication;
+import org.example.tstra.adapter.primary.metrics.AdapterMetrics;
 import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping(path = "/api/v1/loan-applications")
-public class LoanApplicationRestApi {
+public class LoanApplicationRestApi implements DisposableBean {
+
+    static final String EXPORT_PATH = "/export";
+    static final String NDJSON = "application/x-ndjson";
+
+    public static final int DEFAULT_BULK_MAX_SIZE = 500;
+    public static final int DEFAULT_ASYNC_THREADS = 64;
+    public static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 1024;
+    public static final String DEFAULT_ASYNC_TIMEOUT = "PT5S";
 
     private final CreateLoanApplication createLoanApplication;
+    private final IdempotentCreateLoanApplication idempotentCreateLoanApplication;
+    private final GetLoanApplication getLoanApplication;
+    private final ObjectMapper objectMapper;
+    private final int bulkMaxSize;
+    private final AdapterMetrics.Timers createTimers;
+    private final AdapterMetrics.Timers bulkTimers;
+    private final AdapterMetrics.Timers createAsyncTimers;
+    private final AdapterMetrics.Timers getTimers;
+    private final AdapterMetrics.Timers exportTimers;
+    private final ThreadPoolExecutor asyncExecutor;
+    private final Duration asyncTimeout;
 
     @Inject
-    public LoanApplicationRestApi(@NonNull CreateLoanApplication createLoanApplication) {
+    public LoanApplicationRestApi(
+        @NonNull CreateLoanApplication createLoanApplication,
+        @NonNull IdempotentCreateLoanApplication idempotentCreateLoanApplication,
+        @NonNull GetLoanApplication getLoanApplication,
+        @NonNull ObjectMapper objectMapper,
+        @NonNull AdapterMetrics adapterMetrics,
+        @org.springframework.beans.factory.annotation.Value("${loan-application.rest.bulk-max-size:" + DEFAULT_BULK_MAX_SIZE + "}") int bulkMaxSize,
+        @org.springframework.beans.factory.annotation.Value("${loan-application.rest.async.threads:" + DEFAULT_ASYNC_THREADS + "}") int asyncThreads,
+        @org.springframework.beans.factory.annotation.Value("${loan-application.rest.async.queue-capacity:" + DEFAULT_ASYNC_QUEUE_CAPACITY + "}") int asyncQueueCapacity,
+        @org.springframework.beans.factory.annotation.Value("${loan-application.rest.async.timeout:" + DEFAULT_ASYNC_TIMEOUT + "}") @NonNull Duration asyncTimeout) {
+        if (bulkMaxSize < 1) {
+            throw new IllegalArgumentException("bulkMaxSize must be positive");
+        }
+        if (asyncThreads < 1 || asyncQueueCapacity < 1) {
+            throw new IllegalArgumentException("asyncThreads and asyncQueueCapacity must be positive");
+        }
         this.createLoanApplication = createLoanApplication;
+        this.idempotentCreateLoanApplication = idempotentCreateLoanApplication;
+        this.getLoanApplication = getLoanApplication;
+        this.objectMapper = objectMapper;
+        this.bulkMaxSize = bulkMaxSize;
+        this.createTimers = adapterMetrics.timers("rest", "create");
+        this.bulkTimers = adapterMetrics.timers("rest", "bulk");
+        this.createAsyncTimers = adapterMetrics.timers("rest", "create-async");
+        this.getTimers = adapterMetrics.timers("rest", "get");
+        this.exportTimers = adapterMetrics.timers("rest", "export");
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.asyncExecutor = new ThreadPoolExecutor(
+            asyncThreads,
+            asyncThreads,
+            1,
+            TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(asyncQueueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "loan-application-rest-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.asyncExecutor.allowCoreThreadTimeOut(true);
+        this.asyncTimeout = asyncTimeout;
     }
 
+    /**
+     * Creates a loan application. A client retrying a request sends the same {@code Idempotency-Key} header to get
+     * the loan application created by the first attempt; keys are scoped to the merchant.
+     */
     @RequestMapping(method = RequestMethod.POST)
     public ResponseEntity<?> createLoanApplication(
         @RequestBody @NotNull @Valid CreateLoanApplicationRestRequest request,
-        @RequestHeader("X-Custom-MerchantId") @NotNull String merchantId) throws URISyntaxException {
+        @RequestHeader("X-Custom-MerchantId") @NotNull String merchantId,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         try {
-            CreateLoanApplication.CreateLoanApplicationResponse result = this.createLoanApplication.execute(new CreateLoanApplication.CreateLoanApplicationRequest(
+            return timed(this.createTimers, () -> {
+                String key = idempotencyKey == null ? null : "rest:" + merchantId + ":" + idempotencyKey;
+                CreateLoanApplication.CreateLoanApplicationResponse result = this.idempotentCreateLoanApplication.execute(key, new CreateLoanApplication.CreateLoanApplicationRequest(
+                    merchantId,
+                    request.productId,
+                    request.language,
+                    request.purchaseAmount
+                ));
+
+                return ResponseEntity.created(URI.create("/api/v1/loan-applications/" + result.getLoanApplicationId()))
+                    .body(new CreateLoanApplicationRestResponse(
+                        result.getLoanApplicationId(),
+                        "www.djf.com"
+                    ));
+            });
+        } catch (CreateLoanApplication.CreateLoanApplicationException e) {
+            return ResponseEntity.badRequest()
+                .body(new Error(
+                   e.getClass().getSimpleName(),
+                   e.getMessage()
+                ));
+        }
+    }
+
+    /**
+     * Runs the use case on the async pool instead of the servlet thread; a full pool or a timeout gets a 503, and a
+     * timed out request may still be created, so retries should reuse its {@code Idempotency-Key}.
+     */
+    @RequestMapping(path = "/async", method = RequestMethod.POST)
+    public DeferredResult<ResponseEntity<?>> createLoanApplicationAsync(
+        @RequestBody @NotNull @Valid CreateLoanApplicationRestRequest request,
+        @RequestHeader("X-Custom-MerchantId") @NotNull String merchantId,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+
+        long start = System.nanoTime();
+        DeferredResult<ResponseEntity<?>> response = new DeferredResult<>(this.asyncTimeout.toMillis());
+        response.onTimeout(() -> {
+            if (response.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new Error(
+                    "Timeout",
+                    "The loan application was not created within " + this.asyncTimeout
+                )))) {
+                this.createAsyncTimers.record("Timeout", start);
+            }
+        });
+
+        String key = idempotencyKey == null ? null : "rest:" + merchantId + ":" + idempotencyKey;
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> result;
+        try {
+            result = this.idempotentCreateLoanApplication.executeAsync(key, new CreateLoanApplication.CreateLoanApplicationRequest(
                 merchantId,
                 request.productId,
                 request.language,
                 request.purchaseAmount
-            ));
+            ), this.asyncExecutor);
+        } catch (RuntimeException e) {
+            this.createAsyncTimers.record(e.getClass().getSimpleName(), start);
+            response.setErrorResult(e);
+            return response;
+        }
 
-            return ResponseEntity.created(new URI("/api/v1/loan-applications/" + result.getLoanApplicationId()))
-                .body(new CreateLoanApplicationRestResponse(
-                    result.getLoanApplicationId(),
-                    "www.djf.com"
-                ));
-        } catch (CreateLoanApplication.CreateLoanApplicationException e) {
+        result.whenComplete((created, error) -> {
+            if (error == null) {
+                if (response.setResult(ResponseEntity.created(URI.create("/api/v1/loan-applications/" + created.getLoanApplicationId()))
+                    .body(new CreateLoanApplicationRestResponse(
+                        created.getLoanApplicationId(),
+                        "www.djf.com"
+                    )))) {
+                    this.createAsyncTimers.record(AdapterMetrics.SUCCESS, start);
+                }
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            boolean set = cause instanceof CreateLoanApplication.CreateLoanApplicationException
+                ? response.setResult(ResponseEntity.badRequest()
+                    .body(new Error(
+                        cause.getClass().getSimpleName(),
+                        cause.getMessage()
+                    )))
+                : response.setErrorResult(cause);
+            if (set) {
+                this.createAsyncTimers.record(cause.getClass().getSimpleName(), start);
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Creates up to {@code loan-application.rest.bulk-max-size} independent loan applications in one round trip.
+     */
+    @RequestMapping(path = "/bulk", method = RequestMethod.POST)
+    public ResponseEntity<?> createLoanApplications(
+        @RequestBody @NotNull @Valid BulkCreateLoanApplicationRestRequest request,
+        @RequestHeader("X-Custom-MerchantId") @NotNull String merchantId) {
+
+        if (request.items.size() > this.bulkMaxSize) {
+            this.bulkTimers.record("BulkTooLarge", System.nanoTime());
             return ResponseEntity.badRequest()
                 .body(new Error(
-                   e.getClass().getSimpleName(),
-                   e.getMessage()
+                    "BulkTooLarge",
+                    "A bulk request holds at most " + this.bulkMaxSize + " items"
+                ));
+        }
+
+        return timed(this.bulkTimers, () -> {
+            List<CreateLoanApplication.CreateLoanApplicationRequest> useCaseRequests = new ArrayList<>(request.items.size());
+            for (CreateLoanApplicationRestRequest item : request.items) {
+                useCaseRequests.add(new CreateLoanApplication.CreateLoanApplicationRequest(
+                    merchantId,
+                    item.productId,
+                    item.language,
+                    item.purchaseAmount
                 ));
+            }
+
+            List<CreateLoanApplication.CreateLoanApplicationResult> results = this.createLoanApplication.executeAll(useCaseRequests);
+
+            List<BulkItemResult> items = new ArrayList<>(results.size());
+            for (CreateLoanApplication.CreateLoanApplicationResult result : results) {
+                if (result.isSuccess()) {
+                    items.add(new BulkItemResult(
+                        new CreateLoanApplicationRestResponse(
+                            result.getResponse().getLoanApplicationId(),
+                            "www.djf.com"
+                        ),
+                        null
+                    ));
+                } else {
+                    items.add(new BulkItemResult(
+                        null,
+                        new Error(
+                            result.getError().getClass().getSimpleName(),
+                            result.getError().getMessage()
+                        )
+                    ));
+                }
+            }
+            return ResponseEntity.ok(new BulkCreateLoanApplicationRestResponse(items));
+        });
+    }
+
+    /**
+     * Returns a loan application of the merchant. Loan applications never change, so the {@code ETag} only depends on
+     * the id and a poll sending it back in {@code If-None-Match} gets a 304.
+     */
+    @RequestMapping(path = "/{loanApplicationId}", method = RequestMethod.GET)
+    public ResponseEntity<?> getLoanApplication(
+        @PathVariable("loanApplicationId") String loanApplicationId,
+        @RequestHeader("X-Custom-MerchantId") @NotNull String merchantId) {
+
+        try {
+            return timed(this.getTimers, () -> {
+                GetLoanApplication.GetLoanApplicationResponse result = this.getLoanApplication.execute(merchantId, loanApplicationId);
+                return ResponseEntity.ok()
+                    .eTag(eTagOf(result.getLoanApplicationId()))
+                    .body(new LoanApplicationRestResponse(
+                        result.getLoanApplicationId(),
+                        result.getProductId(),
+                        result.getLanguage(),
+                        result.getPurchaseAmount()
+                    ));
+            });
+        } catch (GetLoanApplication.LoanApplicationNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new Error(
+                    e.getClass().getSimpleName(),
+                    e.getMessage()
+                ));
+        }
+    }
+
+    /**
+     * Streams every loan application of the merchant as NDJSON, in creation order and in constant memory. An
+     * interrupted export resumes with {@code after} set to the last id it received.
+     */
+    @RequestMapping(path = EXPORT_PATH, method = RequestMethod.GET)
+    public void exportLoanApplications(
+        @RequestHeader("X-Custom-MerchantId") @NotNull String merchantId,
+        @RequestParam(value = "after", required = false) String after,
+        HttpServletResponse response) throws IOException {
+
+        response.setContentType(NDJSON);
+        timed(this.exportTimers, () -> {
+            try (Stream<GetLoanApplication.GetLoanApplicationResponse> loanApplications = this.getLoanApplication.stream(merchantId, after);
+                 JsonGenerator generator = this.objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Leave flushing to the response buffer: a flush per line would send a chunk per line
+                generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                generator.setRootValueSeparator(null);
+                Iterator<GetLoanApplication.GetLoanApplicationResponse> iterator = loanApplications.iterator();
+                while (iterator.hasNext()) {
+                    GetLoanApplication.GetLoanApplicationResponse loanApplication = iterator.next();
+                    generator.writeObject(new LoanApplicationRestResponse(
+                        loanApplication.getLoanApplicationId(),
+                        loanApplication.getProductId(),
+                        loanApplication.getLanguage(),
+                        loanApplication.getPurchaseAmount()
+                    ));
+                    generator.writeRaw('\n');
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs the body of a handler and records its outcome: {@link AdapterMetrics#SUCCESS}, or the simple name of the
+     * exception it threw, which the handler may still map to an error response.
+     */
+    private static <T, E extends Exception> T timed(AdapterMetrics.Timers timers, TimedHandler<T, E> handler) throws E {
+        long start = System.nanoTime();
+        try {
+            T result = handler.handle();
+            timers.record(AdapterMetrics.SUCCESS, start);
+            return result;
+        } catch (Exception e) {
+            timers.record(e.getClass().getSimpleName(), start);
+            throw e;
         }
     }
 
+    @FunctionalInterface
+    private interface TimedHandler<T, E extends Exception> {
+        T handle() throws E;
+    }
+
+    // Bump the version whenever the representation of a loan application changes, to invalidate the ETags handed out
+    static String eTagOf(String loanApplicationId) {
+        return "\"v1-" + loanApplicationId + "\"";
+    }
+
+    // Request bodies expose public fields: bind them directly so that violations on nested items can be reported
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        binder.initDirectFieldAccess();
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
         return ResponseEntity.badRequest()
@@ -62,6 +357,33 @@ public class LoanApplicationRestApi {
             ));
     }
 
+    @ExceptionHandler(IdempotentCreateLoanApplication.IdempotencyKeyConflictException.class)
+    public ResponseEntity<?> handleIdempotencyKeyConflictException(IdempotentCreateLoanApplication.IdempotencyKeyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+            .body(new LoanApplicationRestApi.Error(
+                ex.getClass().getSimpleName(),
+                ex.getMessage()
+            ));
+    }
+
+    @ExceptionHandler(IdempotentCreateLoanApplication.DuplicateRequestInProgressException.class)
+    public ResponseEntity<?> handleDuplicateRequestInProgressException(IdempotentCreateLoanApplication.DuplicateRequestInProgressException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(new LoanApplicationRestApi.Error(
+                ex.getClass().getSimpleName(),
+                ex.getMessage()
+            ));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(new LoanApplicationRestApi.Error(
+                "Overloaded",
+                "Too many loan applications are being created, retry later"
+            ));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> runtimeException(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -71,6 +393,12 @@ public class LoanApplicationRestApi {
             ));
     }
 
+    @Override
+    public void destroy() throws InterruptedException {
+        this.asyncExecutor.shutdown();
+        this.asyncExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
     public static class CreateLoanApplicationRestRequest {
         @NotNull
         public String productId;
@@ -80,12 +408,38 @@ public class LoanApplicationRestApi {
         public int purchaseAmount;
     }
 
+    public static class BulkCreateLoanApplicationRestRequest {
+        @NotNull
+        @Valid
+        public List<@NotNull CreateLoanApplicationRestRequest> items;
+    }
+
     @Value
     public static class CreateLoanApplicationRestResponse {
         String loanApplicationId;
         String authenticationUrl;
     }
 
+    @Value
+    public static class LoanApplicationRestResponse {
+        String loanApplicationId;
+        String productId;
+        String language;
+        int purchaseAmount;
+    }
+
+    @Value
+    public static class BulkCreateLoanApplicationRestResponse {
+        List<BulkItemResult> results;
+    }
+
+    @Value
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class BulkItemResult {
+        CreateLoanApplicationRestResponse created;
+        Error error;
+    }
+
     @Value
     public static class Error {
         String type;
@@ -0,0 +1,59 @@
+package org.example.tstra.adapter.primary.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.tstra.adapter.primary.ratelimit.MerchantRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+public class LoanApplicationRestConfiguration {
+
+    public static final String CONCURRENCY_LIMIT = "loan_application.rest.concurrency_limit";
+    public static final String IN_FLIGHT = "loan_application.rest.in_flight";
+    public static final String SHED = "loan_application.rest.shed";
+
+    @Bean
+    @ConditionalOnProperty(name = "loan-application.rest.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+        ObjectMapper objectMapper,
+        MeterRegistry registry,
+        @Value("${loan-application.rest.concurrency-limit.initial:20}") int initialLimit,
+        @Value("${loan-application.rest.concurrency-limit.min:4}") int minLimit,
+        @Value("${loan-application.rest.concurrency-limit.max:1000}") int maxLimit,
+        @Value("${loan-application.rest.concurrency-limit.window-size:50}") int windowSize,
+        @Value("${loan-application.rest.concurrency-limit.retry-after:PT1S}") Duration retryAfter) {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, windowSize);
+        Gauge.builder(CONCURRENCY_LIMIT, limit, GradientConcurrencyLimit::limit)
+            .description("Loan application requests let through at once")
+            .register(registry);
+        Gauge.builder(IN_FLIGHT, limit, GradientConcurrencyLimit::inFlight)
+            .description("Loan application requests in flight")
+            .register(registry);
+        Counter shed = Counter.builder(SHED)
+            .description("Loan application requests rejected by the concurrency limit")
+            .register(registry);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limit, objectMapper, retryAfter, shed));
+        registration.addUrlPatterns("/api/v1/loan-applications", "/api/v1/loan-applications/*");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "loan-application.rate-limit.enabled", havingValue = "true")
+    public FilterRegistrationBean<MerchantRateLimitFilter> merchantRateLimitFilter(MerchantRateLimiter limiter, ObjectMapper objectMapper) {
+        FilterRegistrationBean<MerchantRateLimitFilter> registration = new FilterRegistrationBean<>(new MerchantRateLimitFilter(limiter, objectMapper));
+        registration.addUrlPatterns("/api/v1/loan-applications", "/api/v1/loan-applications/*");
+        // Before the concurrency limit, so that a merchant over its rate does not take in-flight slots
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.tstra.adapter.primary.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import org.example.tstra.adapter.primary.ratelimit.MerchantRateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers a 429 with a {@code Retry-After} header to the creations over the rate limit of their
+ * {@value #MERCHANT_ID_HEADER} merchant; requests without the header, reads and exports are let through.
+ */
+public class MerchantRateLimitFilter extends OncePerRequestFilter {
+
+    static final String MERCHANT_ID_HEADER = "X-Custom-MerchantId";
+
+    private final MerchantRateLimiter limiter;
+    private final ObjectMapper objectMapper;
+
+    public MerchantRateLimitFilter(@NonNull MerchantRateLimiter limiter, @NonNull ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String merchantId = request.getHeader(MERCHANT_ID_HEADER);
+        long delay = merchantId == null ? 0 : this.limiter.tryAcquire(merchantId);
+        if (delay == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (delay + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        this.objectMapper.writeValue(response.getOutputStream(), new LoanApplicationRestApi.Error(
+            "TooManyRequests",
+            "Too many requests for the merchant, retry later"
+        ));
+    }
+}
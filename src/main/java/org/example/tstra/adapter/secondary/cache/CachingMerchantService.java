@@ -0,0 +1,134 @@
+package org.example.tstra.adapter.secondary.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.NonNull;
+import lombok.Value;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the merchants of another {@link CreateLoanApplication.MerchantService}, unknown merchant ids included for
+ * {@code negativeTimeToLive}.
+ */
+public class CachingMerchantService implements CreateLoanApplication.MerchantService {
+
+    private final CreateLoanApplication.MerchantService delegate;
+    private final LoadingCache<String, CachedMerchant> cache;
+
+    public CachingMerchantService(
+        @NonNull CreateLoanApplication.MerchantService delegate,
+        long maximumSize,
+        @NonNull Duration timeToLive,
+        @NonNull Duration refreshAfter,
+        @NonNull Duration negativeTimeToLive) {
+        this(delegate, maximumSize, timeToLive, refreshAfter, negativeTimeToLive, ForkJoinPool.commonPool(), Ticker.systemTicker());
+    }
+
+    CachingMerchantService(
+        @NonNull CreateLoanApplication.MerchantService delegate,
+        long maximumSize,
+        @NonNull Duration timeToLive,
+        @NonNull Duration refreshAfter,
+        @NonNull Duration negativeTimeToLive,
+        @NonNull Executor executor,
+        @NonNull Ticker ticker) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new CachedMerchantExpiry(timeToLive.toNanos(), negativeTimeToLive.toNanos()))
+            .refreshAfterWrite(refreshAfter.toNanos(), TimeUnit.NANOSECONDS)
+            .executor(executor)
+            .ticker(ticker)
+            .recordStats()
+            .build(this::load);
+    }
+
+    @Override
+    public Merchant findMerchantId(@NonNull String merchantId) throws CreateLoanApplication.MerchantNotFoundException {
+        CachedMerchant cached = this.cache.get(merchantId);
+        if (cached.isNotFound()) {
+            throw new CreateLoanApplication.MerchantNotFoundException();
+        }
+        return cached.merchant;
+    }
+
+    public void invalidate(@NonNull String merchantId) {
+        this.cache.invalidate(merchantId);
+    }
+
+    public Statistics getStatistics() {
+        CacheStats stats = this.cache.stats();
+        return new Statistics(
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount(),
+            this.cache.estimatedSize()
+        );
+    }
+
+    private CachedMerchant load(String merchantId) {
+        try {
+            return new CachedMerchant(this.delegate.findMerchantId(merchantId));
+        } catch (CreateLoanApplication.MerchantNotFoundException e) {
+            return CachedMerchant.NOT_FOUND;
+        }
+    }
+
+    @Value
+    public static class Statistics {
+        long hitCount;
+        long missCount;
+        long evictionCount;
+        long estimatedSize;
+    }
+
+    private static final class CachedMerchant {
+
+        static final CachedMerchant NOT_FOUND = new CachedMerchant(null);
+
+        private final Merchant merchant;
+
+        CachedMerchant(Merchant merchant) {
+            this.merchant = merchant;
+        }
+
+        boolean isNotFound() {
+            return this.merchant == null;
+        }
+    }
+
+    private static final class CachedMerchantExpiry implements Expiry<String, CachedMerchant> {
+
+        private final long timeToLiveNanos;
+        private final long negativeTimeToLiveNanos;
+
+        CachedMerchantExpiry(long timeToLiveNanos, long negativeTimeToLiveNanos) {
+            this.timeToLiveNanos = timeToLiveNanos;
+            this.negativeTimeToLiveNanos = negativeTimeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String merchantId, CachedMerchant cached, long currentTime) {
+            return cached.isNotFound() ? this.negativeTimeToLiveNanos : this.timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String merchantId, CachedMerchant cached, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(merchantId, cached, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String merchantId, CachedMerchant cached, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
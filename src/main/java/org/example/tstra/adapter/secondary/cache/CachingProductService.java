@@ -0,0 +1,177 @@
+package org.example.tstra.adapter.secondary.cache;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Product;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caches the products of another {@link CreateLoanApplication.ProductService}, indexed by merchant id then product
+ * id and bounded by an estimate of its heap footprint. Invalidations bump a generation so racing loads are dropped.
+ */
+public class CachingProductService implements CreateLoanApplication.ProductService {
+
+    // Rough per-entry footprint on a 64-bit JVM, excluding the characters of the product id
+    static final long ENTRY_OVERHEAD_IN_BYTES = 192;
+    private static final int GENERATION_STRIPES = 64;
+
+    private final CreateLoanApplication.ProductService delegate;
+    private final long maximumWeightInBytes;
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Entry>> productsByMerchant = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong weightInBytes = new AtomicLong();
+    private final AtomicInteger liveEntries = new AtomicInteger();
+    private final AtomicInteger deadEntries = new AtomicInteger();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public CachingProductService(@NonNull CreateLoanApplication.ProductService delegate, long maximumWeightInBytes) {
+        if (maximumWeightInBytes <= 0) {
+            throw new IllegalArgumentException("maximumWeightInBytes must be positive");
+        }
+        this.delegate = delegate;
+        this.maximumWeightInBytes = maximumWeightInBytes;
+    }
+
+    @Override
+    public Product findProductId(@NonNull String merchantId, @NonNull String productId) throws CreateLoanApplication.ProductNotFoundException {
+        ConcurrentHashMap<String, Entry> products = this.productsByMerchant.get(merchantId);
+        if (products != null) {
+            Entry entry = products.get(productId);
+            if (entry != null) {
+                return entry.product;
+            }
+        }
+
+        int stripe = stripe(merchantId);
+        long generation = this.generations.get(stripe);
+        Product product = this.delegate.findProductId(merchantId, productId);
+        this.add(merchantId, productId, product, stripe, generation);
+        return product;
+    }
+
+    public void invalidate(@NonNull String merchantId, @NonNull String productId) {
+        this.generations.incrementAndGet(stripe(merchantId));
+        ConcurrentHashMap<String, Entry> products = this.productsByMerchant.get(merchantId);
+        if (products != null) {
+            Entry entry = products.get(productId);
+            if (entry != null && this.remove(entry, true)) {
+                this.purgeDeadEntriesIfNeeded();
+            }
+        }
+    }
+
+    public void invalidateMerchant(@NonNull String merchantId) {
+        this.generations.incrementAndGet(stripe(merchantId));
+        ConcurrentHashMap<String, Entry> products = this.productsByMerchant.remove(merchantId);
+        if (products == null) {
+            return;
+        }
+        for (Entry entry : products.values()) {
+            this.remove(entry, true);
+        }
+        this.purgeDeadEntriesIfNeeded();
+    }
+
+    public long getWeightInBytes() {
+        return this.weightInBytes.get();
+    }
+
+    public int getSize() {
+        return this.liveEntries.get();
+    }
+
+    private void add(String merchantId, String productId, Product product, int stripe, long generation) {
+        Entry[] added = new Entry[1];
+        // Inserting under the lock of the merchant keeps remove from unlinking the map in between
+        this.productsByMerchant.compute(merchantId, (key, products) -> {
+            ConcurrentHashMap<String, Entry> current = products == null ? new ConcurrentHashMap<>() : products;
+            Entry entry = new Entry(current, merchantId, productId, product, weigh(productId));
+            if (current.putIfAbsent(productId, entry) == null) {
+                added[0] = entry;
+            }
+            return current;
+        });
+        Entry entry = added[0];
+        if (entry == null) {
+            return;
+        }
+
+        this.liveEntries.incrementAndGet();
+        this.insertionOrder.add(entry);
+        long weightInBytes = this.weightInBytes.addAndGet(entry.weightInBytes);
+        if (this.generations.get(stripe) != generation) {
+            if (this.remove(entry, true)) {
+                this.purgeDeadEntriesIfNeeded();
+            }
+        } else if (weightInBytes > this.maximumWeightInBytes) {
+            this.evict();
+        }
+    }
+
+    private void evict() {
+        while (this.weightInBytes.get() > this.maximumWeightInBytes) {
+            Entry eldest = this.insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            if (!this.remove(eldest, false)) {
+                this.deadEntries.updateAndGet(dead -> dead > 0 ? dead - 1 : 0);
+            }
+        }
+    }
+
+    // Only the caller that actually unlinks the entry releases its weight
+    private boolean remove(Entry entry, boolean leavesDeadEntry) {
+        if (!entry.products.remove(entry.productId, entry)) {
+            return false;
+        }
+        this.weightInBytes.addAndGet(-entry.weightInBytes);
+        this.liveEntries.decrementAndGet();
+        if (leavesDeadEntry) {
+            this.deadEntries.incrementAndGet();
+        }
+        if (entry.products.isEmpty()) {
+            this.productsByMerchant.computeIfPresent(entry.merchantId, (key, products) -> products == entry.products && products.isEmpty() ? null : products);
+        }
+        return true;
+    }
+
+    private void purgeDeadEntriesIfNeeded() {
+        int dead = this.deadEntries.get();
+        if (dead > this.liveEntries.get() && this.deadEntries.compareAndSet(dead, 0)) {
+            this.insertionOrder.removeIf(entry -> entry.products.get(entry.productId) != entry);
+        }
+    }
+
+    private static int stripe(String merchantId) {
+        int hash = merchantId.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    static long weigh(String productId) {
+        return ENTRY_OVERHEAD_IN_BYTES + 2L * productId.length();
+    }
+
+    private static final class Entry {
+        private final Map<String, Entry> products;
+        private final String merchantId;
+        private final String productId;
+        private final Product product;
+        private final long weightInBytes;
+
+        Entry(Map<String, Entry> products, String merchantId, String productId, Product product, long weightInBytes) {
+            this.products = products;
+            this.merchantId = merchantId;
+            this.productId = productId;
+            this.product = product;
+            this.weightInBytes = weightInBytes;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.tstra.adapter.secondary.coalescing;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Coalesces the concurrent lookups of a merchant into a single call to another
+ * {@link CreateLoanApplication.MerchantService}.
+ */
+public class CoalescingMerchantService implements CreateLoanApplication.MerchantService {
+
+    private final CreateLoanApplication.MerchantService delegate;
+    private final SingleFlight<String, Merchant> lookups = new SingleFlight<>();
+
+    public CoalescingMerchantService(@NonNull CreateLoanApplication.MerchantService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Merchant findMerchantId(@NonNull String merchantId) throws CreateLoanApplication.MerchantNotFoundException {
+        return this.lookups.execute(merchantId, () -> this.delegate.findMerchantId(merchantId));
+    }
+
+    @Override
+    public CompletableFuture<Merchant> findMerchantIdAsync(@NonNull String merchantId, @NonNull Executor executor) {
+        return this.lookups.executeAsync(merchantId, () -> this.delegate.findMerchantIdAsync(merchantId, executor));
+    }
+}
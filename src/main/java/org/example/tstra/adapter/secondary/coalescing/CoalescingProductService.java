@@ -0,0 +1,39 @@
+package org.example.tstra.adapter.secondary.coalescing;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Product;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Coalesces the concurrent lookups of a product into a single call to another
+ * {@link CreateLoanApplication.ProductService}.
+ */
+public class CoalescingProductService implements CreateLoanApplication.ProductService {
+
+    private final CreateLoanApplication.ProductService delegate;
+    private final SingleFlight<ProductKey, Product> lookups = new SingleFlight<>();
+
+    public CoalescingProductService(@NonNull CreateLoanApplication.ProductService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Product findProductId(@NonNull String merchantId, @NonNull String productId) throws CreateLoanApplication.ProductNotFoundException {
+        return this.lookups.execute(new ProductKey(merchantId, productId), () -> this.delegate.findProductId(merchantId, productId));
+    }
+
+    @Override
+    public CompletableFuture<Product> findProductIdAsync(@NonNull String merchantId, @NonNull String productId, @NonNull Executor executor) {
+        return this.lookups.executeAsync(new ProductKey(merchantId, productId), () -> this.delegate.findProductIdAsync(merchantId, productId, executor));
+    }
+
+    @Value
+    private static class ProductKey {
+        String merchantId;
+        String productId;
+    }
+}
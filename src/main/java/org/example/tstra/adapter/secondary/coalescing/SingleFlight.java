@@ -0,0 +1,89 @@
+package org.example.tstra.adapter.secondary.coalescing;
+
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one call per key at a time, blocking or asynchronous: concurrent calls for the key share its outcome,
+ * which is forgotten as soon as it completes.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    <E extends Exception> V execute(@NonNull K key, @NonNull Call<V, E> call) throws E {
+        CompletableFuture<V> outcome = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, outcome);
+        if (existing != null) {
+            return SingleFlight.<V, E>join(existing);
+        }
+
+        try {
+            V value = call.call();
+            outcome.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            outcome.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, outcome);
+        }
+    }
+
+    CompletableFuture<V> executeAsync(@NonNull K key, @NonNull Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> outcome = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, outcome);
+        if (existing != null) {
+            return existing.thenApply(Function.identity());
+        }
+
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            this.inFlight.remove(key, outcome);
+            outcome.completeExceptionally(e);
+            throw e;
+        }
+        result.whenComplete((value, error) -> {
+            this.inFlight.remove(key, outcome);
+            if (error == null) {
+                outcome.complete(value);
+            } else {
+                outcome.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+
+    int inFlight() {
+        return this.inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V, E extends Exception> V join(CompletableFuture<V> outcome) throws E {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // Only the call of the same key completes the outcome, so the cause is one of its declared exceptions
+            throw (E) cause;
+        }
+    }
+
+    @FunctionalInterface
+    interface Call<V, E extends Exception> {
+        V call() throws E;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.tstra.adapter.secondary.id;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates Snowflake style ids, 41 bits of milliseconds since {@link #EPOCH}, a 10 bit node id and a 12 bit
+ * sequence, rendered in Crockford base32 so that their string order is their generation order.
+ */
+public class TimeOrderedLoanApplicationIdGenerator implements CreateLoanApplication.LoanApplicationIdGenerator {
+
+    public static final Instant EPOCH = Instant.parse("2020-01-01T00:00:00Z");
+
+    static final int NODE_ID_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_ID_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int ID_LENGTH = 13;
+    private static final char[] CROCKFORD_BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final Clock clock;
+    private final long epochMillis;
+    private final long nodeId;
+    private final long maxClockRollbackMillis;
+
+    // Timestamp and sequence number of the last issued id: timestamp << SEQUENCE_BITS | sequence
+    private final AtomicLong last = new AtomicLong();
+
+    public TimeOrderedLoanApplicationIdGenerator(int nodeId) {
+        this(nodeId, Duration.ofSeconds(1), Clock.systemUTC());
+    }
+
+    public TimeOrderedLoanApplicationIdGenerator(int nodeId, @NonNull Duration maxClockRollback, @NonNull Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID);
+        }
+        this.clock = clock;
+        this.epochMillis = EPOCH.toEpochMilli();
+        this.nodeId = nodeId;
+        this.maxClockRollbackMillis = maxClockRollback.toMillis();
+    }
+
+    @Override
+    public String generateId() {
+        return encode(this.nextId());
+    }
+
+    long nextId() {
+        while (true) {
+            long now = this.clock.millis() - this.epochMillis;
+            long previous = this.last.get();
+            long previousTimestamp = previous >>> SEQUENCE_BITS;
+
+            long next;
+            if (now > previousTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = previous + 1;
+            } else if (previousTimestamp - now > this.maxClockRollbackMillis) {
+                // Too far behind to wait for the clock: borrow the next millisecond until it catches up
+                next = (previousTimestamp + 1) << SEQUENCE_BITS;
+            } else {
+                Thread.yield();
+                continue;
+            }
+
+            if (this.last.compareAndSet(previous, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & MAX_SEQUENCE;
+                return timestamp << (NODE_ID_BITS + SEQUENCE_BITS) | this.nodeId << SEQUENCE_BITS | sequence;
+            }
+        }
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD_BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.tstra.adapter.secondary.metrics;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.LoanApplication;
+
+/**
+ * Reports {@link CreateLoanApplication} to several monitors, in order.
+ */
+public class CompositeCreateLoanApplicationMonitor implements CreateLoanApplication.Monitor {
+
+    private final CreateLoanApplication.Monitor[] monitors;
+
+    public CompositeCreateLoanApplicationMonitor(@NonNull CreateLoanApplication.Monitor... monitors) {
+        this.monitors = monitors.clone();
+    }
+
+    @Override
+    public void stageCompleted(CreateLoanApplication.Stage stage, long durationInNanos) {
+        for (CreateLoanApplication.Monitor monitor : this.monitors) {
+            monitor.stageCompleted(stage, durationInNanos);
+        }
+    }
+
+    @Override
+    public void rejected(CreateLoanApplication.CreateLoanApplicationRequest request, CreateLoanApplication.CreateLoanApplicationException rejection) {
+        for (CreateLoanApplication.Monitor monitor : this.monitors) {
+            monitor.rejected(request, rejection);
+        }
+    }
+
+    @Override
+    public void accepted(LoanApplication loanApplication) {
+        for (CreateLoanApplication.Monitor monitor : this.monitors) {
+            monitor.accepted(loanApplication);
+        }
+    }
+}
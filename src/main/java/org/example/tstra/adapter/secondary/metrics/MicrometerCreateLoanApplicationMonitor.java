@@ -0,0 +1,58 @@
+package org.example.tstra.adapter.secondary.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes stage durations to the {@value #STAGE_DURATION} timer and rejections to the {@value #REJECTIONS}
+ * counter, tagged by stage and exception type.
+ */
+@Component
+public class MicrometerCreateLoanApplicationMonitor implements CreateLoanApplication.Monitor {
+
+    public static final String STAGE_DURATION = "loan_application.stage.duration";
+    public static final String REJECTIONS = "loan_application.rejections";
+
+    private final MeterRegistry registry;
+    private final Timer[] stageTimers;
+    private final ConcurrentHashMap<Class<?>, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
+    public MicrometerCreateLoanApplicationMonitor(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+        CreateLoanApplication.Stage[] stages = CreateLoanApplication.Stage.values();
+        this.stageTimers = new Timer[stages.length];
+        for (CreateLoanApplication.Stage stage : stages) {
+            this.stageTimers[stage.ordinal()] = Timer.builder(STAGE_DURATION)
+                .description("Duration of a stage of the loan application creation")
+                .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+        }
+    }
+
+    @Override
+    public void stageCompleted(CreateLoanApplication.Stage stage, long durationInNanos) {
+        this.stageTimers[stage.ordinal()].record(durationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void rejected(CreateLoanApplication.CreateLoanApplicationRequest request, CreateLoanApplication.CreateLoanApplicationException rejection) {
+        Counter counter = this.rejectionCounters.get(rejection.getClass());
+        if (counter == null) {
+            counter = this.rejectionCounters.computeIfAbsent(rejection.getClass(), type -> Counter.builder(REJECTIONS)
+                .description("Loan application requests rejected by the use case")
+                .tag("type", type.getSimpleName())
+                .register(this.registry));
+        }
+        counter.increment();
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.tstra.adapter.secondary.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.NonNull;
+import lombok.Value;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.LoanApplication;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Accepted and rejected requests and accepted amounts per merchant and product over the last minute, hour and day,
+ * in rings of {@link LongAdder} buckets. Unknown merchants are not aggregated, unknown products only count for their
+ * merchant.
+ */
+@Component
+public class RollingLoanApplicationAggregates implements CreateLoanApplication.Monitor {
+
+    private final LongSupplier currentTimeMillis;
+    private final Cache<Key, Aggregates> aggregates;
+
+    @Inject
+    public RollingLoanApplicationAggregates(@org.springframework.beans.factory.annotation.Value("${loan-application.aggregates.maximum-keys:10000}") long maximumKeys) {
+        this(maximumKeys, System::currentTimeMillis);
+    }
+
+    RollingLoanApplicationAggregates(long maximumKeys, @NonNull LongSupplier currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+        this.aggregates = Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .build();
+    }
+
+    /**
+     * The aggregates of the merchant, over all its products.
+     */
+    public Map<Window, Aggregate> ofMerchant(@NonNull String merchantId) {
+        return this.query(new Key(merchantId, null));
+    }
+
+    public Map<Window, Aggregate> ofProduct(@NonNull String merchantId, @NonNull String productId) {
+        return this.query(new Key(merchantId, productId));
+    }
+
+    @Override
+    public void stageCompleted(CreateLoanApplication.Stage stage, long durationInNanos) {
+    }
+
+    @Override
+    public void accepted(LoanApplication loanApplication) {
+        long now = this.currentTimeMillis.getAsLong();
+        int purchaseAmount = loanApplication.getPurchaseAmount().getValue();
+        this.aggregatesOf(loanApplication.getMerchantId(), null).accepted(now, purchaseAmount);
+        this.aggregatesOf(loanApplication.getMerchantId(), loanApplication.getProductId()).accepted(now, purchaseAmount);
+    }
+
+    @Override
+    public void rejected(CreateLoanApplication.CreateLoanApplicationRequest request, CreateLoanApplication.CreateLoanApplicationException rejection) {
+        if (rejection instanceof CreateLoanApplication.MerchantNotFoundException) {
+            return;
+        }
+        long now = this.currentTimeMillis.getAsLong();
+        this.aggregatesOf(request.getMerchantId(), null).rejected(now);
+        if (!(rejection instanceof CreateLoanApplication.ProductNotFoundException)) {
+            this.aggregatesOf(request.getMerchantId(), request.getProductId()).rejected(now);
+        }
+    }
+
+    private Aggregates aggregatesOf(String merchantId, String productId) {
+        return this.aggregates.get(new Key(merchantId, productId), key -> new Aggregates());
+    }
+
+    private Map<Window, Aggregate> query(Key key) {
+        Aggregates aggregates = this.aggregates.getIfPresent(key);
+        long now = this.currentTimeMillis.getAsLong();
+        Map<Window, Aggregate> result = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            result.put(window, aggregates == null ? Aggregate.EMPTY : aggregates.rings[window.ordinal()].sum(now));
+        }
+        return result;
+    }
+
+    public enum Window {
+        ONE_MINUTE("1m", TimeUnit.SECONDS.toMillis(5), 12),
+        ONE_HOUR("1h", TimeUnit.MINUTES.toMillis(5), 12),
+        ONE_DAY("24h", TimeUnit.HOURS.toMillis(1), 24);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(String label, long bucketMillis, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+
+        public String getLabel() {
+            return this.label;
+        }
+    }
+
+    @Value
+    public static class Aggregate {
+        static final Aggregate EMPTY = new Aggregate(0, 0, 0);
+
+        long accepted;
+        long rejected;
+        long purchaseAmountSum;
+
+        /**
+         * The share of the requests that were accepted, or null without requests.
+         */
+        public Double getAcceptanceRatio() {
+            long requests = this.accepted + this.rejected;
+            return requests == 0 ? null : (double) this.accepted / requests;
+        }
+    }
+
+    @Value
+    private static class Key {
+        String merchantId;
+        String productId;
+    }
+
+    private static final class Aggregates {
+        private final Ring[] rings = new Ring[Window.values().length];
+
+        Aggregates() {
+            for (Window window : Window.values()) {
+                this.rings[window.ordinal()] = new Ring(window);
+            }
+        }
+
+        void accepted(long now, int purchaseAmount) {
+            for (Ring ring : this.rings) {
+                Bucket bucket = ring.bucketAt(now);
+                bucket.accepted.increment();
+                bucket.purchaseAmountSum.add(purchaseAmount);
+            }
+        }
+
+        void rejected(long now) {
+            for (Ring ring : this.rings) {
+                ring.bucketAt(now).rejected.increment();
+            }
+        }
+    }
+
+    private static final class Ring {
+        private final Window window;
+        private final Bucket[] buckets;
+
+        Ring(Window window) {
+            this.window = window;
+            this.buckets = new Bucket[window.buckets];
+            for (int i = 0; i < this.buckets.length; i++) {
+                this.buckets[i] = new Bucket();
+            }
+        }
+
+        Bucket bucketAt(long now) {
+            long period = now / this.window.bucketMillis;
+            Bucket bucket = this.buckets[(int) (period % this.buckets.length)];
+            if (bucket.period < period) {
+                bucket.advance(period);
+            }
+            return bucket;
+        }
+
+        Aggregate sum(long now) {
+            long period = now / this.window.bucketMillis;
+            long accepted = 0;
+            long rejected = 0;
+            long purchaseAmountSum = 0;
+            for (Bucket bucket : this.buckets) {
+                if (bucket.period > period - this.buckets.length && bucket.period <= period) {
+                    accepted += bucket.accepted.sum();
+                    rejected += bucket.rejected.sum();
+                    purchaseAmountSum += bucket.purchaseAmountSum.sum();
+                }
+            }
+            return new Aggregate(accepted, rejected, purchaseAmountSum);
+        }
+    }
+
+    private static final class Bucket {
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder purchaseAmountSum = new LongAdder();
+        private volatile long period = Long.MIN_VALUE;
+
+        // Only taken once per bucket period, by the first update of the period
+        synchronized void advance(long period) {
+            if (this.period < period) {
+                this.accepted.reset();
+                this.rejected.reset();
+                this.purchaseAmountSum.reset();
+                this.period = period;
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.tstra.adapter.secondary.offheap;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Read-only merchants and products kept outside the heap, either in direct memory or mapped from a snapshot file,
+ * for catalogues too large to be held as objects. Lookups only allocate the {@link Merchant} or {@link Product} found.
+ */
+public final class OffHeapReferenceStore implements CreateLoanApplication.MerchantService, CreateLoanApplication.ProductService {
+
+    static final int MAGIC = 0x54535253;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    private static final String NO_KEY = "";
+
+    private final OffHeapTable merchants;
+    private final OffHeapTable products;
+
+    private OffHeapReferenceStore(OffHeapTable merchants, OffHeapTable products) {
+        this.merchants = merchants;
+        this.products = products;
+    }
+
+    /**
+     * A writer of a store in direct memory, sized for the given number of merchants and products.
+     */
+    public static Writer allocate(int keyBytes, long merchants, long products) {
+        return new Writer(
+            OffHeapTable.allocate(keyBytes, OffHeapTable.capacityFor(merchants)),
+            OffHeapTable.allocate(keyBytes, OffHeapTable.capacityFor(products)),
+            null
+        );
+    }
+
+    /**
+     * A writer of a snapshot file, sized for the given number of merchants and products. The file is replaced.
+     */
+    public static Writer create(@NonNull Path file, int keyBytes, long merchants, long products) throws IOException {
+        long merchantCapacity = OffHeapTable.capacityFor(merchants);
+        long productCapacity = OffHeapTable.capacityFor(products);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            // The magic is only written once the file is complete
+            header.putInt(0).putInt(VERSION).putInt(keyBytes).putInt(0).putLong(merchantCapacity).putLong(productCapacity);
+            long productsPosition = HEADER_BYTES + OffHeapTable.sizeInBytes(keyBytes, merchantCapacity);
+            return new Writer(
+                OffHeapTable.map(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES, keyBytes, merchantCapacity),
+                OffHeapTable.map(channel, FileChannel.MapMode.READ_WRITE, productsPosition, keyBytes, productCapacity),
+                header
+            );
+        }
+    }
+
+    // Fails with an IOException when the file is not a snapshot of this version
+    public static OffHeapReferenceStore open(@NonNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a reference data snapshot: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a reference data snapshot of version " + VERSION + ": " + file);
+            }
+            int keyBytes = header.getInt();
+            header.getInt();
+            long merchantCapacity = header.getLong();
+            long productCapacity = header.getLong();
+            long productsPosition = HEADER_BYTES + OffHeapTable.sizeInBytes(keyBytes, merchantCapacity);
+            if (channel.size() != productsPosition + OffHeapTable.sizeInBytes(keyBytes, productCapacity)) {
+                throw new IOException("Truncated reference data snapshot: " + file);
+            }
+            try {
+                return new OffHeapReferenceStore(
+                    OffHeapTable.map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, keyBytes, merchantCapacity),
+                    OffHeapTable.map(channel, FileChannel.MapMode.READ_ONLY, productsPosition, keyBytes, productCapacity)
+                );
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupted reference data snapshot: " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public Merchant findMerchantId(@NonNull String merchantId) throws CreateLoanApplication.MerchantNotFoundException {
+        long slot = this.merchants.find(merchantId, NO_KEY);
+        if (slot < 0) {
+            throw new CreateLoanApplication.MerchantNotFoundException();
+        }
+        return new Merchant(merchantId, amountOf(this.merchants.first(slot)), amountOf(this.merchants.second(slot)));
+    }
+
+    @Override
+    public Product findProductId(@NonNull String merchantId, @NonNull String productId) throws CreateLoanApplication.ProductNotFoundException {
+        long slot = this.products.find(merchantId, productId);
+        if (slot < 0) {
+            throw new CreateLoanApplication.ProductNotFoundException();
+        }
+        return new Product(productId, amountOf(this.products.first(slot)), amountOf(this.products.second(slot)));
+    }
+
+    // The writer only stores positive amounts: anything else was corrupted in the snapshot file
+    private static PositiveAmount amountOf(int amount) {
+        try {
+            return PositiveAmount.of(amount);
+        } catch (PositiveAmount.InvalidPositiveAmount e) {
+            throw new IllegalStateException("Corrupted reference data snapshot: negative amount " + amount, e);
+        }
+    }
+
+    // The lookups are memory reads: complete right away rather than hopping to the executor
+    @Override
+    public CompletableFuture<Merchant> findMerchantIdAsync(@NonNull String merchantId, @NonNull Executor executor) {
+        return CreateLoanApplication.completedLookup(() -> this.findMerchantId(merchantId));
+    }
+
+    @Override
+    public CompletableFuture<Product> findProductIdAsync(@NonNull String merchantId, @NonNull String productId, @NonNull Executor executor) {
+        return CreateLoanApplication.completedLookup(() -> this.findProductId(merchantId, productId));
+    }
+
+    /**
+     * Fills a store. Not thread-safe; the store is only read once {@link #build()} returns.
+     */
+    public static final class Writer {
+        private final OffHeapTable merchants;
+        private final OffHeapTable products;
+        private final MappedByteBuffer header;
+        private boolean built;
+
+        private Writer(OffHeapTable merchants, OffHeapTable products, MappedByteBuffer header) {
+            this.merchants = merchants;
+            this.products = products;
+            this.header = header;
+        }
+
+        public Writer putMerchant(@NonNull Merchant merchant) {
+            this.checkNotBuilt();
+            this.merchants.put(merchant.getMerchantId(), NO_KEY, merchant.getMinLoanAmount().getValue(), merchant.getMaxLoanAmount().getValue());
+            return this;
+        }
+
+        public Writer putProduct(@NonNull String merchantId, @NonNull Product product) {
+            this.checkNotBuilt();
+            this.products.put(merchantId, product.getProductId(), product.getMinAmount().getValue(), product.getMaxAmount().getValue());
+            return this;
+        }
+
+        /**
+         * The store, after flushing a snapshot file to disk.
+         */
+        public OffHeapReferenceStore build() {
+            this.checkNotBuilt();
+            this.built = true;
+            if (this.header != null) {
+                this.merchants.force();
+                this.products.force();
+                this.header.putInt(0, MAGIC);
+                this.header.force();
+            }
+            return new OffHeapReferenceStore(this.merchants, this.products);
+        }
+
+        private void checkNotBuilt() {
+            if (this.built) {
+                throw new IllegalStateException("The store is already built");
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.tstra.adapter.secondary.offheap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Serves merchants and products from the snapshot file at {@code loan-application.reference-data.off-heap.file}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "loan-application.reference-data.off-heap.file")
+public class OffHeapReferenceStoreConfiguration {
+
+    @Bean
+    public OffHeapReferenceStore offHeapReferenceStore(@Value("${loan-application.reference-data.off-heap.file}") String file) throws IOException {
+        return OffHeapReferenceStore.open(Paths.get(file));
+    }
+}
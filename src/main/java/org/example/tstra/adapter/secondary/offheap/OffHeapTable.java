@@ -0,0 +1,230 @@
+package org.example.tstra.adapter.secondary.offheap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Open-addressing hash table of fixed-size slots, keyed by one or two ASCII ids and holding two ints, in segmented
+ * direct or mapped buffers so that it is not bound by the 2 GB limit of a buffer.
+ */
+final class OffHeapTable {
+
+    static final int MAX_KEY_BYTES = 127;
+
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final int HASH = 0;
+    private static final int FIRST_KEY = 4;
+
+    private final int keyBytes;
+    private final int slotSize;
+    private final long capacity;
+    private final long mask;
+    private final int segmentShift;
+    private final int segmentMask;
+    private final ByteBuffer[] segments;
+
+    private OffHeapTable(int keyBytes, long capacity, ByteBuffer[] segments) {
+        this.keyBytes = keyBytes;
+        this.slotSize = slotSize(keyBytes);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.segmentShift = Long.numberOfTrailingZeros(segmentSlots(keyBytes, capacity));
+        this.segmentMask = (1 << this.segmentShift) - 1;
+        this.segments = segments;
+    }
+
+    static int slotSize(int keyBytes) {
+        return 4 + 2 * (1 + keyBytes) + 8;
+    }
+
+    /**
+     * Smallest power of two holding {@code entries} with a load factor of at most 3/4.
+     */
+    static long capacityFor(long entries) {
+        long minimum = Math.max(2, entries + (entries + 2) / 3);
+        return Long.highestOneBit(minimum - 1) << 1;
+    }
+
+    static long sizeInBytes(int keyBytes, long capacity) {
+        return slotSize(keyBytes) * capacity;
+    }
+
+    static OffHeapTable allocate(int keyBytes, long capacity) {
+        checkLayout(keyBytes, capacity);
+        long segmentSlots = segmentSlots(keyBytes, capacity);
+        ByteBuffer[] segments = new ByteBuffer[(int) (capacity / segmentSlots)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect((int) (segmentSlots * slotSize(keyBytes)));
+        }
+        return new OffHeapTable(keyBytes, capacity, segments);
+    }
+
+    static OffHeapTable map(FileChannel channel, FileChannel.MapMode mode, long position, int keyBytes, long capacity) throws IOException {
+        checkLayout(keyBytes, capacity);
+        long segmentSlots = segmentSlots(keyBytes, capacity);
+        long segmentBytes = segmentSlots * slotSize(keyBytes);
+        ByteBuffer[] segments = new ByteBuffer[(int) (capacity / segmentSlots)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = channel.map(mode, position + i * segmentBytes, segmentBytes);
+        }
+        return new OffHeapTable(keyBytes, capacity, segments);
+    }
+
+    private static void checkLayout(int keyBytes, long capacity) {
+        if (keyBytes < 1 || keyBytes > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Key bytes must be between 1 and " + MAX_KEY_BYTES);
+        }
+        if (capacity < 2 || Long.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+    }
+
+    private static long segmentSlots(int keyBytes, long capacity) {
+        return Math.min(capacity, Long.highestOneBit(MAX_SEGMENT_BYTES / slotSize(keyBytes)));
+    }
+
+    long capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * The slot of the ids, or -1 when absent. {@code secondKey} is empty for tables keyed by a single id.
+     */
+    long find(CharSequence firstKey, CharSequence secondKey) {
+        if (!this.fits(firstKey) || !this.fits(secondKey)) {
+            return -1;
+        }
+        int hash = hash(firstKey, secondKey);
+        for (long probe = hash & this.mask, probes = 0; probes < this.capacity; probe = (probe + 1) & this.mask, probes++) {
+            ByteBuffer segment = this.segmentOf(probe);
+            int offset = this.offsetOf(probe);
+            int slotHash = segment.getInt(offset + HASH);
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == hash
+                && this.matches(segment, offset + FIRST_KEY, firstKey)
+                && this.matches(segment, offset + FIRST_KEY + 1 + this.keyBytes, secondKey)) {
+                return probe;
+            }
+        }
+        return -1;
+    }
+
+    int first(long slot) {
+        return this.segmentOf(slot).getInt(this.offsetOf(slot) + this.slotSize - 8);
+    }
+
+    int second(long slot) {
+        return this.segmentOf(slot).getInt(this.offsetOf(slot) + this.slotSize - 4);
+    }
+
+    // Replaces the values already stored, returns whether the ids are new
+    boolean put(CharSequence firstKey, CharSequence secondKey, int first, int second) {
+        this.checkKey(firstKey);
+        this.checkKey(secondKey);
+        long slot = this.find(firstKey, secondKey);
+        boolean added = slot < 0;
+        if (added) {
+            int hash = hash(firstKey, secondKey);
+            slot = this.freeSlot(hash);
+            ByteBuffer segment = this.segmentOf(slot);
+            int offset = this.offsetOf(slot);
+            segment.putInt(offset + HASH, hash);
+            this.write(segment, offset + FIRST_KEY, firstKey);
+            this.write(segment, offset + FIRST_KEY + 1 + this.keyBytes, secondKey);
+        }
+        ByteBuffer segment = this.segmentOf(slot);
+        int offset = this.offsetOf(slot);
+        segment.putInt(offset + this.slotSize - 8, first);
+        segment.putInt(offset + this.slotSize - 4, second);
+        return added;
+    }
+
+    /**
+     * Writes the slots of a mapped table to its file.
+     */
+    void force() {
+        for (ByteBuffer segment : this.segments) {
+            if (segment instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) segment).force();
+            }
+        }
+    }
+
+    private long freeSlot(int hash) {
+        for (long probe = hash & this.mask, probes = 0; probes < this.capacity; probe = (probe + 1) & this.mask, probes++) {
+            if (this.segmentOf(probe).getInt(this.offsetOf(probe) + HASH) == 0) {
+                return probe;
+            }
+        }
+        throw new IllegalStateException("The table is full");
+    }
+
+    private ByteBuffer segmentOf(long slot) {
+        return this.segments[(int) (slot >>> this.segmentShift)];
+    }
+
+    private int offsetOf(long slot) {
+        return ((int) slot & this.segmentMask) * this.slotSize;
+    }
+
+    private boolean fits(CharSequence key) {
+        if (key.length() > this.keyBytes) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkKey(CharSequence key) {
+        if (!this.fits(key)) {
+            throw new IllegalArgumentException("Ids must be ASCII and at most " + this.keyBytes + " chars long: " + key);
+        }
+    }
+
+    private boolean matches(ByteBuffer segment, int offset, CharSequence key) {
+        if (segment.get(offset) != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (segment.get(offset + 1 + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void write(ByteBuffer segment, int offset, CharSequence key) {
+        segment.put(offset, (byte) key.length());
+        for (int i = 0; i < key.length(); i++) {
+            segment.put(offset + 1 + i, (byte) key.charAt(i));
+        }
+    }
+
+    /**
+     * FNV-1a over both ids, finished with the MurmurHash3 mixer, never 0.
+     */
+    static int hash(CharSequence firstKey, CharSequence secondKey) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < firstKey.length(); i++) {
+            hash = (hash ^ firstKey.charAt(i)) * 0x01000193;
+        }
+        hash = (hash ^ 0xFF) * 0x01000193;
+        for (int i = 0; i < secondKey.length(); i++) {
+            hash = (hash ^ secondKey.charAt(i)) * 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash == 0 ? 1 : hash;
+    }
+}
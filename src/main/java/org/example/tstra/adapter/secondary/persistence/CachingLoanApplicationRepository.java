@@ -0,0 +1,67 @@
+package org.example.tstra.adapter.secondary.persistence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.example.tstra.domain.LoanApplication;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of up to {@code maximumSize} loan applications, written once persisted. Loan applications never
+ * change, so a cached one is never stale; ids not found are not cached.
+ */
+public class CachingLoanApplicationRepository implements CreateLoanApplication.LoanApplicationRepository, GetLoanApplication.LoanApplicationReader {
+
+    private final CreateLoanApplication.LoanApplicationRepository delegate;
+    private final GetLoanApplication.LoanApplicationReader delegateReader;
+    private final Cache<String, LoanApplication> cache;
+
+    public CachingLoanApplicationRepository(
+        @NonNull CreateLoanApplication.LoanApplicationRepository delegate,
+        @NonNull GetLoanApplication.LoanApplicationReader delegateReader,
+        long maximumSize) {
+        this.delegate = delegate;
+        this.delegateReader = delegateReader;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .build();
+    }
+
+    @Override
+    public LoanApplication persist(@NonNull LoanApplication loanApplication) {
+        LoanApplication persisted = this.delegate.persist(loanApplication);
+        this.cache.put(persisted.getLoanApplicationId(), persisted);
+        return persisted;
+    }
+
+    @Override
+    public List<LoanApplication> persistAll(@NonNull List<LoanApplication> loanApplications) {
+        List<LoanApplication> persisted = this.delegate.persistAll(loanApplications);
+        for (LoanApplication loanApplication : persisted) {
+            this.cache.put(loanApplication.getLoanApplicationId(), loanApplication);
+        }
+        return persisted;
+    }
+
+    @Override
+    public Optional<LoanApplication> findById(@NonNull String loanApplicationId) {
+        LoanApplication cached = this.cache.getIfPresent(loanApplicationId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<LoanApplication> found = this.delegateReader.findById(loanApplicationId);
+        found.ifPresent(loanApplication -> this.cache.put(loanApplicationId, loanApplication));
+        return found;
+    }
+
+    // Exports read through to the delegate: they would evict the loan applications being polled
+    @Override
+    public Stream<LoanApplication> findByMerchantId(@NonNull String merchantId, String afterLoanApplicationId) {
+        return this.delegateReader.findByMerchantId(merchantId, afterLoanApplicationId);
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.tstra.adapter.secondary.persistence;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.LoanApplication;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups concurrent writes into {@code persistAll} batches of another repository, flushed at {@code maxBatchSize}
+ * or after {@code maxDelay}. A write is only confirmed once its batch has been persisted.
+ */
+public class GroupCommitLoanApplicationRepository implements CreateLoanApplication.LoanApplicationRepository, AutoCloseable {
+
+    private static final long CLOSE_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final CreateLoanApplication.LoanApplicationRepository delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingWrite> pendingWrites;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public GroupCommitLoanApplicationRepository(
+        @NonNull CreateLoanApplication.LoanApplicationRepository delegate,
+        int maxBatchSize,
+        @NonNull Duration maxDelay,
+        int maxPendingWrites) {
+        if (maxBatchSize <= 0 || maxPendingWrites <= 0) {
+            throw new IllegalArgumentException("maxBatchSize and maxPendingWrites must be positive");
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.pendingWrites = new ArrayBlockingQueue<>(maxPendingWrites);
+        this.flusher = new Thread(this::flushLoop, "loan-application-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public LoanApplication persist(@NonNull LoanApplication loanApplication) {
+        return join(this.persistAsync(loanApplication));
+    }
+
+    @Override
+    public List<LoanApplication> persistAll(@NonNull List<LoanApplication> loanApplications) {
+        List<CompletableFuture<LoanApplication>> futures = new ArrayList<>(loanApplications.size());
+        for (LoanApplication loanApplication : loanApplications) {
+            futures.add(this.persistAsync(loanApplication));
+        }
+        List<LoanApplication> persisted = new ArrayList<>(futures.size());
+        for (CompletableFuture<LoanApplication> future : futures) {
+            persisted.add(join(future));
+        }
+        return persisted;
+    }
+
+    /**
+     * Queues the loan application for the next batch, blocking while {@code maxPendingWrites} writes are waiting.
+     */
+    public CompletableFuture<LoanApplication> persistAsync(@NonNull LoanApplication loanApplication) {
+        if (this.closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+        PendingWrite write = new PendingWrite(loanApplication);
+        try {
+            this.pendingWrites.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to persist the loan application", e);
+        }
+        // Closed while queueing: the write may have missed both the flusher and the final drain
+        if (this.closed && this.pendingWrites.remove(write)) {
+            throw new IllegalStateException("Repository is closed");
+        }
+        return write.future;
+    }
+
+    /**
+     * Stops accepting writes, flushes the writes already queued and waits for the last batch to be persisted.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        this.closed = true;
+        this.flusher.join();
+        List<PendingWrite> late = new ArrayList<>();
+        this.pendingWrites.drainTo(late);
+        this.fail(late, new IllegalStateException("Repository is closed"));
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch = new ArrayList<>(this.maxBatchSize);
+        try {
+            while (!this.closed || !this.pendingWrites.isEmpty()) {
+                PendingWrite first = this.pendingWrites.poll(CLOSE_POLL_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                this.fill(batch, System.nanoTime() + this.maxDelayNanos);
+                this.flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            this.fail(batch, new IllegalStateException("Group commit interrupted", e));
+            List<PendingWrite> remaining = new ArrayList<>();
+            this.pendingWrites.drainTo(remaining);
+            this.fail(remaining, new IllegalStateException("Group commit interrupted", e));
+        }
+    }
+
+    private void fill(List<PendingWrite> batch, long deadline) throws InterruptedException {
+        while (batch.size() < this.maxBatchSize) {
+            if (this.pendingWrites.drainTo(batch, this.maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingWrite next = this.pendingWrites.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<LoanApplication> loanApplications = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            loanApplications.add(write.loanApplication);
+        }
+
+        try {
+            List<LoanApplication> persisted = this.delegate.persistAll(loanApplications);
+            if (persisted.size() != batch.size()) {
+                throw new IllegalStateException("Expected " + batch.size() + " persisted loan applications, got " + persisted.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(persisted.get(i));
+            }
+        } catch (Throwable e) {
+            // Whatever happens, the batch fails and the flusher keeps draining the queue
+            this.fail(batch, e);
+        }
+    }
+
+    private void fail(List<PendingWrite> writes, Throwable e) {
+        for (PendingWrite write : writes) {
+            write.future.completeExceptionally(e);
+        }
+    }
+
+    private static LoanApplication join(CompletableFuture<LoanApplication> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class PendingWrite {
+        private final LoanApplication loanApplication;
+        private final CompletableFuture<LoanApplication> future = new CompletableFuture<>();
+
+        PendingWrite(LoanApplication loanApplication) {
+            this.loanApplication = loanApplication;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package org.example.tstra.adapter.secondary.persistence;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.example.tstra.domain.Language;
+import org.example.tstra.domain.LoanApplication;
+import org.example.tstra.domain.PositiveAmount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Appends loan applications to a journal of memory-mapped segments, each record framed as
+ * {@code [int length][int crc32][payload]} and forced to disk every {@code fsyncEveryRecords} records, or only on
+ * rollover and close when it is 0. On startup the segments are scanned to rebuild the indexes, and a torn write at
+ * the end of the last segment is discarded.
+ */
+public class JournalLoanApplicationRepository implements CreateLoanApplication.LoanApplicationRepository, GetLoanApplication.LoanApplicationReader, AutoCloseable {
+
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final int HEADER_SIZE = 8;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int fsyncEveryRecords;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Long> positions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<String, Long>> positionsByMerchant = new ConcurrentHashMap<>();
+    private final CRC32 writeChecksum = new CRC32();
+    private Segment current;
+    private int unsyncedRecords;
+
+    public JournalLoanApplicationRepository(@NonNull Path directory, int segmentSize, int fsyncEveryRecords) {
+        if (segmentSize <= HEADER_SIZE || fsyncEveryRecords < 0) {
+            throw new IllegalArgumentException("segmentSize must hold at least one record header and fsyncEveryRecords can not be negative");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncEveryRecords = fsyncEveryRecords;
+        try {
+            Files.createDirectories(directory);
+            this.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized LoanApplication persist(@NonNull LoanApplication loanApplication) {
+        this.append(loanApplication);
+        if (this.fsyncEveryRecords > 0 && ++this.unsyncedRecords >= this.fsyncEveryRecords) {
+            this.sync();
+        }
+        return loanApplication;
+    }
+
+    @Override
+    public synchronized List<LoanApplication> persistAll(@NonNull List<LoanApplication> loanApplications) {
+        for (LoanApplication loanApplication : loanApplications) {
+            this.append(loanApplication);
+        }
+        if (this.fsyncEveryRecords > 0) {
+            this.sync();
+        }
+        return loanApplications;
+    }
+
+    @Override
+    public Optional<LoanApplication> findById(@NonNull String loanApplicationId) {
+        Long position = this.positions.get(loanApplicationId);
+        if (position == null) {
+            return Optional.empty();
+        }
+        return Optional.of(this.read(position));
+    }
+
+    /**
+     * Loan applications appended while the stream is consumed may or may not be part of it.
+     */
+    @Override
+    public Stream<LoanApplication> findByMerchantId(@NonNull String merchantId, String afterLoanApplicationId) {
+        ConcurrentNavigableMap<String, Long> positions = this.positionsByMerchant.get(merchantId);
+        if (positions == null) {
+            return Stream.empty();
+        }
+        if (afterLoanApplicationId != null) {
+            positions = positions.tailMap(afterLoanApplicationId, false);
+        }
+        return positions.values().stream().map(this::read);
+    }
+
+    public int size() {
+        return this.positions.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.current != null) {
+            this.sync();
+        }
+        for (Segment segment : this.segments) {
+            segment.channel.close();
+        }
+    }
+
+    private void append(LoanApplication loanApplication) {
+        byte[] payload = encode(loanApplication);
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > this.segmentSize) {
+            throw new IllegalArgumentException("Loan application " + loanApplication.getLoanApplicationId() + " does not fit in a journal segment");
+        }
+        if (this.current.buffer.remaining() < recordSize) {
+            this.rollOver();
+        }
+
+        this.writeChecksum.reset();
+        this.writeChecksum.update(payload, 0, payload.length);
+
+        MappedByteBuffer buffer = this.current.buffer;
+        int offset = buffer.position();
+        // The length is written last: until then the slot still reads as the end of the journal.
+        buffer.position(offset + 4);
+        buffer.putInt((int) this.writeChecksum.getValue());
+        buffer.put(payload);
+        buffer.putInt(offset, payload.length);
+
+        this.index(loanApplication, position(this.segments.size() - 1, offset));
+    }
+
+    private void index(LoanApplication loanApplication, long position) {
+        this.positions.put(loanApplication.getLoanApplicationId(), position);
+        this.positionsByMerchant.computeIfAbsent(loanApplication.getMerchantId(), merchantId -> new ConcurrentSkipListMap<>())
+            .put(loanApplication.getLoanApplicationId(), position);
+    }
+
+    private LoanApplication read(long position) {
+        ByteBuffer buffer = this.segments.get(segmentOf(position)).buffer.duplicate();
+        buffer.position(offsetOf(position) + HEADER_SIZE);
+        return decode(buffer);
+    }
+
+    private void sync() {
+        this.current.buffer.force();
+        this.unsyncedRecords = 0;
+    }
+
+    private void rollOver() {
+        this.sync();
+        try {
+            this.current = this.openSegment(this.segments.size(), this.segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.segments.add(this.current);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null);
+
+        for (int i = 0; i < files.size(); i++) {
+            if (!files.get(i).equals(this.segmentPath(i))) {
+                throw new IllegalStateException("Journal segment " + this.segmentPath(i) + " is missing");
+            }
+            Segment segment = this.openSegment(i, (int) Files.size(files.get(i)));
+            this.segments.add(segment);
+            this.scan(segment, i, i == files.size() - 1);
+        }
+
+        if (this.segments.isEmpty()) {
+            this.segments.add(this.openSegment(0, this.segmentSize));
+        }
+        this.current = this.segments.get(this.segments.size() - 1);
+    }
+
+    private void scan(Segment segment, int segmentIndex, boolean last) {
+        MappedByteBuffer buffer = segment.buffer;
+        CRC32 checksum = new CRC32();
+        int offset = 0;
+        while (buffer.capacity() - offset >= HEADER_SIZE) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > buffer.capacity() - offset - HEADER_SIZE || !this.isIntact(buffer, offset, length, checksum)) {
+                if (!last) {
+                    throw new IllegalStateException("Journal segment " + this.segmentPath(segmentIndex) + " is corrupted at offset " + offset);
+                }
+                truncate(buffer, offset);
+                break;
+            }
+
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset + HEADER_SIZE);
+            this.index(decode(record), position(segmentIndex, offset));
+            offset += HEADER_SIZE + length;
+        }
+        buffer.position(offset);
+    }
+
+    private boolean isIntact(MappedByteBuffer buffer, int offset, int length, CRC32 checksum) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + HEADER_SIZE + length);
+        payload.position(offset + HEADER_SIZE);
+        checksum.reset();
+        checksum.update(payload);
+        return (int) checksum.getValue() == buffer.getInt(offset + 4);
+    }
+
+    private static void truncate(MappedByteBuffer buffer, int offset) {
+        for (int i = offset; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+    }
+
+    private Segment openSegment(int index, int size) throws IOException {
+        FileChannel channel = FileChannel.open(
+            this.segmentPath(index),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    private Path segmentPath(int index) {
+        return this.directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] encode(LoanApplication loanApplication) {
+        byte[] loanApplicationId = loanApplication.getLoanApplicationId().getBytes(StandardCharsets.UTF_8);
+        byte[] merchantId = loanApplication.getMerchantId().getBytes(StandardCharsets.UTF_8);
+        byte[] productId = loanApplication.getProductId().getBytes(StandardCharsets.UTF_8);
+        // Languages are stored by their code rather than their ordinal, so that the enum can change
+        byte[] language = loanApplication.getLanguage().getValue().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 * 2 + loanApplicationId.length + merchantId.length + productId.length + language.length + 4);
+        payload.put(FORMAT_VERSION);
+        putString(payload, loanApplicationId);
+        putString(payload, merchantId);
+        putString(payload, productId);
+        putString(payload, language);
+        payload.putInt(loanApplication.getPurchaseAmount().getValue());
+        return payload.array();
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Identifiers are limited to " + Short.MAX_VALUE + " bytes");
+        }
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    private static LoanApplication decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported journal record version " + version);
+        }
+        String loanApplicationId = getString(buffer);
+        String merchantId = getString(buffer);
+        String productId = getString(buffer);
+        String languageCode = getString(buffer);
+        Language language = Language.tryOf(languageCode);
+        if (language == null) {
+            throw new IllegalStateException("Journal record " + loanApplicationId + " holds an unknown language " + languageCode);
+        }
+        int purchaseAmount = buffer.getInt();
+        try {
+            return new LoanApplication(loanApplicationId, merchantId, productId, language, PositiveAmount.of(purchaseAmount));
+        } catch (PositiveAmount.InvalidPositiveAmount e) {
+            throw new IllegalStateException("Journal record " + loanApplicationId + " holds an invalid purchase amount", e);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] value = new byte[buffer.getShort()];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static long position(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | offset;
+    }
+
+    private static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        Segment(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
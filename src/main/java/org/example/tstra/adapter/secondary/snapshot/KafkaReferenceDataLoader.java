@@ -0,0 +1,219 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.example.tstra.application.service.EffectiveAmountRangeIndex;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains a {@link ReferenceDataSnapshot} from a compacted topic keyed {@code merchant:<merchantId>} or
+ * {@code product:<merchantId>:<productId>}, read from the beginning on every start.
+ */
+@Slf4j
+public class KafkaReferenceDataLoader implements AutoCloseable {
+
+    static final String MERCHANT_KEY_PREFIX = "merchant:";
+    static final String PRODUCT_KEY_PREFIX = "product:";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final Consumer<String, byte[]> consumer;
+    private final String topic;
+    private final ObjectMapper objectMapper;
+    private final EffectiveAmountRangeIndex effectiveAmountRangeIndex;
+    private final AtomicReference<ReferenceDataSnapshot> snapshot = new AtomicReference<>(ReferenceDataSnapshot.EMPTY);
+    private final Thread thread;
+    private Map<TopicPartition, Long> startEndOffsets;
+    private ReferenceDataSnapshot.Builder bootstrap;
+    private volatile boolean caughtUp;
+    private volatile Throwable failure;
+    private volatile boolean running = true;
+
+    public KafkaReferenceDataLoader(
+        @NonNull Consumer<String, byte[]> consumer,
+        @NonNull String topic,
+        @NonNull ObjectMapper objectMapper,
+        @NonNull EffectiveAmountRangeIndex effectiveAmountRangeIndex) {
+        this.consumer = consumer;
+        this.topic = topic;
+        this.objectMapper = objectMapper;
+        this.effectiveAmountRangeIndex = effectiveAmountRangeIndex;
+        this.thread = new Thread(this::run, "reference-data-loader");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    public ReferenceDataSnapshot snapshot() {
+        return this.snapshot.get();
+    }
+
+    public boolean isCaughtUp() {
+        return this.caughtUp;
+    }
+
+    /**
+     * The cause of the death of the loader thread, or null while it runs.
+     */
+    public Throwable failure() {
+        return this.failure;
+    }
+
+    private void run() {
+        try {
+            this.bootstrap();
+            while (this.running) {
+                this.poll(POLL_TIMEOUT);
+            }
+        } catch (WakeupException e) {
+            // Closing
+        } catch (RuntimeException | Error e) {
+            this.failure = e;
+            log.error("Reference data loader stopped", e);
+        } finally {
+            this.consumer.close();
+        }
+    }
+
+    void bootstrap() {
+        List<TopicPartition> partitions = this.consumer.partitionsFor(this.topic).stream()
+            .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+            .collect(Collectors.toList());
+        this.consumer.assign(partitions);
+        this.consumer.seekToBeginning(partitions);
+        this.startEndOffsets = this.consumer.endOffsets(partitions);
+        this.bootstrap = this.snapshot.get().toBuilder();
+        this.checkCaughtUp();
+    }
+
+    void poll(Duration timeout) {
+        ConsumerRecords<String, byte[]> records = this.consumer.poll(timeout);
+        if (!this.caughtUp) {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                this.apply(this.bootstrap, record);
+            }
+            this.checkCaughtUp();
+        } else if (!records.isEmpty()) {
+            ReferenceDataSnapshot.Builder builder = this.snapshot.get().toBuilder();
+            Set<String> changedMerchants = new HashSet<>();
+            for (ConsumerRecord<String, byte[]> record : records) {
+                String merchantId = this.apply(builder, record);
+                if (merchantId != null) {
+                    changedMerchants.add(merchantId);
+                }
+            }
+            ReferenceDataSnapshot snapshot = builder.build();
+            this.snapshot.set(snapshot);
+            this.index(snapshot, changedMerchants);
+        }
+    }
+
+    private void checkCaughtUp() {
+        for (Map.Entry<TopicPartition, Long> endOffset : this.startEndOffsets.entrySet()) {
+            if (this.consumer.position(endOffset.getKey()) < endOffset.getValue()) {
+                return;
+            }
+        }
+        ReferenceDataSnapshot snapshot = this.bootstrap.build();
+        this.bootstrap = null;
+        this.snapshot.set(snapshot);
+        this.index(snapshot, snapshot.merchantIds());
+        log.info("Reference data loaded: {} merchants, {} products", snapshot.merchantCount(), snapshot.productCount());
+        this.caughtUp = true;
+    }
+
+    private void index(ReferenceDataSnapshot snapshot, Collection<String> merchantIds) {
+        for (String merchantId : merchantIds) {
+            Merchant merchant = snapshot.merchant(merchantId);
+            if (merchant == null) {
+                this.effectiveAmountRangeIndex.removeMerchant(merchantId);
+            } else {
+                this.effectiveAmountRangeIndex.load(merchant, snapshot.products(merchantId));
+            }
+        }
+    }
+
+    /**
+     * Applies the record to the builder and returns the id of the merchant it changed, or null when skipped.
+     */
+    private String apply(ReferenceDataSnapshot.Builder builder, ConsumerRecord<String, byte[]> record) {
+        String key = record.key();
+        try {
+            if (key != null && key.startsWith(MERCHANT_KEY_PREFIX)) {
+                String merchantId = key.substring(MERCHANT_KEY_PREFIX.length());
+                if (record.value() == null) {
+                    builder.removeMerchant(merchantId);
+                } else {
+                    builder.putMerchant(this.objectMapper.readValue(record.value(), MerchantRecord.class).toMerchant(merchantId));
+                }
+                return merchantId;
+            }
+            int separator = key == null ? -1 : key.indexOf(':', PRODUCT_KEY_PREFIX.length());
+            if (key != null && key.startsWith(PRODUCT_KEY_PREFIX) && separator > 0) {
+                String merchantId = key.substring(PRODUCT_KEY_PREFIX.length(), separator);
+                String productId = key.substring(separator + 1);
+                if (record.value() == null) {
+                    builder.removeProduct(merchantId, productId);
+                } else {
+                    builder.putProduct(merchantId, this.objectMapper.readValue(record.value(), ProductRecord.class).toProduct(productId));
+                }
+                return merchantId;
+            }
+            log.warn("Skipped reference data record at {}-{}@{}: unknown key {}", record.topic(), record.partition(), record.offset(), key);
+        } catch (IOException | PositiveAmount.InvalidPositiveAmount | RuntimeException e) {
+            log.warn("Skipped malformed reference data record at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        this.running = false;
+        this.consumer.wakeup();
+        this.thread.join(5_000);
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class MerchantRecord {
+        int minLoanAmount;
+        int maxLoanAmount;
+
+        Merchant toMerchant(String merchantId) throws PositiveAmount.InvalidPositiveAmount {
+            return new Merchant(merchantId, PositiveAmount.of(this.minLoanAmount), PositiveAmount.of(this.maxLoanAmount));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class ProductRecord {
+        int minAmount;
+        int maxAmount;
+
+        Product toProduct(String productId) throws PositiveAmount.InvalidPositiveAmount {
+            return new Product(productId, PositiveAmount.of(this.minAmount), PositiveAmount.of(this.maxAmount));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import lombok.NonNull;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * Out of service until the reference data snapshot has caught up with the topic, down once the loader has died.
+ */
+public class ReferenceDataHealthIndicator extends AbstractHealthIndicator {
+
+    private final KafkaReferenceDataLoader loader;
+
+    public ReferenceDataHealthIndicator(@NonNull KafkaReferenceDataLoader loader) {
+        this.loader = loader;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        ReferenceDataSnapshot snapshot = this.loader.snapshot();
+        Throwable failure = this.loader.failure();
+        if (failure != null) {
+            builder.down().withException(failure);
+        } else if (this.loader.isCaughtUp()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+        builder
+            .withDetail("merchants", snapshot.merchantCount())
+            .withDetail("products", snapshot.productCount());
+    }
+}
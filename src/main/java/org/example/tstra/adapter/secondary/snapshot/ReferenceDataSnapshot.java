@@ -0,0 +1,175 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import lombok.NonNull;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.Product;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of the merchants and products at a point of the reference data topic; a {@link Builder} copies
+ * only the maps it touches.
+ */
+public final class ReferenceDataSnapshot {
+
+    public static final ReferenceDataSnapshot EMPTY = new ReferenceDataSnapshot(Collections.emptyMap(), Collections.emptyMap(), 0);
+
+    private final Map<String, Merchant> merchants;
+    private final Map<String, Map<String, Product>> productsByMerchant;
+    private final int productCount;
+
+    private ReferenceDataSnapshot(Map<String, Merchant> merchants, Map<String, Map<String, Product>> productsByMerchant, int productCount) {
+        this.merchants = merchants;
+        this.productsByMerchant = productsByMerchant;
+        this.productCount = productCount;
+    }
+
+    /**
+     * The merchant, or null when unknown.
+     */
+    public Merchant merchant(@NonNull String merchantId) {
+        return this.merchants.get(merchantId);
+    }
+
+    /**
+     * The product of the merchant, or null when unknown.
+     */
+    public Product product(@NonNull String merchantId, @NonNull String productId) {
+        Map<String, Product> products = this.productsByMerchant.get(merchantId);
+        return products == null ? null : products.get(productId);
+    }
+
+    public Collection<Product> products(@NonNull String merchantId) {
+        Map<String, Product> products = this.productsByMerchant.get(merchantId);
+        return products == null ? Collections.emptyList() : Collections.unmodifiableCollection(products.values());
+    }
+
+    public Set<String> merchantIds() {
+        return this.merchants.keySet();
+    }
+
+    public int merchantCount() {
+        return this.merchants.size();
+    }
+
+    public int productCount() {
+        return this.productCount;
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Changes to a snapshot. The maps of the built snapshot are those of the builder, so a builder is used once.
+     */
+    public static final class Builder {
+        private final ReferenceDataSnapshot base;
+        private boolean built;
+        private Map<String, Merchant> merchants;
+        private Map<String, Map<String, Product>> productsByMerchant;
+        private final Set<String> copiedMerchants = new HashSet<>();
+        private int productCount;
+
+        private Builder(ReferenceDataSnapshot base) {
+            this.base = base;
+            this.productCount = base.productCount;
+        }
+
+        public Builder putMerchant(@NonNull Merchant merchant) {
+            this.merchants().put(merchant.getMerchantId(), merchant);
+            return this;
+        }
+
+        /**
+         * Removes the merchant along with its products.
+         */
+        public Builder removeMerchant(@NonNull String merchantId) {
+            this.checkNotBuilt();
+            if (this.base.merchants.containsKey(merchantId) || this.merchants != null) {
+                this.merchants().remove(merchantId);
+            }
+            if (this.base.productsByMerchant.containsKey(merchantId) || this.productsByMerchant != null) {
+                if (this.productsByMerchant == null) {
+                    this.productsByMerchant = new HashMap<>(this.base.productsByMerchant);
+                }
+                Map<String, Product> products = this.productsByMerchant.remove(merchantId);
+                if (products != null) {
+                    this.productCount -= products.size();
+                    this.copiedMerchants.remove(merchantId);
+                }
+            }
+            return this;
+        }
+
+        public Builder putProduct(@NonNull String merchantId, @NonNull Product product) {
+            if (this.productsOf(merchantId, true).put(product.getProductId(), product) == null) {
+                this.productCount++;
+            }
+            return this;
+        }
+
+        public Builder removeProduct(@NonNull String merchantId, @NonNull String productId) {
+            Map<String, Product> products = this.productsOf(merchantId, false);
+            if (products != null && products.remove(productId) != null) {
+                this.productCount--;
+                if (products.isEmpty()) {
+                    this.productsByMerchant.remove(merchantId);
+                    this.copiedMerchants.remove(merchantId);
+                }
+            }
+            return this;
+        }
+
+        public ReferenceDataSnapshot build() {
+            this.checkNotBuilt();
+            this.built = true;
+            if (this.merchants == null && this.productsByMerchant == null) {
+                return this.base;
+            }
+            return new ReferenceDataSnapshot(
+                this.merchants == null ? this.base.merchants : Collections.unmodifiableMap(this.merchants),
+                this.productsByMerchant == null ? this.base.productsByMerchant : Collections.unmodifiableMap(this.productsByMerchant),
+                this.productCount
+            );
+        }
+
+        private void checkNotBuilt() {
+            if (this.built) {
+                throw new IllegalStateException("The snapshot is already built");
+            }
+        }
+
+        private Map<String, Merchant> merchants() {
+            this.checkNotBuilt();
+            if (this.merchants == null) {
+                this.merchants = new HashMap<>(this.base.merchants);
+            }
+            return this.merchants;
+        }
+
+        private Map<String, Product> productsOf(String merchantId, boolean create) {
+            this.checkNotBuilt();
+            if (this.productsByMerchant == null) {
+                if (!create && !this.base.productsByMerchant.containsKey(merchantId)) {
+                    return null;
+                }
+                this.productsByMerchant = new HashMap<>(this.base.productsByMerchant);
+            }
+            Map<String, Product> products = this.productsByMerchant.get(merchantId);
+            if (products == null && !create) {
+                return null;
+            }
+            if (this.copiedMerchants.add(merchantId)) {
+                products = products == null ? new HashMap<>() : new HashMap<>(products);
+                this.productsByMerchant.put(merchantId, products);
+            }
+            return products;
+        }
+    }
+}
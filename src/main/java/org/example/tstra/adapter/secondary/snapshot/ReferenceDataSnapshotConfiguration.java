@@ -0,0 +1,61 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.example.tstra.application.service.EffectiveAmountRangeIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Serves merchants and products from the {@code loan-application.reference-data.topic} snapshot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "loan-application.reference-data.enabled", havingValue = "true")
+public class ReferenceDataSnapshotConfiguration {
+
+    @Bean
+    public EffectiveAmountRangeIndex effectiveAmountRangeIndex() {
+        return new EffectiveAmountRangeIndex();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public KafkaReferenceDataLoader referenceDataLoader(
+        KafkaProperties kafkaProperties,
+        ObjectMapper objectMapper,
+        EffectiveAmountRangeIndex effectiveAmountRangeIndex,
+        @Value("${loan-application.reference-data.topic:reference-data}") String topic) {
+        Map<String, Object> properties = kafkaProperties.buildConsumerProperties();
+        // Partitions are assigned and offsets never committed: no consumer group is involved
+        properties.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new KafkaReferenceDataLoader(
+            new KafkaConsumer<>(properties, new StringDeserializer(), new ByteArrayDeserializer()),
+            topic,
+            objectMapper,
+            effectiveAmountRangeIndex
+        );
+    }
+
+    @Bean
+    public SnapshotMerchantService snapshotMerchantService(KafkaReferenceDataLoader referenceDataLoader) {
+        return new SnapshotMerchantService(referenceDataLoader::snapshot);
+    }
+
+    @Bean
+    public SnapshotProductService snapshotProductService(KafkaReferenceDataLoader referenceDataLoader) {
+        return new SnapshotProductService(referenceDataLoader::snapshot);
+    }
+
+    @Bean
+    public ReferenceDataHealthIndicator referenceDataHealthIndicator(KafkaReferenceDataLoader referenceDataLoader) {
+        return new ReferenceDataHealthIndicator(referenceDataLoader);
+    }
+}
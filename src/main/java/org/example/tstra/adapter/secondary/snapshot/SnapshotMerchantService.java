@@ -0,0 +1,36 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Looks merchants up in the current {@link ReferenceDataSnapshot}, without blocking nor calling anything remote.
+ */
+public class SnapshotMerchantService implements CreateLoanApplication.MerchantService {
+
+    private final Supplier<ReferenceDataSnapshot> snapshot;
+
+    public SnapshotMerchantService(@NonNull Supplier<ReferenceDataSnapshot> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public Merchant findMerchantId(@NonNull String merchantId) throws CreateLoanApplication.MerchantNotFoundException {
+        Merchant merchant = this.snapshot.get().merchant(merchantId);
+        if (merchant == null) {
+            throw new CreateLoanApplication.MerchantNotFoundException();
+        }
+        return merchant;
+    }
+
+    // The lookup is a map read: complete right away rather than hopping to the executor
+    @Override
+    public CompletableFuture<Merchant> findMerchantIdAsync(@NonNull String merchantId, @NonNull Executor executor) {
+        return CreateLoanApplication.completedLookup(() -> this.findMerchantId(merchantId));
+    }
+}
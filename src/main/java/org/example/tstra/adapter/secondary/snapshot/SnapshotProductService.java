@@ -0,0 +1,36 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import lombok.NonNull;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Product;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Looks products up in the current {@link ReferenceDataSnapshot}, without blocking nor calling anything remote.
+ */
+public class SnapshotProductService implements CreateLoanApplication.ProductService {
+
+    private final Supplier<ReferenceDataSnapshot> snapshot;
+
+    public SnapshotProductService(@NonNull Supplier<ReferenceDataSnapshot> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public Product findProductId(@NonNull String merchantId, @NonNull String productId) throws CreateLoanApplication.ProductNotFoundException {
+        Product product = this.snapshot.get().product(merchantId, productId);
+        if (product == null) {
+            throw new CreateLoanApplication.ProductNotFoundException();
+        }
+        return product;
+    }
+
+    // The lookup is a map read: complete right away rather than hopping to the executor
+    @Override
+    public CompletableFuture<Product> findProductIdAsync(@NonNull String merchantId, @NonNull String productId, @NonNull Executor executor) {
+        return CreateLoanApplication.completedLookup(() -> this.findProductId(merchantId, productId));
+    }
+}
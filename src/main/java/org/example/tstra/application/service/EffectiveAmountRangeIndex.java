@@ -0,0 +1,132 @@
+package org.example.tstra.application.service;
+
+import lombok.NonNull;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.Product;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Intersection of the loan amount range of the merchant and the amount range of the product, per indexed pair,
+ * packed in a single long along with the merchant and product it was computed from.
+ */
+public class EffectiveAmountRangeIndex {
+
+    // No valid range packs to this value since amounts are never negative
+    public static final long NOT_INDEXED = -1L;
+
+    private final ConcurrentHashMap<String, MerchantRanges> merchants = new ConcurrentHashMap<>();
+
+    public void load(@NonNull Merchant merchant, @NonNull Collection<Product> products) {
+        MerchantRanges ranges = new MerchantRanges(merchant, products.size());
+        for (Product product : products) {
+            ranges.put(product);
+        }
+        this.merchants.put(merchant.getMerchantId(), ranges);
+    }
+
+    public void load(@NonNull Map<Merchant, ? extends Collection<Product>> productsByMerchant) {
+        productsByMerchant.forEach(this::load);
+    }
+
+    public void putMerchant(@NonNull Merchant merchant) {
+        this.merchants.compute(merchant.getMerchantId(), (merchantId, ranges) -> {
+            MerchantRanges updated = new MerchantRanges(merchant, ranges == null ? 16 : ranges.products.size());
+            if (ranges != null) {
+                for (ProductRange productRange : ranges.products.values()) {
+                    updated.put(productRange.product);
+                }
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Indexes the product. Products of merchants that are not indexed yet are ignored.
+     */
+    public void putProduct(@NonNull String merchantId, @NonNull Product product) {
+        this.merchants.computeIfPresent(merchantId, (id, ranges) -> {
+            ranges.put(product);
+            return ranges;
+        });
+    }
+
+    public void removeProduct(@NonNull String merchantId, @NonNull String productId) {
+        this.merchants.computeIfPresent(merchantId, (id, ranges) -> {
+            ranges.products.remove(productId);
+            return ranges;
+        });
+    }
+
+    public void removeMerchant(@NonNull String merchantId) {
+        this.merchants.remove(merchantId);
+    }
+
+    /**
+     * Returns the packed effective range of the pair, or {@link #NOT_INDEXED}.
+     */
+    public long find(@NonNull String merchantId, @NonNull String productId) {
+        MerchantRanges ranges = this.merchants.get(merchantId);
+        ProductRange productRange = ranges == null ? null : ranges.products.get(productId);
+        return productRange == null ? NOT_INDEXED : productRange.range;
+    }
+
+    /**
+     * Returns the packed effective range of the pair when it was computed from these very instances, so that it
+     * always agrees with them, or {@link #NOT_INDEXED}.
+     */
+    public long find(@NonNull Merchant merchant, @NonNull Product product) {
+        MerchantRanges ranges = this.merchants.get(merchant.getMerchantId());
+        if (ranges == null || ranges.merchant != merchant) {
+            return NOT_INDEXED;
+        }
+        ProductRange productRange = ranges.products.get(product.getProductId());
+        if (productRange == null || productRange.product != product) {
+            return NOT_INDEXED;
+        }
+        return productRange.range;
+    }
+
+    public static int minOf(long range) {
+        return (int) (range >>> 32);
+    }
+
+    public static int maxOf(long range) {
+        return (int) range;
+    }
+
+    static long pack(int min, int max) {
+        return ((long) min << 32) | (max & 0xFFFFFFFFL);
+    }
+
+    // Writers go through the compute methods of the merchants map, so the writes of a merchant are serialized and a
+    // merchant change replaces its ranges as a whole.
+    private static final class MerchantRanges {
+        private final Merchant merchant;
+        private final ConcurrentHashMap<String, ProductRange> products;
+
+        MerchantRanges(Merchant merchant, int expectedProducts) {
+            this.merchant = merchant;
+            this.products = new ConcurrentHashMap<>(Math.max(expectedProducts, 1));
+        }
+
+        void put(Product product) {
+            this.products.put(product.getProductId(), new ProductRange(product, pack(
+                Math.max(this.merchant.getMinLoanAmount().getValue(), product.getMinAmount().getValue()),
+                Math.min(this.merchant.getMaxLoanAmount().getValue(), product.getMaxAmount().getValue())
+            )));
+        }
+    }
+
+    private static final class ProductRange {
+        private final Product product;
+        private final long range;
+
+        ProductRange(Product product, long range) {
+            this.product = product;
+            this.range = range;
+        }
+    }
+}
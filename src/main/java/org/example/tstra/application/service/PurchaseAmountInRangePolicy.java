@@ -1,22 +1,48 @@
 package org.example.tstra.application.service;
 
+import lombok.NonNull;
 import org.example.tstra.domain.Merchant;
 import org.example.tstra.domain.Product;
 import org.example.tstra.domain.PositiveAmount;
 
 public class PurchaseAmountInRangePolicy {
 
-    public PositiveAmount validate(PositiveAmount purchaseAmount, Merchant merchant, Product product) throws InvalidPurchaseAmount {
-        int max = Math.min(merchant.getMaxLoanAmount().getValue(), product.getMaxAmount().getValue());
-        int min = Math.max(merchant.getMinLoanAmount().getValue(), product.getMinAmount().getValue());
-        int value = purchaseAmount.getValue();
+    private final EffectiveAmountRangeIndex effectiveAmountRangeIndex;
 
-        if (value < min || value > max) {
+    public PurchaseAmountInRangePolicy() {
+        this.effectiveAmountRangeIndex = null;
+    }
+
+    /**
+     * Pairs the index does not hold for the very merchant and product given have their range computed from them.
+     */
+    public PurchaseAmountInRangePolicy(@NonNull EffectiveAmountRangeIndex effectiveAmountRangeIndex) {
+        this.effectiveAmountRangeIndex = effectiveAmountRangeIndex;
+    }
+
+    public PositiveAmount validate(PositiveAmount purchaseAmount, Merchant merchant, Product product) throws InvalidPurchaseAmount {
+        if (!this.isSatisfiedBy(purchaseAmount, merchant, product)) {
             throw new InvalidPurchaseAmount();
         }
 
         return purchaseAmount;
     }
 
+    public boolean isSatisfiedBy(PositiveAmount purchaseAmount, Merchant merchant, Product product) {
+        if (this.effectiveAmountRangeIndex != null) {
+            long range = this.effectiveAmountRangeIndex.find(merchant, product);
+            if (range != EffectiveAmountRangeIndex.NOT_INDEXED) {
+                int value = purchaseAmount.getValue();
+                return value >= EffectiveAmountRangeIndex.minOf(range) && value <= EffectiveAmountRangeIndex.maxOf(range);
+            }
+        }
+
+        int max = Math.min(merchant.getMaxLoanAmount().getValue(), product.getMaxAmount().getValue());
+        int min = Math.max(merchant.getMinLoanAmount().getValue(), product.getMinAmount().getValue());
+        int value = purchaseAmount.getValue();
+
+        return value >= min && value <= max;
+    }
+
     public static class InvalidPurchaseAmount extends Exception { }
 }
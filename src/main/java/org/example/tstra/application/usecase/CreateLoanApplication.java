@@ -6,73 +6,202 @@ import org.example.tstra.application.service.PurchaseAmountInRangePolicy;
 import org.example.tstra.domain.*;
 
 import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class CreateLoanApplication {
 
+    // Validation rejections are shared: they carry no state and no stack trace, so rejecting a request allocates nothing.
+    private static final InvalidPurchaseAmountException INVALID_PURCHASE_AMOUNT = new InvalidPurchaseAmountException();
+    private static final PurchaseAmountOutOfRange PURCHASE_AMOUNT_OUT_OF_RANGE = new PurchaseAmountOutOfRange();
+    private static final InvalidLanguageException INVALID_LANGUAGE = new InvalidLanguageException();
+
     private final LoanApplicationIdGenerator loanApplicationIdGenerator;
     private final MerchantService merchantService;
     private final ProductService productService;
     private final LoanApplicationRepository loanApplicationRepository;
     private final PurchaseAmountInRangePolicy purchaseAmountInRangePolicy;
+    private final Monitor monitor;
 
-    @Named
     public CreateLoanApplication(
         @NonNull LoanApplicationIdGenerator loanApplicationIdGenerator,
         @NonNull MerchantService merchantService,
         @NonNull ProductService productService,
         @NonNull LoanApplicationRepository loanApplicationRepository) {
+        this(loanApplicationIdGenerator, merchantService, productService, loanApplicationRepository, new PurchaseAmountInRangePolicy());
+    }
+
+    public CreateLoanApplication(
+        @NonNull LoanApplicationIdGenerator loanApplicationIdGenerator,
+        @NonNull MerchantService merchantService,
+        @NonNull ProductService productService,
+        @NonNull LoanApplicationRepository loanApplicationRepository,
+        @NonNull PurchaseAmountInRangePolicy purchaseAmountInRangePolicy) {
+        this(loanApplicationIdGenerator, merchantService, productService, loanApplicationRepository, purchaseAmountInRangePolicy, Monitor.NONE);
+    }
+
+    @Named
+    public CreateLoanApplication(
+        @NonNull LoanApplicationIdGenerator loanApplicationIdGenerator,
+        @NonNull MerchantService merchantService,
+        @NonNull ProductService productService,
+        @NonNull LoanApplicationRepository loanApplicationRepository,
+        @NonNull PurchaseAmountInRangePolicy purchaseAmountInRangePolicy,
+        @NonNull Monitor monitor) {
         this.loanApplicationIdGenerator = loanApplicationIdGenerator;
         this.merchantService = merchantService;
         this.productService = productService;
         this.loanApplicationRepository = loanApplicationRepository;
-        this.purchaseAmountInRangePolicy = new PurchaseAmountInRangePolicy();
+        this.purchaseAmountInRangePolicy = purchaseAmountInRangePolicy;
+        this.monitor = monitor;
     }
 
     public CreateLoanApplicationResponse execute(@NonNull CreateLoanApplicationRequest request) throws CreateLoanApplicationException {
-        Merchant merchant = this.merchantService.findMerchantId(request.getMerchantId());
-        Product product = this.productService.findProductId(merchant.getMerchantId(), request.getProductId());
-        PositiveAmount purchaseAmount = this.validatePurchaseAmount(request.getPurchaseAmount());
-        PositiveAmount validPurchaseAmount = this.validatePurchaseAmountIsInRange(purchaseAmount, merchant, product);
-        Language language = this.validateLanguage(request.getLanguage());
-
-        String loanApplicationId = loanApplicationIdGenerator.generateId();
-        this.loanApplicationRepository.persist(
-            new LoanApplication(
-                loanApplicationId,
-                merchant.getMerchantId(),
-                product.getProductId(),
-                language,
-                validPurchaseAmount
-            )
-        );
+        try {
+            long start = System.nanoTime();
+            Merchant merchant = this.merchantService.findMerchantId(request.getMerchantId());
+            start = this.stageCompleted(Stage.MERCHANT_LOOKUP, start);
+            Product product = this.productService.findProductId(merchant.getMerchantId(), request.getProductId());
+            this.stageCompleted(Stage.PRODUCT_LOOKUP, start);
+            return this.create(request, merchant, product);
+        } catch (CreateLoanApplicationException e) {
+            this.monitor.rejected(request, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Executes the request without blocking the caller, looking the merchant and the product up concurrently.
+     */
+    public CompletableFuture<CreateLoanApplicationResponse> executeAsync(@NonNull CreateLoanApplicationRequest request, @NonNull Executor executor) {
+        long start = System.nanoTime();
+        CompletableFuture<Merchant> merchant = this.timed(Stage.MERCHANT_LOOKUP, start,
+            this.merchantService.findMerchantIdAsync(request.getMerchantId(), executor));
+        CompletableFuture<Product> product = this.timed(Stage.PRODUCT_LOOKUP, start,
+            this.productService.findProductIdAsync(request.getMerchantId(), request.getProductId(), executor));
+
+        return CompletableFuture.allOf(merchant, product).handle((ignored, error) -> {
+            try {
+                return this.create(request, merchant.join(), product.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof CreateLoanApplicationException) {
+                    this.monitor.rejected(request, (CreateLoanApplicationException) e.getCause());
+                }
+                throw e;
+            } catch (CreateLoanApplicationException e) {
+                this.monitor.rejected(request, e);
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Executes the batch looking each merchant and product up once and persisting with a single write. The result
+     * at index i belongs to the request at index i.
+     */
+    public List<CreateLoanApplicationResult> executeAll(@NonNull List<CreateLoanApplicationRequest> requests) {
+        Map<String, Lookup<Merchant>> merchants = new HashMap<>();
+        Map<String, Map<String, Lookup<Product>>> products = new HashMap<>();
+        List<CreateLoanApplicationResult> results = new ArrayList<>(requests.size());
+        List<LoanApplication> accepted = new ArrayList<>(requests.size());
+
+        for (CreateLoanApplicationRequest request : requests) {
+            try {
+                Merchant merchant = merchants
+                    .computeIfAbsent(request.getMerchantId(), merchantId -> Lookup.of(() -> this.merchantService.findMerchantId(merchantId)))
+                    .get();
+                Product product = products
+                    .computeIfAbsent(merchant.getMerchantId(), merchantId -> new HashMap<>())
+                    .computeIfAbsent(request.getProductId(), productId -> Lookup.of(() -> this.productService.findProductId(merchant.getMerchantId(), productId)))
+                    .get();
+                LoanApplication loanApplication = this.prepare(request, merchant, product);
+                accepted.add(loanApplication);
+                results.add(CreateLoanApplicationResult.success(new CreateLoanApplicationResponse(loanApplication.getLoanApplicationId())));
+            } catch (CreateLoanApplicationException e) {
+                this.monitor.rejected(request, e);
+                results.add(CreateLoanApplicationResult.failure(e));
+            } catch (RuntimeException e) {
+                results.add(CreateLoanApplicationResult.failure(e));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            try {
+                long start = System.nanoTime();
+                this.loanApplicationRepository.persistAll(accepted);
+                this.stageCompleted(Stage.PERSISTENCE, start);
+                for (LoanApplication loanApplication : accepted) {
+                    this.monitor.accepted(loanApplication);
+                }
+            } catch (RuntimeException e) {
+                results.replaceAll(result -> result.isSuccess() ? CreateLoanApplicationResult.failure(e) : result);
+            }
+        }
+
+        return results;
+    }
+
+    private CreateLoanApplicationResponse create(CreateLoanApplicationRequest request, Merchant merchant, Product product) throws CreateLoanApplicationException {
+        LoanApplication loanApplication = this.prepare(request, merchant, product);
+        long start = System.nanoTime();
+        this.loanApplicationRepository.persist(loanApplication);
+        this.stageCompleted(Stage.PERSISTENCE, start);
+        this.monitor.accepted(loanApplication);
 
         return new CreateLoanApplicationResponse(
-            loanApplicationId
+            loanApplication.getLoanApplicationId()
         );
     }
 
-    private PositiveAmount validatePurchaseAmountIsInRange(PositiveAmount purchaseAmount, Merchant merchant, Product product) throws PurchaseAmountOutOfRange {
-        try {
-            return this.purchaseAmountInRangePolicy.validate(purchaseAmount, merchant, product);
-        } catch (PurchaseAmountInRangePolicy.InvalidPurchaseAmount invalidPurchaseAmount) {
-            throw new PurchaseAmountOutOfRange();
+    /**
+     * Validates the request against the merchant and the product and assigns the loan application its id.
+     */
+    private LoanApplication prepare(CreateLoanApplicationRequest request, Merchant merchant, Product product) throws CreateLoanApplicationException {
+        long start = System.nanoTime();
+        PositiveAmount purchaseAmount = PositiveAmount.tryOf(request.getPurchaseAmount());
+        if (purchaseAmount == null) {
+            throw INVALID_PURCHASE_AMOUNT;
+        }
+        if (!this.purchaseAmountInRangePolicy.isSatisfiedBy(purchaseAmount, merchant, product)) {
+            throw PURCHASE_AMOUNT_OUT_OF_RANGE;
+        }
+        Language language = Language.tryOf(request.getLanguage());
+        if (language == null) {
+            throw INVALID_LANGUAGE;
         }
+        start = this.stageCompleted(Stage.VALIDATION, start);
+
+        String loanApplicationId = this.loanApplicationIdGenerator.generateId();
+        this.stageCompleted(Stage.ID_GENERATION, start);
+
+        return new LoanApplication(
+            loanApplicationId,
+            merchant.getMerchantId(),
+            product.getProductId(),
+            language,
+            purchaseAmount
+        );
     }
 
-    private Language validateLanguage(String language) throws InvalidLanguageException {
-        try {
-            return Language.of(language);
-        } catch (Language.InvalidLanguageException e) {
-            throw new InvalidLanguageException();
-        }
+    /**
+     * Reports the stage once the lookup succeeds; both lookups start together, so each is timed from the same start.
+     */
+    private <T> CompletableFuture<T> timed(Stage stage, long start, CompletableFuture<T> lookup) {
+        return lookup.thenApply(value -> {
+            this.stageCompleted(stage, start);
+            return value;
+        });
     }
 
-    private PositiveAmount validatePurchaseAmount(int amount) throws InvalidPurchaseAmountException {
-        try {
-            return PositiveAmount.of(amount);
-        } catch (PositiveAmount.InvalidPositiveAmount invalidPositiveAmount) {
-            throw new InvalidPurchaseAmountException();
-        }
+    private long stageCompleted(Stage stage, long start) {
+        long now = System.nanoTime();
+        this.monitor.stageCompleted(stage, now - start);
+        return now;
     }
 
     // Dependencies
@@ -83,14 +212,87 @@ public class CreateLoanApplication {
     public interface MerchantService {
         Merchant findMerchantId(@NonNull String merchantId) throws MerchantNotFoundException;
 
+        /**
+         * Looks the merchant up on the executor. Implementations backed by a non-blocking client should override it.
+         */
+        default CompletableFuture<Merchant> findMerchantIdAsync(@NonNull String merchantId, @NonNull Executor executor) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.findMerchantId(merchantId);
+                } catch (MerchantNotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
     }
 
     public interface ProductService {
         Product findProductId(@NonNull String merchantId, @NonNull String productId) throws ProductNotFoundException;
+
+        /**
+         * Looks the product up on the executor. Implementations backed by a non-blocking client should override it.
+         */
+        default CompletableFuture<Product> findProductIdAsync(@NonNull String merchantId, @NonNull String productId, @NonNull Executor executor) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.findProductId(merchantId, productId);
+                } catch (ProductNotFoundException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
     }
 
     public interface LoanApplicationRepository {
         LoanApplication persist(@NonNull LoanApplication loanApplication);
+
+        /**
+         * Persists the loan applications as one write. Implementations able to write in bulk should override it.
+         */
+        default List<LoanApplication> persistAll(@NonNull List<LoanApplication> loanApplications) {
+            List<LoanApplication> persisted = new ArrayList<>(loanApplications.size());
+            for (LoanApplication loanApplication : loanApplications) {
+                persisted.add(this.persist(loanApplication));
+            }
+            return persisted;
+        }
+    }
+
+    /**
+     * Observes the use case: the duration of every stage that completes and every rejection. It is called on the
+     * request path, so implementations must be cheap and must not throw.
+     */
+    public interface Monitor {
+        Monitor NONE = new Monitor() {
+            @Override
+            public void stageCompleted(Stage stage, long durationInNanos) {
+            }
+
+            @Override
+            public void rejected(CreateLoanApplicationRequest request, CreateLoanApplicationException rejection) {
+            }
+        };
+
+        void stageCompleted(Stage stage, long durationInNanos);
+
+        /**
+         * The request was rejected. Its ids do not name a known merchant or product when the rejection says so.
+         */
+        void rejected(CreateLoanApplicationRequest request, CreateLoanApplicationException rejection);
+
+        /**
+         * The loan application was persisted.
+         */
+        default void accepted(LoanApplication loanApplication) {
+        }
+    }
+
+    public enum Stage {
+        MERCHANT_LOOKUP,
+        PRODUCT_LOOKUP,
+        VALIDATION,
+        ID_GENERATION,
+        PERSISTENCE
     }
 
     @Value
@@ -99,6 +301,37 @@ public class CreateLoanApplication {
         private final String loanApplicationId;
     }
 
+    @Value
+    public static class CreateLoanApplicationResult {
+        private final CreateLoanApplicationResponse response;
+        private final Exception error;
+
+        static CreateLoanApplicationResult success(CreateLoanApplicationResponse response) {
+            return new CreateLoanApplicationResult(response, null);
+        }
+
+        static CreateLoanApplicationResult failure(Exception error) {
+            return new CreateLoanApplicationResult(null, error);
+        }
+
+        public boolean isSuccess() {
+            return this.error == null;
+        }
+
+        /**
+         * Returns the response, or throws the exception the request failed with.
+         */
+        public CreateLoanApplicationResponse getOrThrow() throws CreateLoanApplicationException {
+            if (this.error instanceof CreateLoanApplicationException) {
+                throw (CreateLoanApplicationException) this.error;
+            }
+            if (this.error != null) {
+                throw (RuntimeException) this.error;
+            }
+            return this.response;
+        }
+    }
+
     @Value
     public static class CreateLoanApplicationRequest {
         @NonNull
@@ -111,8 +344,60 @@ public class CreateLoanApplication {
         private final int purchaseAmount;
     }
 
+    private static final class Lookup<T> {
+        private final T value;
+        private final Exception error;
+
+        private Lookup(T value, Exception error) {
+            this.value = value;
+            this.error = error;
+        }
+
+        static <T> Lookup<T> of(LookupFunction<T> function) {
+            try {
+                return new Lookup<>(function.apply(), null);
+            } catch (CreateLoanApplicationException | RuntimeException e) {
+                return new Lookup<>(null, e);
+            }
+        }
+
+        T get() throws CreateLoanApplicationException {
+            if (this.error instanceof CreateLoanApplicationException) {
+                throw (CreateLoanApplicationException) this.error;
+            }
+            if (this.error != null) {
+                throw (RuntimeException) this.error;
+            }
+            return this.value;
+        }
+    }
+
+    /**
+     * Runs the lookup in the calling thread, for services whose async lookups are memory reads.
+     */
+    public static <T> CompletableFuture<T> completedLookup(@NonNull LookupFunction<T> lookup) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(lookup.apply());
+        } catch (CreateLoanApplicationException e) {
+            result.completeExceptionally(new CompletionException(e));
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface LookupFunction<T> {
+        T apply() throws CreateLoanApplicationException;
+    }
 
-    public static abstract class CreateLoanApplicationException extends Exception { }
+    /**
+     * Rejections are part of the normal flow of the use case, so they do not capture a stack trace.
+     */
+    public static abstract class CreateLoanApplicationException extends Exception {
+        protected CreateLoanApplicationException() {
+            super(null, null, false, false);
+        }
+    }
 
     public static final class MerchantNotFoundException extends CreateLoanApplicationException { }
 
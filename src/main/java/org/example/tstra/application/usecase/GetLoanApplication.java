@@ -0,0 +1,84 @@
+package org.example.tstra.application.usecase;
+
+import lombok.NonNull;
+import lombok.Value;
+import org.example.tstra.domain.LoanApplication;
+
+import javax.inject.Named;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Reads a loan application back for the merchant that created it. The loan applications of other merchants are
+ * reported as not found, so that a merchant can not learn which ids exist.
+ */
+public class GetLoanApplication {
+
+    private static final LoanApplicationNotFoundException LOAN_APPLICATION_NOT_FOUND = new LoanApplicationNotFoundException();
+
+    private final LoanApplicationReader loanApplicationReader;
+
+    @Named
+    public GetLoanApplication(@NonNull LoanApplicationReader loanApplicationReader) {
+        this.loanApplicationReader = loanApplicationReader;
+    }
+
+    public GetLoanApplicationResponse execute(@NonNull String merchantId, @NonNull String loanApplicationId) throws LoanApplicationNotFoundException {
+        Optional<LoanApplication> found = this.loanApplicationReader.findById(loanApplicationId);
+        if (!found.isPresent() || !found.get().getMerchantId().equals(merchantId)) {
+            throw LOAN_APPLICATION_NOT_FOUND;
+        }
+        return toResponse(found.get());
+    }
+
+    /**
+     * The loan applications of the merchant in creation order, after {@code afterLoanApplicationId} when not null.
+     * The stream must be closed.
+     */
+    public Stream<GetLoanApplicationResponse> stream(@NonNull String merchantId, String afterLoanApplicationId) {
+        return this.loanApplicationReader.findByMerchantId(merchantId, afterLoanApplicationId)
+            .map(GetLoanApplication::toResponse);
+    }
+
+    private static GetLoanApplicationResponse toResponse(LoanApplication loanApplication) {
+        return new GetLoanApplicationResponse(
+            loanApplication.getLoanApplicationId(),
+            loanApplication.getMerchantId(),
+            loanApplication.getProductId(),
+            loanApplication.getLanguage().getValue(),
+            loanApplication.getPurchaseAmount().getValue()
+        );
+    }
+
+    // Dependencies
+    public interface LoanApplicationReader {
+        /**
+         * The persisted loan application, or empty when no loan application has this id.
+         */
+        Optional<LoanApplication> findById(@NonNull String loanApplicationId);
+
+        /**
+         * The loan applications of the merchant in id order, after {@code afterLoanApplicationId} when not null. The
+         * stream reads the repository as it is consumed and must be closed.
+         */
+        Stream<LoanApplication> findByMerchantId(@NonNull String merchantId, String afterLoanApplicationId);
+    }
+
+    @Value
+    public static class GetLoanApplicationResponse {
+        String loanApplicationId;
+        String merchantId;
+        String productId;
+        String language;
+        int purchaseAmount;
+    }
+
+    /**
+     * Carries no state and no stack trace, like the rejections of {@link CreateLoanApplication}.
+     */
+    public static final class LoanApplicationNotFoundException extends Exception {
+        public LoanApplicationNotFoundException() {
+            super(null, null, false, false);
+        }
+    }
+}
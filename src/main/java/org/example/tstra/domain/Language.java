@@ -1,6 +1,5 @@
 package org.example.tstra.domain;
 
-import javafx.util.Pair;
 import lombok.NonNull;
 
 import java.util.EnumSet;
@@ -15,8 +14,7 @@ public enum Language {
 
     static final Map<String, Language> validLanguages = EnumSet.allOf(Language.class)
         .stream()
-        .map(e -> new Pair<>(e.getValue(), e))
-        .collect(Collectors.toMap(tuple -> tuple.getKey(), tuple -> tuple.getValue()));
+        .collect(Collectors.toMap(Language::getValue, e -> e));
 
     private final String value;
 
@@ -29,9 +27,17 @@ public enum Language {
     }
 
     public static Language of(String language) throws InvalidLanguageException {
-        if (!Language.validLanguages.keySet().contains(language)) {
+        Language valid = Language.tryOf(language);
+        if (valid == null) {
             throw new InvalidLanguageException();
         }
+        return valid;
+    }
+
+    /**
+     * Same as {@link #of(String)}, but returns null instead of throwing when the language is not supported.
+     */
+    public static Language tryOf(String language) {
         return Language.validLanguages.get(language);
     }
 
@@ -10,9 +10,20 @@ public final class PositiveAmount {
     private final int value;
 
     public static PositiveAmount of(int amount) throws InvalidPositiveAmount {
-        if (amount < 0) {
+        PositiveAmount positiveAmount = PositiveAmount.tryOf(amount);
+        if (positiveAmount == null) {
             throw new InvalidPositiveAmount();
         }
+        return positiveAmount;
+    }
+
+    /**
+     * Same as {@link #of(int)}, but returns null instead of throwing when the amount is negative.
+     */
+    public static PositiveAmount tryOf(int amount) {
+        if (amount < 0) {
+            return null;
+        }
         return new PositiveAmount(amount);
     }
 
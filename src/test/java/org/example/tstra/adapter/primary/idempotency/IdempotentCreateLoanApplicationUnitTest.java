@@ -0,0 +1,273 @@
+package org.example.tstra.adapter.primary.idempotency;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentCreateLoanApplicationUnitTest {
+
+    private final CreateLoanApplication.CreateLoanApplicationRequest request = new CreateLoanApplication.CreateLoanApplicationRequest(
+        "merchant",
+        "product",
+        "fr",
+        40000
+    );
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Mock
+    private CreateLoanApplication useCase;
+
+    private IdempotentCreateLoanApplication idempotentUseCase() {
+        return this.idempotentUseCase(100, Duration.ofSeconds(5));
+    }
+
+    private IdempotentCreateLoanApplication idempotentUseCase(long maximumSize, Duration awaitTimeout) {
+        return new IdempotentCreateLoanApplication(this.useCase, maximumSize, Duration.ofMinutes(1), awaitTimeout, this.nanos::get);
+    }
+
+    @Test
+    public void whenTheRequestIsReplayed_itShouldReturnTheStoredResponse() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        given(this.useCase.execute(this.request)).willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()));
+
+        // when
+        CreateLoanApplication.CreateLoanApplicationResponse first = idempotentUseCase.execute("key", this.request);
+        CreateLoanApplication.CreateLoanApplicationResponse second = idempotentUseCase.execute("key", this.request);
+
+        // then
+        assertEquals(first, second);
+        verify(this.useCase, times(1)).execute(this.request);
+    }
+
+    @Test
+    public void whenTheStoredResponseExpires_itShouldExecuteTheRequestAgain() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        given(this.useCase.execute(this.request)).willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()));
+        idempotentUseCase.execute("key", this.request);
+
+        // when
+        this.nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        idempotentUseCase.execute("key", this.request);
+
+        // then
+        verify(this.useCase, times(2)).execute(this.request);
+    }
+
+    @Test
+    public void whenTheRequestFails_itShouldExecuteTheRetry() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        given(this.useCase.execute(this.request))
+            .willThrow(new CreateLoanApplication.MerchantNotFoundException())
+            .willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()));
+
+        // when
+        assertThrows(CreateLoanApplication.MerchantNotFoundException.class, () -> idempotentUseCase.execute("key", this.request));
+        idempotentUseCase.execute("key", this.request);
+
+        // then
+        verify(this.useCase, times(2)).execute(this.request);
+    }
+
+    @Test
+    public void whenTheKeyIsReusedForAnotherRequest_itShouldThrowAnException() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        given(this.useCase.execute(this.request)).willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()));
+        idempotentUseCase.execute("key", this.request);
+
+        // when // then
+        assertThrows(IdempotentCreateLoanApplication.IdempotencyKeyConflictException.class, () -> idempotentUseCase.execute(
+            "key",
+            new CreateLoanApplication.CreateLoanApplicationRequest("merchant", "product", "fr", 50000)
+        ));
+    }
+
+    @Test
+    public void whenDuplicatesAreInFlight_itShouldExecuteTheRequestOnce() throws Exception {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        CountDownLatch release = new CountDownLatch(1);
+        given(this.useCase.execute(this.request)).will(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<CreateLoanApplication.CreateLoanApplicationResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(executor.submit(() -> idempotentUseCase.execute("key", this.request)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        CreateLoanApplication.CreateLoanApplicationResponse first = responses.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<CreateLoanApplication.CreateLoanApplicationResponse> response : responses) {
+            assertEquals(first, response.get(5, TimeUnit.SECONDS));
+        }
+        verify(this.useCase, times(1)).execute(this.request);
+        executor.shutdown();
+    }
+
+    @Test
+    public void whenTheRequestFailsWithAnError_itShouldExecuteTheRetry() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        CreateLoanApplication.CreateLoanApplicationResponse response = new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString());
+        given(this.useCase.execute(this.request)).willThrow(new StackOverflowError()).willReturn(response);
+
+        // when
+        assertThrows(StackOverflowError.class, () -> idempotentUseCase.execute("key", this.request));
+        CreateLoanApplication.CreateLoanApplicationResponse retry = idempotentUseCase.execute("key", this.request);
+
+        // then
+        assertEquals(response, retry);
+        verify(this.useCase, times(2)).execute(this.request);
+    }
+
+    @Test
+    public void whenTheFirstExecutionTakesTooLong_itShouldFailTheDuplicate() throws Exception {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase(100, Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(this.useCase.execute(this.request)).will(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString());
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<CreateLoanApplication.CreateLoanApplicationResponse> first = executor.submit(() -> idempotentUseCase.execute("key", this.request));
+        started.await(5, TimeUnit.SECONDS);
+
+        // when
+        assertThrows(IdempotentCreateLoanApplication.DuplicateRequestInProgressException.class, () -> idempotentUseCase.execute("key", this.request));
+
+        // then
+        release.countDown();
+        assertEquals(first.get(5, TimeUnit.SECONDS), idempotentUseCase.execute("key", this.request));
+        verify(this.useCase, times(1)).execute(this.request);
+        executor.shutdown();
+    }
+
+    @Test
+    public void whenTheCacheIsFull_itShouldNotEvictRunningExecutions() throws Exception {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase(1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(this.useCase.execute(this.request)).will(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<CreateLoanApplication.CreateLoanApplicationResponse> first = executor.submit(() -> idempotentUseCase.execute("key", this.request));
+        started.await(5, TimeUnit.SECONDS);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            CreateLoanApplication.CreateLoanApplicationRequest other = new CreateLoanApplication.CreateLoanApplicationRequest("merchant", "product-" + i, "fr", 40000);
+            given(this.useCase.execute(other)).willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()));
+            idempotentUseCase.execute("other-" + i, other);
+        }
+        Future<CreateLoanApplication.CreateLoanApplicationResponse> duplicate = executor.submit(() -> idempotentUseCase.execute("key", this.request));
+        release.countDown();
+
+        // then
+        assertEquals(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        verify(this.useCase, times(1)).execute(this.request);
+        executor.shutdown();
+    }
+
+    @Test
+    public void whenTheRequestIsReplayedAsynchronously_itShouldReturnTheStoredResponse() {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        Executor executor = Runnable::run;
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> outcome = new CompletableFuture<>();
+        given(this.useCase.executeAsync(this.request, executor)).willReturn(outcome);
+
+        // when
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> first = idempotentUseCase.executeAsync("key", this.request, executor);
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> second = idempotentUseCase.executeAsync("key", this.request, executor);
+        outcome.complete(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()));
+
+        // then
+        assertEquals(first.join(), second.join());
+        verify(this.useCase, times(1)).executeAsync(this.request, executor);
+    }
+
+    @Test
+    public void whenTheAsynchronousRequestFails_itShouldExecuteTheRetry() {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        Executor executor = Runnable::run;
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new CompletionException(new CreateLoanApplication.MerchantNotFoundException()));
+        given(this.useCase.executeAsync(this.request, executor))
+            .willReturn(failure)
+            .willReturn(CompletableFuture.completedFuture(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString())));
+
+        // when
+        CompletionException error = assertThrows(CompletionException.class, () -> idempotentUseCase.executeAsync("key", this.request, executor).join());
+        idempotentUseCase.executeAsync("key", this.request, executor).join();
+
+        // then
+        assertTrue(error.getCause() instanceof CreateLoanApplication.MerchantNotFoundException);
+        verify(this.useCase, times(2)).executeAsync(this.request, executor);
+    }
+
+    @Test
+    public void whenExecutedInBatch_itShouldOnlyExecuteNewKeys() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        IdempotentCreateLoanApplication idempotentUseCase = this.idempotentUseCase();
+        CreateLoanApplication.CreateLoanApplicationResponse stored = new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString());
+        given(this.useCase.execute(this.request)).willReturn(stored);
+        idempotentUseCase.execute("stored", this.request);
+
+        given(this.useCase.executeAll(anyList())).will(invocation -> {
+            List<CreateLoanApplication.CreateLoanApplicationRequest> requests = invocation.getArgument(0);
+            List<CreateLoanApplication.CreateLoanApplicationResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(new CreateLoanApplication.CreateLoanApplicationResult(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()), null));
+            }
+            return results;
+        });
+
+        // when
+        List<CreateLoanApplication.CreateLoanApplicationResult> results = idempotentUseCase.executeAll(
+            Arrays.asList("stored", "new", "new", null),
+            Arrays.asList(this.request, this.request, this.request, this.request)
+        );
+
+        // then
+        assertEquals(stored, results.get(0).getResponse());
+        assertEquals(results.get(1).getResponse(), results.get(2).getResponse());
+        assertNotEquals(stored, results.get(1).getResponse());
+        assertTrue(results.get(3).isSuccess());
+        verify(this.useCase).executeAll(Arrays.asList(this.request, this.request));
+    }
+}
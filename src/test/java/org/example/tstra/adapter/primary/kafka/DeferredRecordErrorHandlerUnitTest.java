@@ -0,0 +1,75 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class DeferredRecordErrorHandlerUnitTest {
+
+    @Mock
+    private Consumer<?, ?> consumer;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private final DeferredRecordErrorHandler errorHandler = new DeferredRecordErrorHandler();
+
+    @Test
+    public void whenTheRecordIsNotDue_itShouldSeekBackToItAndToTheRecordsPolledAfterIt() {
+        // given
+        List<ConsumerRecord<?, ?>> records = Arrays.asList(
+            new ConsumerRecord<>("requests-deferred", 0, 4, "first", new byte[0]),
+            new ConsumerRecord<>("requests-deferred", 0, 5, "second", new byte[0]),
+            new ConsumerRecord<>("requests-deferred", 1, 9, "third", new byte[0])
+        );
+
+        // when
+        this.errorHandler.handle(
+            new ListenerExecutionFailedException("not due", new LoanApplicationAsyncKafkaApi.DeferralNotDueException()),
+            records,
+            this.consumer,
+            this.container
+        );
+
+        // then
+        verify(this.consumer).seek(new TopicPartition("requests-deferred", 0), 4);
+        verify(this.consumer).seek(new TopicPartition("requests-deferred", 1), 9);
+        verifyNoMoreInteractions(this.consumer);
+        assertFalse(this.errorHandler.isAckAfterHandle());
+    }
+
+    @Test
+    public void whenTheRecordFails_itShouldSkipIt() {
+        // given
+        List<ConsumerRecord<?, ?>> records = Arrays.asList(
+            new ConsumerRecord<>("requests-deferred", 0, 4, "first", new byte[0]),
+            new ConsumerRecord<>("requests-deferred", 0, 5, "second", new byte[0])
+        );
+
+        // when
+        this.errorHandler.handle(
+            new ListenerExecutionFailedException("failed", new IllegalStateException()),
+            records,
+            this.consumer,
+            this.container
+        );
+
+        // then
+        verify(this.consumer).seek(new TopicPartition("requests-deferred", 0), 5);
+        verifyNoMoreInteractions(this.consumer);
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+
+@SpringBootTest(properties = "loan-application.kafka.listener-mode=batch")
+@EmbeddedKafka(
+    partitions = 1,
+    bootstrapServersProperty = "spring.kafka.bootstrap-servers",
+    topics = {
+        "requests",
+        "responses"
+    }
+)
+class LoanApplicationAsyncKafkaApiBatchIntegrationTest {
+
+    @MockBean
+    private CreateLoanApplication createLoanApplication;
+
+    @MockBean
+    private GetLoanApplication getLoanApplication;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafkaBroker;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Consumer<String, String> consumer;
+
+    @BeforeEach
+    public void before() {
+        String groupId = UUID.randomUUID().toString();
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(groupId, "true", this.embeddedKafkaBroker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        ConsumerFactory<String, String> cf = new DefaultKafkaConsumerFactory<>(consumerProps);
+        this.consumer = cf.createConsumer();
+        this.embeddedKafkaBroker.consumeFromAnEmbeddedTopic(this.consumer, "responses");
+    }
+
+    @Test
+    public void itShouldReplyToEveryRecordOfTheBatch() throws Exception {
+        String loanApplicationId = UUID.randomUUID().toString();
+        given(this.createLoanApplication.executeAll(anyList())).will(invocation -> {
+            List<CreateLoanApplication.CreateLoanApplicationRequest> requests = invocation.getArgument(0);
+            List<CreateLoanApplication.CreateLoanApplicationResult> results = new ArrayList<>();
+            for (CreateLoanApplication.CreateLoanApplicationRequest request : requests) {
+                results.add("unknown".equals(request.getMerchantId())
+                    ? new CreateLoanApplication.CreateLoanApplicationResult(null, new CreateLoanApplication.MerchantNotFoundException())
+                    : new CreateLoanApplication.CreateLoanApplicationResult(new CreateLoanApplication.CreateLoanApplicationResponse(loanApplicationId), null));
+            }
+            return results;
+        });
+
+        String acceptedCorrelationId = UUID.randomUUID().toString();
+        String rejectedCorrelationId = UUID.randomUUID().toString();
+        this.kafkaTemplate.send(new ProducerRecord<>(
+            "requests",
+            UUID.randomUUID().toString(),
+            "{\"correlationId\":\"" + acceptedCorrelationId + "\",\"merchantId\":\"123\",\"productId\":\"123\",\"language\":\"fr\",\"purchaseAmount\":123}"
+        ));
+        this.kafkaTemplate.send(new ProducerRecord<>(
+            "requests",
+            UUID.randomUUID().toString(),
+            "{"
+        ));
+        this.kafkaTemplate.send(new ProducerRecord<>(
+            "requests",
+            UUID.randomUUID().toString(),
+            "{\"correlationId\":\"" + rejectedCorrelationId + "\",\"merchantId\":\"unknown\",\"productId\":\"123\",\"language\":\"fr\",\"purchaseAmount\":123}"
+        ));
+
+        Map<String, LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse> responses = new HashMap<>();
+        int errors = 0;
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (responses.size() + errors < 3 && System.currentTimeMillis() < deadline) {
+            for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(this.consumer)) {
+                try {
+                    LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse response =
+                        this.objectMapper.readValue(record.value(), LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse.class);
+                    if (response.getCorrelationId() != null) {
+                        responses.put(response.getCorrelationId(), response);
+                    } else {
+                        errors++;
+                    }
+                } catch (JsonProcessingException e) {
+                    errors++;
+                }
+            }
+        }
+
+        assertEquals(1, errors);
+        assertEquals(loanApplicationId, responses.get(acceptedCorrelationId).getMessage());
+        assertEquals("MerchantNotFoundException", responses.get(rejectedCorrelationId).getType());
+    }
+
+    @Test
+    public void whenARecordFailsUnexpectedly_itShouldReplyWithTheError() throws Exception {
+        given(this.createLoanApplication.executeAll(anyList())).will(invocation -> {
+            List<CreateLoanApplication.CreateLoanApplicationRequest> requests = invocation.getArgument(0);
+            List<CreateLoanApplication.CreateLoanApplicationResult> results = new ArrayList<>();
+            for (CreateLoanApplication.CreateLoanApplicationRequest ignored : requests) {
+                results.add(new CreateLoanApplication.CreateLoanApplicationResult(null, new IllegalStateException("Database unavailable")));
+            }
+            return results;
+        });
+
+        String failedCorrelationId = UUID.randomUUID().toString();
+        String incompleteCorrelationId = UUID.randomUUID().toString();
+        this.kafkaTemplate.send(new ProducerRecord<>(
+            "requests",
+            UUID.randomUUID().toString(),
+            "{\"correlationId\":\"" + failedCorrelationId + "\",\"merchantId\":\"123\",\"productId\":\"123\",\"language\":\"fr\",\"purchaseAmount\":123}"
+        ));
+        this.kafkaTemplate.send(new ProducerRecord<>(
+            "requests",
+            UUID.randomUUID().toString(),
+            "{\"correlationId\":\"" + incompleteCorrelationId + "\",\"productId\":\"123\",\"language\":\"fr\",\"purchaseAmount\":123}"
+        ));
+
+        Map<String, LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse> responses = new HashMap<>();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (responses.size() < 2 && System.currentTimeMillis() < deadline) {
+            for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(this.consumer)) {
+                LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse response =
+                    this.objectMapper.readValue(record.value(), LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse.class);
+                responses.put(response.getCorrelationId(), response);
+            }
+        }
+
+        assertEquals("IllegalStateException", responses.get(failedCorrelationId).getType());
+        assertEquals("NullPointerException", responses.get(incompleteCorrelationId).getType());
+    }
+}
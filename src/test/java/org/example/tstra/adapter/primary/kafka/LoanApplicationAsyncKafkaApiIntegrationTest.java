@@ -6,19 +6,27 @@ import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.test.EmbeddedKafkaBroker;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Stream;
 
@@ -47,6 +55,9 @@ class LoanApplicationAsyncKafkaApiIntegrationTest {
     @MockBean
     private CreateLoanApplication createLoanApplication;
 
+    @MockBean
+    private GetLoanApplication getLoanApplication;
+
     @Autowired
     private EmbeddedKafkaBroker embeddedKafkaBroker;
 
@@ -141,6 +152,48 @@ class LoanApplicationAsyncKafkaApiIntegrationTest {
         assertEquals("MerchantNotFoundException", optionalEvent.map(e -> e.getType()).orElse(""));
     }
 
+    @Test
+    public void whenTheRequestIsBinary_itShouldReplyInBinary() throws Exception {
+        String loanApplicationId = UUID.randomUUID().toString();
+        given(this.createLoanApplication.execute(new CreateLoanApplication.CreateLoanApplicationRequest(
+            "123",
+            "123",
+            "fr",
+            123
+        ))).willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(loanApplicationId));
+
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(UUID.randomUUID().toString(), "true", this.embeddedKafkaBroker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        try (Consumer<String, byte[]> binaryConsumer = new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), new ByteArrayDeserializer()).createConsumer();
+             Producer<String, byte[]> producer = new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(this.embeddedKafkaBroker), new StringSerializer(), new ByteArraySerializer()).createProducer()) {
+            this.embeddedKafkaBroker.consumeFromAnEmbeddedTopic(binaryConsumer, "responses");
+
+            String correlationId = UUID.randomUUID().toString();
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                "requests",
+                UUID.randomUUID().toString(),
+                LoanApplicationKafkaClientCodec.writeRequest(new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest(correlationId, "123", "123", "fr", 123))
+            );
+            record.headers().add(LoanApplicationKafkaCodec.FORMAT_HEADER, LoanApplicationKafkaCodec.BINARY_FORMAT.getBytes(StandardCharsets.US_ASCII));
+            producer.send(record).get();
+
+            Optional<LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse> response = Optional.empty();
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (!response.isPresent() && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<String, byte[]> reply : KafkaTestUtils.getRecords(binaryConsumer)) {
+                    if (LoanApplicationKafkaCodec.isBinary(reply.headers())) {
+                        LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse decoded = LoanApplicationKafkaClientCodec.readResponse(reply.value());
+                        if (correlationId.equals(decoded.getCorrelationId())) {
+                            response = Optional.of(decoded);
+                        }
+                    }
+                }
+            }
+
+            assertEquals(loanApplicationId, response.map(r -> r.getMessage()).orElse(null));
+        }
+    }
+
     private Optional<LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse> findResponseWithCorrelationId(String correlationId, ConsumerRecords<String, String> replies) {
         Optional<LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse> optionalEvent = Optional.empty();
         Iterator<ConsumerRecord<String, String>> it = replies.records("responses").iterator();
@@ -0,0 +1,164 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@SpringBootTest(properties = {
+    "loan-application.rate-limit.enabled=true",
+    "loan-application.rate-limit.requests-per-second=0.001",
+    "loan-application.rate-limit.burst=1",
+    "loan-application.rate-limit.merchants.fast.requests-per-second=2",
+    "loan-application.rate-limit.merchants.fast.burst=1",
+    "loan-application.rate-limit.kafka.max-deferrals=2",
+    "loan-application.rate-limit.kafka.max-deferral=PT1S"
+})
+@EmbeddedKafka(
+    partitions = 1,
+    bootstrapServersProperty = "spring.kafka.bootstrap-servers",
+    topics = {
+        "requests",
+        "requests-deferred",
+        "responses"
+    }
+)
+class LoanApplicationAsyncKafkaApiRateLimitIntegrationTest {
+
+    @MockBean
+    private CreateLoanApplication createLoanApplication;
+
+    @MockBean
+    private GetLoanApplication getLoanApplication;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafkaBroker;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Consumer<String, String> responses;
+    private Consumer<String, String> deferred;
+    private final Map<String, String> types = new HashMap<>();
+
+    @BeforeEach
+    public void before() throws CreateLoanApplication.CreateLoanApplicationException {
+        given(this.createLoanApplication.execute(any())).willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString()));
+        this.responses = this.consumerOf("responses");
+        this.deferred = this.consumerOf("requests-deferred");
+    }
+
+    @Test
+    public void whenTheMerchantGetsATokenBack_itShouldHandleTheDeferredRecord() throws Exception {
+        String acceptedCorrelationId = UUID.randomUUID().toString();
+        String deferredCorrelationId = UUID.randomUUID().toString();
+        long sent = System.currentTimeMillis();
+        this.kafkaTemplate.send(new ProducerRecord<>("requests", UUID.randomUUID().toString(), aRequest(acceptedCorrelationId, "fast")));
+        this.kafkaTemplate.send(new ProducerRecord<>("requests", UUID.randomUUID().toString(), aRequest(deferredCorrelationId, "fast")));
+
+        Map<String, Long> replies = this.awaitReplies(acceptedCorrelationId, deferredCorrelationId);
+
+        assertEquals("success", this.types.get(acceptedCorrelationId));
+        assertEquals("success", this.types.get(deferredCorrelationId));
+        assertTrue(replies.get(deferredCorrelationId) - sent >= 400, "The deferred record should wait for the next token");
+        assertEquals(1, this.deferralsOf(deferredCorrelationId).size());
+    }
+
+    @Test
+    public void whenTheMerchantStaysOverItsRate_itShouldReplyWithAnErrorAfterTheLastDeferral() throws Exception {
+        String merchantId = UUID.randomUUID().toString();
+        String acceptedCorrelationId = UUID.randomUUID().toString();
+        String limitedCorrelationId = UUID.randomUUID().toString();
+        long sent = System.currentTimeMillis();
+        this.kafkaTemplate.send(new ProducerRecord<>("requests", UUID.randomUUID().toString(), aRequest(acceptedCorrelationId, merchantId)));
+        this.kafkaTemplate.send(new ProducerRecord<>("requests", UUID.randomUUID().toString(), aRequest(limitedCorrelationId, merchantId)));
+
+        Map<String, Long> replies = this.awaitReplies(acceptedCorrelationId, limitedCorrelationId);
+
+        assertEquals("success", this.types.get(acceptedCorrelationId));
+        assertEquals("TooManyRequests", this.types.get(limitedCorrelationId));
+        assertTrue(replies.get(limitedCorrelationId) - sent >= 1_800, "Each deferral should wait for the maximum deferral");
+        List<String> attempts = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : this.deferralsOf(limitedCorrelationId)) {
+            attempts.add(new String(record.headers().lastHeader(LoanApplicationAsyncKafkaApi.ATTEMPT_HEADER).value(), StandardCharsets.US_ASCII));
+            assertNotNull(record.headers().lastHeader(LoanApplicationAsyncKafkaApi.NOT_BEFORE_HEADER));
+        }
+        assertEquals(Arrays.asList("1", "2"), attempts);
+    }
+
+    private Map<String, Long> awaitReplies(String... correlationIds) throws Exception {
+        Map<String, Long> receivedAt = new HashMap<>();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (receivedAt.size() < correlationIds.length && System.currentTimeMillis() < deadline) {
+            for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(this.responses, 1_000)) {
+                LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse response =
+                    this.objectMapper.readValue(record.value(), LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse.class);
+                for (String correlationId : correlationIds) {
+                    if (correlationId.equals(response.getCorrelationId())) {
+                        receivedAt.put(correlationId, System.currentTimeMillis());
+                        this.types.put(correlationId, response.getType());
+                    }
+                }
+            }
+        }
+        return receivedAt;
+    }
+
+    private List<ConsumerRecord<String, String>> deferralsOf(String correlationId) {
+        List<ConsumerRecord<String, String>> deferrals = new ArrayList<>();
+        ConsumerRecords<String, String> records;
+        do {
+            records = KafkaTestUtils.getRecords(this.deferred, 1_000);
+            for (ConsumerRecord<String, String> record : records) {
+                Header attempt = record.headers().lastHeader(LoanApplicationAsyncKafkaApi.ATTEMPT_HEADER);
+                if (record.value().contains(correlationId) && attempt != null) {
+                    deferrals.add(record);
+                }
+            }
+        } while (!records.isEmpty());
+        return deferrals;
+    }
+
+    private Consumer<String, String> consumerOf(String topic) {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(UUID.randomUUID().toString(), "true", this.embeddedKafkaBroker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<String, String>(consumerProps).createConsumer();
+        this.embeddedKafkaBroker.consumeFromAnEmbeddedTopic(consumer, topic);
+        return consumer;
+    }
+
+    private static String aRequest(String correlationId, String merchantId) {
+        return "{\"correlationId\":\"" + correlationId + "\",\"merchantId\":\"" + merchantId + "\",\"productId\":\"123\",\"language\":\"fr\",\"purchaseAmount\":123}";
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.tstra.adapter.primary.kafka;
+
+/**
+ * Client side of the binary encoding of {@link LoanApplicationKafkaCodec}: writes requests and reads replies.
+ */
+final class LoanApplicationKafkaClientCodec {
+
+    private LoanApplicationKafkaClientCodec() {
+    }
+
+    static byte[] writeRequest(LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest request) {
+        LoanApplicationKafkaCodec.Writer writer = new LoanApplicationKafkaCodec.Writer();
+        writer.writeString(request.getCorrelationId());
+        writer.writeString(request.getMerchantId());
+        writer.writeString(request.getProductId());
+        writer.writeString(request.getLanguage());
+        writeInt(writer, request.getPurchaseAmount());
+        return writer.toByteArray();
+    }
+
+    private static void writeInt(LoanApplicationKafkaCodec.Writer writer, int value) {
+        writer.writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    static LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse readResponse(byte[] value) throws LoanApplicationKafkaCodec.MalformedMessageException {
+        LoanApplicationKafkaCodec.Reader reader = new LoanApplicationKafkaCodec.Reader(value);
+        reader.readVersion();
+        LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse response = new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse(
+            reader.readString(),
+            reader.readString(),
+            reader.readString()
+        );
+        reader.readEnd();
+        return response;
+    }
+}
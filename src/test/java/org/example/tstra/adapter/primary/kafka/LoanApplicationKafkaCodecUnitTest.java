@@ -0,0 +1,118 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanApplicationKafkaCodecUnitTest {
+
+    private final LoanApplicationKafkaCodec codec = new LoanApplicationKafkaCodec(new ObjectMapper());
+
+    @Test
+    public void itShouldReadBinaryRequests() throws IOException {
+        // given
+        LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest request = new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest(
+            "correlation-\u00e9",
+            "merchant",
+            null,
+            "fr",
+            -40000
+        );
+
+        // when
+        byte[] bytes = LoanApplicationKafkaClientCodec.writeRequest(request);
+
+        // then
+        assertEquals(request, this.codec.readRequest(bytes, true));
+    }
+
+    @Test
+    public void itShouldWriteBinaryResponsesSmallerThanJson() throws IOException {
+        // given
+        LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse response = new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaResponse(
+            "0c4b8b5e-5f3c-4a3d-9f1e-7f3c2a1b0d9e",
+            "success",
+            "01E5Z3Q4N8K2M"
+        );
+
+        // when
+        byte[] binary = this.codec.writeResponse(response, true);
+        byte[] json = this.codec.writeResponse(response, false);
+
+        // then
+        assertEquals(response, LoanApplicationKafkaClientCodec.readResponse(binary));
+        assertTrue(binary.length < json.length);
+    }
+
+    @Test
+    public void itShouldFallBackToJson() throws IOException {
+        // given
+        byte[] json = "{\"correlationId\":\"1\",\"merchantId\":\"2\",\"productId\":\"3\",\"language\":\"fr\",\"purchaseAmount\":4}"
+            .getBytes(StandardCharsets.UTF_8);
+
+        // when
+        LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest request = this.codec.readRequest(json, LoanApplicationKafkaCodec.isBinary(new RecordHeaders()));
+
+        // then
+        assertEquals(new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest("1", "2", "3", "fr", 4), request);
+    }
+
+    @Test
+    public void itShouldRecognizeTheBinaryFormatHeader() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(LoanApplicationKafkaCodec.FORMAT_HEADER, "json".getBytes(StandardCharsets.US_ASCII));
+        assertFalse(LoanApplicationKafkaCodec.isBinary(headers));
+
+        headers.add(LoanApplicationKafkaCodec.FORMAT_HEADER, LoanApplicationKafkaCodec.BINARY_FORMAT.getBytes(StandardCharsets.US_ASCII));
+        assertTrue(LoanApplicationKafkaCodec.isBinary(headers));
+    }
+
+    @Test
+    public void whenTheBinaryRequestIsMalformed_itShouldThrowAnException() {
+        byte[] bytes = LoanApplicationKafkaClientCodec.writeRequest(new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest("1", "2", "3", "fr", 4));
+
+        assertThrows(IOException.class, () -> this.codec.readRequest(null, true));
+        assertThrows(IOException.class, () -> this.codec.readRequest(new byte[0], true));
+        assertThrows(IOException.class, () -> this.codec.readRequest(Arrays.copyOf(bytes, bytes.length - 1), true));
+        assertThrows(IOException.class, () -> this.codec.readRequest(Arrays.copyOf(bytes, bytes.length + 1), true));
+        assertThrows(IOException.class, () -> this.codec.readRequest(new byte[] {2}, true));
+    }
+
+    @Test
+    public void whenAStringLengthOverflows_itShouldThrowAnException() {
+        // given
+        byte[] withNullCorrelationId = LoanApplicationKafkaClientCodec.writeRequest(new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest(null, "2", "3", "fr", 4));
+        byte[] bytes = new byte[withNullCorrelationId.length + 4];
+        bytes[0] = withNullCorrelationId[0];
+        bytes[1] = (byte) 0xFF;
+        bytes[2] = (byte) 0xFF;
+        bytes[3] = (byte) 0xFF;
+        bytes[4] = (byte) 0xFF;
+        bytes[5] = 0x0F;
+        System.arraycopy(withNullCorrelationId, 2, bytes, 6, withNullCorrelationId.length - 2);
+
+        // when // then
+        assertThrows(LoanApplicationKafkaCodec.MalformedMessageException.class, () -> this.codec.readRequest(bytes, true));
+    }
+
+    @Test
+    public void whenAVarintOverflowsAnInt_itShouldThrowAnException() {
+        // given
+        byte[] withZeroPurchaseAmount = LoanApplicationKafkaClientCodec.writeRequest(new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest("1", "2", "3", "fr", 0));
+        byte[] bytes = Arrays.copyOf(withZeroPurchaseAmount, withZeroPurchaseAmount.length + 4);
+        bytes[withZeroPurchaseAmount.length - 1] = (byte) 0xFF;
+        bytes[withZeroPurchaseAmount.length] = (byte) 0xFF;
+        bytes[withZeroPurchaseAmount.length + 1] = (byte) 0xFF;
+        bytes[withZeroPurchaseAmount.length + 2] = (byte) 0xFF;
+        bytes[withZeroPurchaseAmount.length + 3] = 0x1F;
+
+        // when // then
+        assertThrows(LoanApplicationKafkaCodec.MalformedMessageException.class, () -> this.codec.readRequest(bytes, true));
+    }
+}
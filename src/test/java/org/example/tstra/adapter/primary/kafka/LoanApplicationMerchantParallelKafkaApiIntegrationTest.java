@@ -0,0 +1,129 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@SpringBootTest(properties = {
+    "loan-application.kafka.listener-mode=merchant-parallel",
+    "loan-application.kafka.merchant-parallel.workers=4"
+})
+@EmbeddedKafka(
+    partitions = 1,
+    bootstrapServersProperty = "spring.kafka.bootstrap-servers",
+    topics = {
+        "requests",
+        "responses"
+    }
+)
+class LoanApplicationMerchantParallelKafkaApiIntegrationTest {
+
+    @MockBean
+    private CreateLoanApplication createLoanApplication;
+
+    @MockBean
+    private GetLoanApplication getLoanApplication;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafkaBroker;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Consumer<String, String> consumer;
+
+    @BeforeEach
+    public void before() {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(UUID.randomUUID().toString(), "true", this.embeddedKafkaBroker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        this.consumer = new DefaultKafkaConsumerFactory<String, String>(consumerProps).createConsumer();
+        this.embeddedKafkaBroker.consumeFromAnEmbeddedTopic(this.consumer, "responses");
+    }
+
+    @Test
+    public void itShouldHandleTheRequestsOfAMerchantInOrderAndCommitEveryOffset() throws Exception {
+        // given
+        Map<String, List<Integer>> handled = Collections.synchronizedMap(new HashMap<>());
+        given(this.createLoanApplication.execute(any())).will(invocation -> {
+            CreateLoanApplication.CreateLoanApplicationRequest request = invocation.getArgument(0);
+            if ("slow".equals(request.getMerchantId())) {
+                Thread.sleep(20);
+            }
+            handled.computeIfAbsent(request.getMerchantId(), merchantId -> Collections.synchronizedList(new ArrayList<>()))
+                .add(request.getPurchaseAmount());
+            return new CreateLoanApplication.CreateLoanApplicationResponse(UUID.randomUUID().toString());
+        });
+
+        // when
+        int requestsPerMerchant = 20;
+        for (int i = 0; i < requestsPerMerchant; i++) {
+            for (String merchantId : Arrays.asList("slow", "fast-1", "fast-2")) {
+                this.kafkaTemplate.send(new ProducerRecord<>(
+                    "requests",
+                    UUID.randomUUID().toString(),
+                    "{\"correlationId\":\"" + UUID.randomUUID() + "\",\"merchantId\":\"" + merchantId + "\",\"productId\":\"123\",\"language\":\"fr\",\"purchaseAmount\":" + i + "}"
+                ));
+            }
+        }
+        this.kafkaTemplate.send(new ProducerRecord<>("requests", UUID.randomUUID().toString(), "{"));
+        this.kafkaTemplate.flush();
+
+        int replies = 0;
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (replies < 3 * requestsPerMerchant + 1 && System.currentTimeMillis() < deadline) {
+            for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(this.consumer)) {
+                assertNotNull(this.objectMapper.readTree(record.value()).get("type"));
+                replies++;
+            }
+        }
+
+        // then
+        assertEquals(3 * requestsPerMerchant + 1, replies);
+        for (List<Integer> purchaseAmounts : handled.values()) {
+            for (int i = 0; i < requestsPerMerchant; i++) {
+                assertEquals(i, purchaseAmounts.get(i));
+            }
+        }
+
+        TopicPartition partition = new TopicPartition("requests", 0);
+        Map<String, Object> groupProps = KafkaTestUtils.consumerProps("loan-application-app", "false", this.embeddedKafkaBroker);
+        try (Consumer<String, String> group = new DefaultKafkaConsumerFactory<String, String>(groupProps).createConsumer()) {
+            OffsetAndMetadata committed = null;
+            while (System.currentTimeMillis() < deadline) {
+                committed = group.committed(partition);
+                if (committed != null && committed.offset() == 3 * requestsPerMerchant + 1) {
+                    break;
+                }
+                Thread.sleep(50);
+            }
+            assertNotNull(committed);
+            assertEquals(3 * requestsPerMerchant + 1, committed.offset());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class LoanApplicationMerchantParallelKafkaApiUnitTest {
+
+    @Mock
+    private LoanApplicationAsyncKafkaApi api;
+
+    @Mock
+    private LoanApplicationReplyPublisher replyPublisher;
+
+    @Mock
+    private Consumer<?, ?> consumer;
+
+    @Test
+    public void whenASendFailsOnTheListenerThread_itShouldWaitForTheWorkersBeforeFailing() throws Exception {
+        // given
+        ConsumerRecord<String, byte[]> handled = new ConsumerRecord<>("requests", 0, 0, "first", new byte[]{1});
+        ConsumerRecord<String, byte[]> malformed = new ConsumerRecord<>("requests", 0, 1, "second", new byte[]{2});
+        LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest request =
+            new LoanApplicationAsyncKafkaApi.CreateLoanApplicationKafkaRequest("correlation", "merchant", "product", "fr", 1000);
+        byte[] reply = new byte[]{3};
+        byte[] malformedReply = new byte[]{4};
+        AtomicBoolean workerDone = new AtomicBoolean();
+        given(this.api.read(any(), eq(false))).will(invocation -> {
+            if (invocation.getArgument(0) == malformed) {
+                throw new IOException("malformed");
+            }
+            return request;
+        });
+        given(this.api.malformed(false)).willReturn(malformedReply);
+        given(this.api.handle(request, false)).will(invocation -> {
+            Thread.sleep(200);
+            workerDone.set(true);
+            return reply;
+        });
+        given(this.replyPublisher.send(any(), eq(false))).will(invocation -> {
+            if (invocation.getArgument(0) == malformedReply) {
+                throw new IllegalStateException("buffer exhausted");
+            }
+            return new SettableListenableFuture<SendResult<String, byte[]>>();
+        });
+        LoanApplicationMerchantParallelKafkaApi parallelApi = new LoanApplicationMerchantParallelKafkaApi(this.api, this.replyPublisher, 2);
+
+        // when
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> parallelApi.handleEvents(Arrays.asList(handled, malformed), this.consumer));
+
+        // then
+        assertEquals("buffer exhausted", error.getMessage());
+        assertTrue(workerDone.get());
+        verifyZeroInteractions(this.consumer);
+
+        parallelApi.destroy();
+    }
+}
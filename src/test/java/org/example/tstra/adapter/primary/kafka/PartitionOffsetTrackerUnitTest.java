@@ -0,0 +1,65 @@
+package org.example.tstra.adapter.primary.kafka;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PartitionOffsetTrackerUnitTest {
+
+    private final TopicPartition first = new TopicPartition("requests", 0);
+    private final TopicPartition second = new TopicPartition("requests", 1);
+
+    @Test
+    public void itShouldOnlyCommitBelowTheLowestOffsetInFlight() {
+        // given
+        PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+        for (long offset = 10; offset < 15; offset++) {
+            tracker.track(this.first, offset);
+        }
+
+        // when
+        tracker.complete(this.first, 10);
+        tracker.complete(this.first, 12);
+        tracker.complete(this.first, 13);
+
+        // then
+        assertEquals(Collections.singletonMap(this.first, new OffsetAndMetadata(11)), tracker.committableOffsets());
+        assertEquals(2, tracker.inFlight());
+
+        // when
+        tracker.complete(this.first, 11);
+
+        // then
+        assertEquals(Collections.singletonMap(this.first, new OffsetAndMetadata(14)), tracker.committableOffsets());
+
+        // when
+        tracker.complete(this.first, 14);
+
+        // then
+        assertEquals(Collections.singletonMap(this.first, new OffsetAndMetadata(15)), tracker.committableOffsets());
+        assertEquals(0, tracker.inFlight());
+    }
+
+    @Test
+    public void itShouldTrackPartitionsIndependentlyAndOnlyReportProgress() {
+        // given
+        PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+        tracker.track(this.first, 0);
+        tracker.track(this.second, 0);
+        tracker.track(this.second, 1);
+        tracker.committableOffsets();
+
+        // when
+        tracker.complete(this.second, 0);
+        tracker.complete(this.second, 0);
+
+        // then
+        assertEquals(Collections.singletonMap(this.second, new OffsetAndMetadata(1)), tracker.committableOffsets());
+        assertEquals(Collections.emptyMap(), tracker.committableOffsets());
+        assertEquals(2, tracker.inFlight());
+    }
+}
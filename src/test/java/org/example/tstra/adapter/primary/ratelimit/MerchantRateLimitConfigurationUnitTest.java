@@ -0,0 +1,56 @@
+package org.example.tstra.adapter.primary.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.validation.BindValidationException;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MerchantRateLimitConfigurationUnitTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withUserConfiguration(MerchantRateLimitConfiguration.class)
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+        .withPropertyValues(
+            "loan-application.rate-limit.enabled=true",
+            "loan-application.rate-limit.requests-per-second=50",
+            "loan-application.rate-limit.burst=5"
+        );
+
+    @Test
+    public void whenAMerchantOnlyOverridesTheRate_itShouldInheritTheBurst() {
+        this.contextRunner
+            .withPropertyValues("loan-application.rate-limit.merchants.123.requests-per-second=0.001")
+            .run(context -> {
+                // given
+                MerchantRateLimiter limiter = context.getBean(MerchantRateLimiter.class);
+
+                // when
+                for (int i = 0; i < 5; i++) {
+                    assertEquals(0, limiter.tryAcquire("123"));
+                }
+                long delay = limiter.tryAcquire("123");
+
+                // then
+                assertTrue(delay > 0);
+            });
+    }
+
+    @Test
+    public void whenALimitIsNotPositive_itShouldFailToStart() {
+        this.contextRunner
+            .withPropertyValues("loan-application.rate-limit.merchants.123.burst=0")
+            .run(context -> {
+                Throwable failure = context.getStartupFailure();
+                assertNotNull(failure);
+                while (failure != null && !(failure instanceof BindValidationException)) {
+                    failure = failure.getCause();
+                }
+                assertNotNull(failure);
+            });
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.tstra.adapter.primary.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MerchantRateLimiterUnitTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final MerchantRateLimiter limiter = new MerchantRateLimiter(
+        new MerchantRateLimiter.Limit(10, 3),
+        Collections.singletonMap("big", new MerchantRateLimiter.Limit(1000, 100)),
+        100,
+        this.now::get
+    );
+
+    @Test
+    public void itShouldLetABurstThroughThenLimitToTheRate() {
+        // when
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, this.limiter.tryAcquire("123"));
+        }
+        long delay = this.limiter.tryAcquire("123");
+
+        // then
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), delay);
+        assertEquals(1, this.limiter.limitedCount());
+    }
+
+    @Test
+    public void itShouldGiveATokenBackPerEmissionInterval() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            this.limiter.tryAcquire("123");
+        }
+
+        // when
+        this.now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // then
+        assertEquals(0, this.limiter.tryAcquire("123"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), this.limiter.tryAcquire("123"));
+    }
+
+    @Test
+    public void itShouldLimitEachMerchantOnItsOwn() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            this.limiter.tryAcquire("123");
+        }
+
+        // when
+        long delay = this.limiter.tryAcquire("456");
+
+        // then
+        assertEquals(0, delay);
+    }
+
+    @Test
+    public void itShouldApplyTheLimitOfTheMerchant() {
+        // when
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, this.limiter.tryAcquire("big"));
+        }
+
+        // then
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), this.limiter.tryAcquire("big"));
+    }
+
+    @Test
+    public void itShouldForgetMerchantsOnceTheirBucketIsFull() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            this.limiter.tryAcquire("123");
+        }
+
+        // when
+        this.now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        this.limiter.tryAcquire("456");
+
+        // then
+        assertEquals(1, this.limiter.trackedMerchants());
+    }
+
+    @Test
+    public void itShouldRejectNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new MerchantRateLimiter.Limit(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MerchantRateLimiter.Limit(1, 0));
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.tstra.adapter.primary.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterUnitTest {
+
+    private final GradientConcurrencyLimit limit = new GradientConcurrencyLimit(1, 1, 10, 10);
+    private final Counter shed = new SimpleMeterRegistry().counter("shed");
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(this.limit, new ObjectMapper(), Duration.ofSeconds(2), this.shed);
+
+    @Test
+    public void whenUnderTheLimit_itShouldLetTheRequestThroughAndReleaseItsSlot() throws Exception {
+        // given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/loan-applications"), response, chain);
+
+        // then
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, this.limit.inFlight());
+    }
+
+    @Test
+    public void whenTheLimitIsReached_itShouldRejectTheRequestRightAway() throws Exception {
+        // given
+        this.limit.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/loan-applications"), response, chain);
+
+        // then
+        assertNull(chain.getRequest());
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"type\":\"TooManyRequests\""));
+        assertEquals(1, this.shed.count());
+    }
+
+    @Test
+    public void whenTheRequestIsAnExport_itShouldLetItThroughWithoutTakingASlot() throws Exception {
+        // given
+        this.limit.tryAcquire();
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/loan-applications/export"), new MockHttpServletResponse(), chain);
+
+        // then
+        assertNotNull(chain.getRequest());
+        assertEquals(1, this.limit.inFlight());
+        assertEquals(0, this.shed.count());
+    }
+
+    @Test
+    public void whenTheRequestIsAsynchronous_itShouldHoldItsSlotUntilTheResponseIsComplete() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/loan-applications/async");
+        request.setAsyncSupported(true);
+        FilterChain chain = (req, res) -> req.startAsync();
+
+        // when
+        this.filter.doFilter(request, new MockHttpServletResponse(), chain);
+        int inFlightWhileRunning = this.limit.inFlight();
+        request.getAsyncContext().complete();
+
+        // then
+        assertEquals(1, inFlightWhileRunning);
+        assertEquals(0, this.limit.inFlight());
+    }
+
+    @Test
+    public void whenTheRequestFails_itShouldReleaseItsSlot() {
+        // given
+        FilterChain chain = (req, res) -> {
+            throw new IllegalStateException();
+        };
+
+        // when
+        assertThrows(IllegalStateException.class, () -> this.filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/loan-applications"), new MockHttpServletResponse(), chain));
+
+        // then
+        assertEquals(0, this.limit.inFlight());
+    }
+}
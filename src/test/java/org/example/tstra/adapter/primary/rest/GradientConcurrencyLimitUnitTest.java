@@ -0,0 +1,112 @@
+package org.example.tstra.adapter.primary.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimitUnitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void whenTheLimitIsReached_itShouldRejectRequests() {
+        // given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 1, 10, 10);
+
+        // when
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, limit.inFlight());
+    }
+
+    @Test
+    public void whenARequestIsReleased_itShouldFreeItsSlot() {
+        // given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(1, 1, 10, 10);
+        limit.tryAcquire();
+
+        // when
+        limit.release(RTT);
+
+        // then
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void whenTheLatencyIsSteadyUnderLoad_itShouldRaiseTheLimit() {
+        // given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 10);
+
+        // when
+        this.runRounds(limit, 20, RTT);
+
+        // then
+        assertTrue(limit.limit() > 10);
+    }
+
+    @Test
+    public void whenTheLatencyRises_itShouldLowerTheLimit() {
+        // given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 1, 100, 10);
+        this.runRounds(limit, 5, RTT);
+        int before = limit.limit();
+
+        // when
+        this.runRounds(limit, 10, RTT * 10);
+
+        // then
+        assertTrue(limit.limit() < before);
+    }
+
+    @Test
+    public void itShouldKeepTheLimitWithinItsBounds() {
+        // given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 5, 12, 10);
+
+        // when
+        this.runRounds(limit, 50, RTT);
+        int raised = limit.limit();
+        this.runRounds(limit, 50, RTT * 100);
+        int lowered = limit.limit();
+
+        // then
+        assertEquals(12, raised);
+        assertEquals(5, lowered);
+    }
+
+    @Test
+    public void whenTheRequestsInFlightStayFarBelowTheLimit_itShouldKeepTheLimit() {
+        // given
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 100, 10);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(RTT);
+        }
+
+        // then
+        assertEquals(10, limit.limit());
+    }
+
+    // Fills the limit, then completes every request with the given latency
+    private void runRounds(GradientConcurrencyLimit limit, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos);
+            }
+        }
+    }
+}
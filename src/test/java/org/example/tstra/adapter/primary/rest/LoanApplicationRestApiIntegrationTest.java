@@ -1,6 +1,13 @@
 package org.example.tstra.adapter.primary.rest;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.tstra.adapter.primary.metrics.AdapterMetrics;
+import org.example.tstra.adapter.secondary.metrics.RollingLoanApplicationAggregates;
 import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.example.tstra.domain.Language;
+import org.example.tstra.domain.LoanApplication;
+import org.example.tstra.domain.PositiveAmount;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
@@ -8,14 +15,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.AsyncListener;
 
 import java.util.Arrays;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,6 +53,15 @@ public class LoanApplicationRestApiIntegrationTest {
     @MockBean
     private CreateLoanApplication createLoanApplication;
 
+    @MockBean
+    private GetLoanApplication getLoanApplication;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RollingLoanApplicationAggregates aggregates;
+
     @Test
     public void itShouldCreateALoanApplication() throws Exception {
         String loanApplicationId = UUID.randomUUID().toString();
@@ -58,6 +90,46 @@ public class LoanApplicationRestApiIntegrationTest {
         .andExpect(status().isCreated());
     }
 
+    @Test
+    public void whenTheRequestIsRetriedWithTheSameIdempotencyKey_itShouldCreateTheLoanApplicationOnce() throws Exception {
+        String loanApplicationId = UUID.randomUUID().toString();
+        CreateLoanApplication.CreateLoanApplicationRequest request = new CreateLoanApplication.CreateLoanApplicationRequest(
+            "123",
+            "123",
+            "fr",
+            4000
+        );
+        given(this.createLoanApplication.execute(request)).willReturn(new CreateLoanApplication.CreateLoanApplicationResponse(loanApplicationId));
+
+        String idempotencyKey = UUID.randomUUID().toString();
+        String requestBody = "{\"productId\": \"123\", \"language\": \"fr\", \"purchaseAmount\": 4000 }";
+        String expectedResponseBody = String.format("{\"loanApplicationId\": \"%s\"}", loanApplicationId);
+
+        for (int i = 0; i < 2; i++) {
+            this.mockMvc.perform(
+                post("/api/v1/loan-applications")
+                    .header("X-Custom-MerchantId", "123")
+                    .header("Idempotency-Key", idempotencyKey)
+                    .contentType("application/json")
+                    .content(requestBody)
+            ).andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(content().json(expectedResponseBody));
+        }
+
+        this.mockMvc.perform(
+            post("/api/v1/loan-applications")
+                .header("X-Custom-MerchantId", "123")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType("application/json")
+                .content("{\"productId\": \"123\", \"language\": \"en\", \"purchaseAmount\": 4000 }")
+        ).andDo(print())
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(content().json("{\"type\": \"IdempotencyKeyConflictException\"}"));
+
+        verify(this.createLoanApplication, times(1)).execute(request);
+    }
+
     @Test
     public void whenCreateLoanApplicationUseCaseFails_itShouldMapTheError() throws Exception {
         String merchantId = "123";
@@ -83,6 +155,41 @@ public class LoanApplicationRestApiIntegrationTest {
             .andExpect(content().json("{\"type\": \"MerchantNotFoundException \"}"));
     }
 
+    @Test
+    public void itShouldTimeRequestsByOutcome() throws Exception {
+        given(this.createLoanApplication.execute(new CreateLoanApplication.CreateLoanApplicationRequest(
+            "123",
+            "timed",
+            "fr",
+            4000
+        ))).willThrow(new CreateLoanApplication.PurchaseAmountOutOfRange());
+        long before = this.rejectedRequests();
+
+        this.mockMvc.perform(
+            post("/api/v1/loan-applications")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content("{\"productId\": \"timed\", \"language\": \"fr\", \"purchaseAmount\": 4000 }")
+        ).andExpect(status().isBadRequest());
+
+        assertEquals(before + 1, this.rejectedRequests());
+    }
+
+    private long rejectedRequests() {
+        return this.timedRequests("create", "PurchaseAmountOutOfRange");
+    }
+
+    private long timedRequests(String operation, String outcome) {
+        return this.meterRegistry.find(AdapterMetrics.DURATION)
+            .tag("adapter", "rest")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .timers()
+            .stream()
+            .mapToLong(timer -> timer.count())
+            .sum();
+    }
+
     @Test
     public void whenUnplannedExceptionIsThrown_itShouldResponseProperly() throws Exception {
         String merchantId = "123";
@@ -108,6 +215,251 @@ public class LoanApplicationRestApiIntegrationTest {
         .andExpect(content().json("{\"type\": \"RuntimeException\"}"));
     }
 
+    @Test
+    public void itShouldCreateALoanApplicationAsynchronously() throws Exception {
+        String loanApplicationId = UUID.randomUUID().toString();
+
+        given(this.createLoanApplication.executeAsync(eq(new CreateLoanApplication.CreateLoanApplicationRequest(
+            "123",
+            "456",
+            "fr",
+            4000
+        )), any())).willReturn(CompletableFuture.completedFuture(new CreateLoanApplication.CreateLoanApplicationResponse(loanApplicationId)));
+
+        MvcResult result = this.mockMvc.perform(
+            post("/api/v1/loan-applications/async")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content("{\"productId\": \"456\", \"language\": \"fr\", \"purchaseAmount\": 4000 }")
+        ).andExpect(request().asyncStarted())
+        .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+            .andDo(print())
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Location", "/api/v1/loan-applications/" + loanApplicationId))
+            .andExpect(content().json(String.format("{\"loanApplicationId\": \"%s\", \"authenticationUrl\": \"www.djf.com\"}", loanApplicationId)));
+    }
+
+    @Test
+    public void whenTheAsynchronousUseCaseFails_itShouldMapTheError() throws Exception {
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new CompletionException(new CreateLoanApplication.ProductNotFoundException()));
+        given(this.createLoanApplication.executeAsync(any(), any())).willReturn(failed);
+
+        MvcResult result = this.mockMvc.perform(
+            post("/api/v1/loan-applications/async")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content("{\"productId\": \"456\", \"language\": \"fr\", \"purchaseAmount\": 4000 }")
+        ).andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(content().json("{\"type\": \"ProductNotFoundException\"}"));
+    }
+
+    @Test
+    public void whenTheAsynchronousUseCaseTimesOut_itShouldReturnAnError() throws Exception {
+        given(this.createLoanApplication.executeAsync(any(), any())).willReturn(new CompletableFuture<>());
+
+        MvcResult result = this.mockMvc.perform(
+            post("/api/v1/loan-applications/async")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content("{\"productId\": \"456\", \"language\": \"fr\", \"purchaseAmount\": 4000 }")
+        ).andExpect(request().asyncStarted())
+        .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(null);
+        }
+
+        this.mockMvc.perform(asyncDispatch(result))
+            .andDo(print())
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(content().json("{\"type\": \"Timeout\"}"));
+    }
+
+    @Test
+    public void whenTheAsynchronousExecutorIsFull_itShouldReturnAnError() throws Exception {
+        given(this.createLoanApplication.executeAsync(any(), any())).willThrow(new RejectedExecutionException());
+
+        MvcResult result = this.mockMvc.perform(
+            post("/api/v1/loan-applications/async")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content("{\"productId\": \"456\", \"language\": \"fr\", \"purchaseAmount\": 4000 }")
+        ).andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+            .andDo(print())
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(content().json("{\"type\": \"Overloaded\"}"));
+    }
+
+    @Test
+    public void itShouldCreateLoanApplicationsInBulk() throws Exception {
+        String loanApplicationId = UUID.randomUUID().toString();
+
+        given(this.createLoanApplication.executeAll(Arrays.asList(
+            new CreateLoanApplication.CreateLoanApplicationRequest("123", "456", "fr", 4000),
+            new CreateLoanApplication.CreateLoanApplicationRequest("123", "789", "en", 4000)
+        ))).willReturn(Arrays.asList(
+            new CreateLoanApplication.CreateLoanApplicationResult(new CreateLoanApplication.CreateLoanApplicationResponse(loanApplicationId), null),
+            new CreateLoanApplication.CreateLoanApplicationResult(null, new CreateLoanApplication.ProductNotFoundException())
+        ));
+
+        String requestBody = "{\"items\": [" +
+            "{\"productId\": \"456\", \"language\": \"fr\", \"purchaseAmount\": 4000 }," +
+            "{\"productId\": \"789\", \"language\": \"en\", \"purchaseAmount\": 4000 }" +
+            "]}";
+        String expectedResponseBody = String.format("{\"results\": [" +
+            "{\"created\": {\"loanApplicationId\": \"%s\", \"authenticationUrl\": \"www.djf.com\"}}," +
+            "{\"error\": {\"type\": \"ProductNotFoundException\"}}" +
+            "]}", loanApplicationId);
+
+        this.mockMvc.perform(
+            post("/api/v1/loan-applications/bulk")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content(requestBody)
+        ).andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().json(expectedResponseBody));
+    }
+
+    @Test
+    public void whenTheBulkRequestIsTooLarge_itShouldReturnAnError() throws Exception {
+        String item = "{\"productId\": \"456\", \"language\": \"fr\", \"purchaseAmount\": 4000 }";
+        String requestBody = IntStream.rangeClosed(0, LoanApplicationRestApi.DEFAULT_BULK_MAX_SIZE)
+            .mapToObj(i -> item)
+            .collect(Collectors.joining(",", "{\"items\": [", "]}"));
+        long before = this.timedRequests("bulk", "BulkTooLarge");
+
+        this.mockMvc.perform(
+            post("/api/v1/loan-applications/bulk")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content(requestBody)
+        ).andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(content().json("{\"type\": \"BulkTooLarge\"}"));
+
+        assertEquals(before + 1, this.timedRequests("bulk", "BulkTooLarge"));
+
+        verify(this.createLoanApplication, never()).executeAll(anyList());
+    }
+
+    @Test
+    public void whenABulkItemDoesNotHaveAValidSchema_itShouldReturnAnError() throws Exception {
+        this.mockMvc.perform(
+            post("/api/v1/loan-applications/bulk")
+                .header("X-Custom-MerchantId", "123")
+                .contentType("application/json")
+                .content("{\"items\": [{ \"productId\": \"456\" }]}")
+        ).andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(content().json("{\"type\": \"MethodArgumentNotValidException\"}"));
+
+        verify(this.createLoanApplication, never()).executeAll(anyList());
+    }
+
+    @Test
+    public void itShouldGetALoanApplicationWithItsETag() throws Exception {
+        String loanApplicationId = UUID.randomUUID().toString();
+        given(this.getLoanApplication.execute("123", loanApplicationId))
+            .willReturn(new GetLoanApplication.GetLoanApplicationResponse(loanApplicationId, "123", "456", "fr", 4000));
+
+        this.mockMvc.perform(
+            get("/api/v1/loan-applications/" + loanApplicationId)
+                .header("X-Custom-MerchantId", "123")
+        ).andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"v1-" + loanApplicationId + "\""))
+            .andExpect(content().json(String.format(
+                "{\"loanApplicationId\": \"%s\", \"productId\": \"456\", \"language\": \"fr\", \"purchaseAmount\": 4000}",
+                loanApplicationId
+            )));
+    }
+
+    @Test
+    public void whenTheLoanApplicationMatchesIfNoneMatch_itShouldReturnNotModified() throws Exception {
+        String loanApplicationId = UUID.randomUUID().toString();
+        given(this.getLoanApplication.execute("123", loanApplicationId))
+            .willReturn(new GetLoanApplication.GetLoanApplicationResponse(loanApplicationId, "123", "456", "fr", 4000));
+
+        this.mockMvc.perform(
+            get("/api/v1/loan-applications/" + loanApplicationId)
+                .header("X-Custom-MerchantId", "123")
+                .header("If-None-Match", "\"v1-" + loanApplicationId + "\"")
+        ).andDo(print())
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"v1-" + loanApplicationId + "\""))
+            .andExpect(content().string(""));
+
+        this.mockMvc.perform(
+            get("/api/v1/loan-applications/" + loanApplicationId)
+                .header("X-Custom-MerchantId", "123")
+                .header("If-None-Match", "\"v0-" + loanApplicationId + "\"")
+        ).andDo(print())
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void whenTheLoanApplicationIsNotFound_itShouldReturnNotFound() throws Exception {
+        given(this.getLoanApplication.execute("123", "unknown")).willThrow(new GetLoanApplication.LoanApplicationNotFoundException());
+
+        this.mockMvc.perform(
+            get("/api/v1/loan-applications/unknown")
+                .header("X-Custom-MerchantId", "123")
+        ).andDo(print())
+            .andExpect(status().isNotFound())
+            .andExpect(header().doesNotExist("ETag"))
+            .andExpect(content().json("{\"type\": \"LoanApplicationNotFoundException\"}"));
+    }
+
+    @Test
+    public void itShouldExportTheLoanApplicationsOfTheMerchantAsNdjson() throws Exception {
+        given(this.getLoanApplication.stream("123", "0")).willReturn(Stream.of(
+            new GetLoanApplication.GetLoanApplicationResponse("1", "123", "456", "fr", 4000),
+            new GetLoanApplication.GetLoanApplicationResponse("2", "123", "789", "nl", 125)
+        ));
+
+        this.mockMvc.perform(
+            get("/api/v1/loan-applications/export")
+                .header("X-Custom-MerchantId", "123")
+                .param("after", "0")
+        ).andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(
+                "{\"loanApplicationId\":\"1\",\"productId\":\"456\",\"language\":\"fr\",\"purchaseAmount\":4000}\n"
+                    + "{\"loanApplicationId\":\"2\",\"productId\":\"789\",\"language\":\"nl\",\"purchaseAmount\":125}\n"
+            ));
+    }
+
+    @Test
+    public void itShouldServeTheRollingAggregatesOfAProduct() throws Exception {
+        String merchantId = UUID.randomUUID().toString();
+        this.aggregates.accepted(new LoanApplication(UUID.randomUUID().toString(), merchantId, "456", Language.FR, PositiveAmount.of(4000)));
+        this.aggregates.rejected(
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, "456", "fr", 1),
+            new CreateLoanApplication.PurchaseAmountOutOfRange()
+        );
+
+        this.mockMvc.perform(
+            get("/api/v1/aggregates/merchants/{merchantId}/products/{productId}", merchantId, "456")
+        ).andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"merchantId\": \"" + merchantId + "\", \"productId\": \"456\", \"windows\": {"
+                + "\"1m\": {\"accepted\": 1, \"rejected\": 1, \"acceptanceRatio\": 0.5, \"purchaseAmountSum\": 4000},"
+                + "\"1h\": {\"accepted\": 1, \"rejected\": 1, \"acceptanceRatio\": 0.5, \"purchaseAmountSum\": 4000},"
+                + "\"24h\": {\"accepted\": 1, \"rejected\": 1, \"acceptanceRatio\": 0.5, \"purchaseAmountSum\": 4000}"
+                + "}}"));
+    }
+
     @TestFactory
     public Stream<DynamicTest> whenRequestBodyDoesNotHaveAValidSchema_itShouldReturnAnError() throws Exception {
         return Arrays.asList(
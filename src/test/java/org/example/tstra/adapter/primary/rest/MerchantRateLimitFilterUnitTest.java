@@ -0,0 +1,94 @@
+package org.example.tstra.adapter.primary.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.tstra.adapter.primary.ratelimit.MerchantRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerchantRateLimitFilterUnitTest {
+
+    private final MerchantRateLimiter limiter = new MerchantRateLimiter(new MerchantRateLimiter.Limit(0.1, 1), Collections.emptyMap(), 100);
+    private final MerchantRateLimitFilter filter = new MerchantRateLimitFilter(this.limiter, new ObjectMapper());
+
+    @Test
+    public void whenTheMerchantIsUnderItsLimit_itShouldLetTheRequestThrough() throws Exception {
+        // given
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(aRequest("123"), new MockHttpServletResponse(), chain);
+
+        // then
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void whenTheMerchantIsOverItsLimit_itShouldRejectTheRequestRightAway() throws Exception {
+        // given
+        this.filter.doFilter(aRequest("123"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(aRequest("123"), response, chain);
+
+        // then
+        assertNull(chain.getRequest());
+        assertEquals(429, response.getStatus());
+        assertEquals("10", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"type\":\"TooManyRequests\""));
+    }
+
+    @Test
+    public void whenAnotherMerchantIsOverItsLimit_itShouldLetTheRequestThrough() throws Exception {
+        // given
+        this.filter.doFilter(aRequest("123"), new MockHttpServletResponse(), new MockFilterChain());
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(aRequest("456"), new MockHttpServletResponse(), chain);
+
+        // then
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void whenTheRequestHasNoMerchant_itShouldLetItThrough() throws Exception {
+        // given
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/loan-applications"), new MockHttpServletResponse(), chain);
+
+        // then
+        assertNotNull(chain.getRequest());
+        assertEquals(0, this.limiter.trackedMerchants());
+    }
+
+    @Test
+    public void whenTheRequestIsARead_itShouldNotSpendTheBudget() throws Exception {
+        // given
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/v1/loan-applications/1");
+        read.addHeader("X-Custom-MerchantId", "123");
+        this.filter.doFilter(read, new MockHttpServletResponse(), new MockFilterChain());
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        this.filter.doFilter(aRequest("123"), new MockHttpServletResponse(), chain);
+
+        // then
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest aRequest(String merchantId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/loan-applications");
+        request.addHeader("X-Custom-MerchantId", merchantId);
+        return request;
+    }
+}
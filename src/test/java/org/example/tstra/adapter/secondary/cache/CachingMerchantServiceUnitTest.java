@@ -0,0 +1,108 @@
+package org.example.tstra.adapter.secondary.cache;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.tstra.domain.builders.MerchantBuilder.aMerchant;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CachingMerchantServiceUnitTest {
+
+    @Mock
+    private CreateLoanApplication.MerchantService delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private CachingMerchantService merchantService;
+
+    @BeforeEach
+    public void before() {
+        this.merchantService = new CachingMerchantService(
+            this.delegate,
+            100,
+            Duration.ofMinutes(10),
+            Duration.ofMinutes(5),
+            Duration.ofSeconds(30),
+            Runnable::run,
+            this.nanos::get
+        );
+    }
+
+    @Test
+    public void itShouldOnlyCallTheDelegateOnce() throws CreateLoanApplication.MerchantNotFoundException {
+        // given
+        final Merchant merchant = aMerchant();
+        given(this.delegate.findMerchantId(merchant.getMerchantId())).willReturn(merchant);
+
+        // when
+        this.merchantService.findMerchantId(merchant.getMerchantId());
+        Merchant result = this.merchantService.findMerchantId(merchant.getMerchantId());
+
+        // then
+        assertEquals(merchant, result);
+        verify(this.delegate, times(1)).findMerchantId(merchant.getMerchantId());
+        assertEquals(1, this.merchantService.getStatistics().getHitCount());
+        assertEquals(1, this.merchantService.getStatistics().getMissCount());
+    }
+
+    @Test
+    public void whenTheMerchantDoesNotExist_itShouldCacheTheFailureForTheNegativeTimeToLive() throws CreateLoanApplication.MerchantNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        given(this.delegate.findMerchantId(merchantId)).willThrow(CreateLoanApplication.MerchantNotFoundException.class);
+
+        // when // then
+        assertThrows(CreateLoanApplication.MerchantNotFoundException.class, () -> this.merchantService.findMerchantId(merchantId));
+        assertThrows(CreateLoanApplication.MerchantNotFoundException.class, () -> this.merchantService.findMerchantId(merchantId));
+        verify(this.delegate, times(1)).findMerchantId(merchantId);
+
+        this.nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertThrows(CreateLoanApplication.MerchantNotFoundException.class, () -> this.merchantService.findMerchantId(merchantId));
+        verify(this.delegate, times(2)).findMerchantId(merchantId);
+    }
+
+    @Test
+    public void whenTheEntryIsOlderThanTheRefreshDelay_itShouldReloadIt() throws CreateLoanApplication.MerchantNotFoundException {
+        // given
+        final Merchant merchant = aMerchant();
+        final Merchant updatedMerchant = merchant.withMinLoanAmount(merchant.getMaxLoanAmount());
+        given(this.delegate.findMerchantId(merchant.getMerchantId())).willReturn(merchant, updatedMerchant);
+        this.merchantService.findMerchantId(merchant.getMerchantId());
+
+        // when
+        this.nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+        Merchant stale = this.merchantService.findMerchantId(merchant.getMerchantId());
+        Merchant refreshed = this.merchantService.findMerchantId(merchant.getMerchantId());
+
+        // then
+        assertEquals(merchant, stale);
+        assertEquals(updatedMerchant, refreshed);
+    }
+
+    @Test
+    public void whenTheCacheIsFull_itShouldEvictEntries() throws CreateLoanApplication.MerchantNotFoundException {
+        for (int i = 0; i < 200; i++) {
+            final Merchant merchant = aMerchant();
+            given(this.delegate.findMerchantId(merchant.getMerchantId())).willReturn(merchant);
+            this.merchantService.findMerchantId(merchant.getMerchantId());
+        }
+
+        CachingMerchantService.Statistics statistics = this.merchantService.getStatistics();
+        assertTrue(statistics.getEvictionCount() >= 100);
+        assertTrue(statistics.getEstimatedSize() <= 100);
+    }
+}
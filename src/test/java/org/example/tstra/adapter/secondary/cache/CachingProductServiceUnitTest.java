@@ -0,0 +1,126 @@
+package org.example.tstra.adapter.secondary.cache;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.example.tstra.domain.builders.ProductBuilder.aProduct;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CachingProductServiceUnitTest {
+
+    @Mock
+    private CreateLoanApplication.ProductService delegate;
+
+    @Test
+    public void itShouldOnlyCallTheDelegateOnce() throws CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Product product = aProduct();
+        given(this.delegate.findProductId(merchantId, product.getProductId())).willReturn(product);
+        CachingProductService productService = new CachingProductService(this.delegate, 1024 * 1024);
+
+        // when
+        productService.findProductId(merchantId, product.getProductId());
+        Product result = productService.findProductId(merchantId, product.getProductId());
+
+        // then
+        assertEquals(product, result);
+        verify(this.delegate, times(1)).findProductId(merchantId, product.getProductId());
+    }
+
+    @Test
+    public void whenAMerchantIsInvalidated_itShouldReloadAllItsProducts() throws CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final String otherMerchantId = UUID.randomUUID().toString();
+        final Product product = aProduct();
+        final Product otherProduct = aProduct();
+        given(this.delegate.findProductId(anyString(), anyString())).will(invocation -> aProduct().withProductId(invocation.getArgument(1)));
+        CachingProductService productService = new CachingProductService(this.delegate, 1024 * 1024);
+        productService.findProductId(merchantId, product.getProductId());
+        productService.findProductId(merchantId, otherProduct.getProductId());
+        productService.findProductId(otherMerchantId, product.getProductId());
+
+        // when
+        productService.invalidateMerchant(merchantId);
+        productService.findProductId(merchantId, product.getProductId());
+        productService.findProductId(merchantId, otherProduct.getProductId());
+        productService.findProductId(otherMerchantId, product.getProductId());
+
+        // then
+        verify(this.delegate, times(2)).findProductId(merchantId, product.getProductId());
+        verify(this.delegate, times(2)).findProductId(merchantId, otherProduct.getProductId());
+        verify(this.delegate, times(1)).findProductId(otherMerchantId, product.getProductId());
+        assertEquals(3, productService.getSize());
+    }
+
+    @Test
+    public void whenAProductIsInvalidatedWhileLoading_itShouldNotCacheTheStaleProduct() throws CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Product product = aProduct();
+        CachingProductService productService = new CachingProductService(this.delegate, 1024 * 1024);
+        given(this.delegate.findProductId(merchantId, product.getProductId())).will(invocation -> {
+            productService.invalidate(merchantId, product.getProductId());
+            return product;
+        }).willReturn(product);
+
+        // when
+        productService.findProductId(merchantId, product.getProductId());
+        productService.findProductId(merchantId, product.getProductId());
+        productService.findProductId(merchantId, product.getProductId());
+
+        // then
+        verify(this.delegate, times(2)).findProductId(merchantId, product.getProductId());
+        assertEquals(1, productService.getSize());
+        assertEquals(CachingProductService.weigh(product.getProductId()), productService.getWeightInBytes());
+    }
+
+    @Test
+    public void whenTheBudgetIsExceeded_itShouldEvictTheOldestProducts() throws CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final long budget = 10 * CachingProductService.weigh(UUID.randomUUID().toString());
+        given(this.delegate.findProductId(eq(merchantId), anyString())).will(invocation -> aProduct().withProductId(invocation.getArgument(1)));
+        CachingProductService productService = new CachingProductService(this.delegate, budget);
+        final String eldestProductId = UUID.randomUUID().toString();
+        productService.findProductId(merchantId, eldestProductId);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            productService.findProductId(merchantId, UUID.randomUUID().toString());
+        }
+        productService.findProductId(merchantId, eldestProductId);
+
+        // then
+        assertTrue(productService.getWeightInBytes() <= budget);
+        assertEquals(10, productService.getSize());
+        verify(this.delegate, times(2)).findProductId(merchantId, eldestProductId);
+    }
+
+    @Test
+    public void whenTheProductDoesNotExist_itShouldNotCacheTheFailure() throws CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final String productId = UUID.randomUUID().toString();
+        given(this.delegate.findProductId(merchantId, productId)).willThrow(CreateLoanApplication.ProductNotFoundException.class);
+        CachingProductService productService = new CachingProductService(this.delegate, 1024 * 1024);
+
+        // when // then
+        assertThrows(CreateLoanApplication.ProductNotFoundException.class, () -> productService.findProductId(merchantId, productId));
+        assertEquals(0, productService.getSize());
+        assertEquals(0, productService.getWeightInBytes());
+    }
+}
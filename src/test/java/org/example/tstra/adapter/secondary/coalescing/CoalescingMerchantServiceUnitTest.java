@@ -0,0 +1,131 @@
+package org.example.tstra.adapter.secondary.coalescing;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.*;
+
+import static org.example.tstra.domain.builders.MerchantBuilder.aMerchant;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingMerchantServiceUnitTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch called = new CountDownLatch(1);
+
+    @Mock
+    private CreateLoanApplication.MerchantService delegate;
+
+    @AfterEach
+    public void after() {
+        this.callers.shutdownNow();
+    }
+
+    @Test
+    public void whenLookupsOfAMerchantAreConcurrent_itShouldCallTheDelegateOnce() throws Exception {
+        // given
+        Merchant merchant = aMerchant();
+        given(this.delegate.findMerchantId(merchant.getMerchantId())).will(invocation -> {
+            this.called.countDown();
+            this.release.await();
+            return merchant;
+        });
+        CoalescingMerchantService merchantService = new CoalescingMerchantService(this.delegate);
+
+        // when
+        Future<Merchant> first = this.callers.submit(() -> merchantService.findMerchantId(merchant.getMerchantId()));
+        this.called.await();
+        Future<Merchant> second = this.waitingCaller(() -> merchantService.findMerchantId(merchant.getMerchantId()));
+        CompletableFuture<Merchant> third = merchantService.findMerchantIdAsync(merchant.getMerchantId(), this.callers);
+        this.release.countDown();
+
+        // then
+        assertEquals(merchant, first.get(5, TimeUnit.SECONDS));
+        assertEquals(merchant, second.get(5, TimeUnit.SECONDS));
+        assertEquals(merchant, third.get(5, TimeUnit.SECONDS));
+        verify(this.delegate, times(1)).findMerchantId(merchant.getMerchantId());
+    }
+
+    @Test
+    public void whenTheSharedLookupFails_itShouldFailEveryLookup() throws Exception {
+        // given
+        Merchant merchant = aMerchant();
+        given(this.delegate.findMerchantId(merchant.getMerchantId())).will(invocation -> {
+            this.called.countDown();
+            this.release.await();
+            throw new CreateLoanApplication.MerchantNotFoundException();
+        });
+        CoalescingMerchantService merchantService = new CoalescingMerchantService(this.delegate);
+
+        // when
+        Future<Merchant> first = this.callers.submit(() -> merchantService.findMerchantId(merchant.getMerchantId()));
+        this.called.await();
+        Future<Merchant> second = this.waitingCaller(() -> merchantService.findMerchantId(merchant.getMerchantId()));
+        this.release.countDown();
+
+        // then
+        ExecutionException firstError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException secondError = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertTrue(firstError.getCause() instanceof CreateLoanApplication.MerchantNotFoundException);
+        assertTrue(secondError.getCause() instanceof CreateLoanApplication.MerchantNotFoundException);
+        verify(this.delegate, times(1)).findMerchantId(merchant.getMerchantId());
+    }
+
+    @Test
+    public void whenTheLookupIsComplete_itShouldNotReuseItsOutcome() throws CreateLoanApplication.MerchantNotFoundException {
+        // given
+        Merchant merchant = aMerchant();
+        given(this.delegate.findMerchantId(merchant.getMerchantId())).willReturn(merchant);
+        CoalescingMerchantService merchantService = new CoalescingMerchantService(this.delegate);
+
+        // when
+        merchantService.findMerchantId(merchant.getMerchantId());
+        merchantService.findMerchantId(merchant.getMerchantId());
+
+        // then
+        verify(this.delegate, times(2)).findMerchantId(merchant.getMerchantId());
+    }
+
+    @Test
+    public void whenAnAsynchronousLookupFails_itShouldReleaseTheMerchant() {
+        // given
+        Merchant merchant = aMerchant();
+        CompletableFuture<Merchant> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new CompletionException(new CreateLoanApplication.MerchantNotFoundException()));
+        given(this.delegate.findMerchantIdAsync(merchant.getMerchantId(), this.callers))
+            .willReturn(failure)
+            .willReturn(CompletableFuture.completedFuture(merchant));
+        CoalescingMerchantService merchantService = new CoalescingMerchantService(this.delegate);
+
+        // when
+        CompletionException error = assertThrows(CompletionException.class, () -> merchantService.findMerchantIdAsync(merchant.getMerchantId(), this.callers).join());
+        Merchant result = merchantService.findMerchantIdAsync(merchant.getMerchantId(), this.callers).join();
+
+        // then
+        assertTrue(error.getCause() instanceof CreateLoanApplication.MerchantNotFoundException);
+        assertEquals(merchant, result);
+    }
+
+    // Runs the lookup on its own thread and returns once it waits: with a lookup in flight, only for its outcome
+    private <T> Future<T> waitingCaller(Callable<T> lookup) throws InterruptedException {
+        FutureTask<T> task = new FutureTask<>(lookup);
+        Thread caller = new Thread(task);
+        caller.setDaemon(true);
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (caller.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return task;
+    }
+}
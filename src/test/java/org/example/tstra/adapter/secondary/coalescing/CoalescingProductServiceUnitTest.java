@@ -0,0 +1,118 @@
+package org.example.tstra.adapter.secondary.coalescing;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.example.tstra.domain.builders.ProductBuilder.aProduct;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingProductServiceUnitTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch called = new CountDownLatch(1);
+
+    @Mock
+    private CreateLoanApplication.ProductService delegate;
+
+    @AfterEach
+    public void after() {
+        this.callers.shutdownNow();
+    }
+
+    @Test
+    public void whenLookupsOfAProductAreConcurrent_itShouldCallTheDelegateOnce() throws Exception {
+        // given
+        String merchantId = UUID.randomUUID().toString();
+        Product product = aProduct();
+        given(this.delegate.findProductId(merchantId, product.getProductId())).will(invocation -> {
+            this.called.countDown();
+            this.release.await();
+            return product;
+        });
+        CoalescingProductService productService = new CoalescingProductService(this.delegate);
+
+        // when
+        Future<Product> first = this.callers.submit(() -> productService.findProductId(merchantId, product.getProductId()));
+        this.called.await();
+        Future<Product> second = this.waitingCaller(() -> productService.findProductId(merchantId, product.getProductId()));
+        this.release.countDown();
+
+        // then
+        assertEquals(product, first.get(5, TimeUnit.SECONDS));
+        assertEquals(product, second.get(5, TimeUnit.SECONDS));
+        verify(this.delegate, times(1)).findProductId(merchantId, product.getProductId());
+    }
+
+    @Test
+    public void whenTheSameProductIsLookedUpForAnotherMerchant_itShouldNotShareTheLookup() throws Exception {
+        // given
+        String merchantId = UUID.randomUUID().toString();
+        String otherMerchantId = UUID.randomUUID().toString();
+        Product product = aProduct();
+        given(this.delegate.findProductId(eq(merchantId), anyString())).will(invocation -> {
+            this.called.countDown();
+            this.release.await();
+            return product;
+        });
+        willThrow(new CreateLoanApplication.ProductNotFoundException()).given(this.delegate).findProductId(eq(otherMerchantId), anyString());
+        CoalescingProductService productService = new CoalescingProductService(this.delegate);
+
+        // when
+        Future<Product> first = this.callers.submit(() -> productService.findProductId(merchantId, product.getProductId()));
+        this.called.await();
+        assertThrows(CreateLoanApplication.ProductNotFoundException.class, () -> productService.findProductId(otherMerchantId, product.getProductId()));
+        this.release.countDown();
+
+        // then
+        assertEquals(product, first.get(5, TimeUnit.SECONDS));
+        verify(this.delegate, times(1)).findProductId(otherMerchantId, product.getProductId());
+    }
+
+    @Test
+    public void whenTheLookupIsComplete_itShouldNotReuseItsOutcome() throws CreateLoanApplication.ProductNotFoundException {
+        // given
+        String merchantId = UUID.randomUUID().toString();
+        Product product = aProduct();
+        given(this.delegate.findProductId(merchantId, product.getProductId()))
+            .willThrow(new CreateLoanApplication.ProductNotFoundException())
+            .willReturn(product);
+        CoalescingProductService productService = new CoalescingProductService(this.delegate);
+
+        // when
+        assertThrows(CreateLoanApplication.ProductNotFoundException.class, () -> productService.findProductId(merchantId, product.getProductId()));
+        Product result = productService.findProductId(merchantId, product.getProductId());
+
+        // then
+        assertEquals(product, result);
+        verify(this.delegate, times(2)).findProductId(merchantId, product.getProductId());
+    }
+
+    // Runs the lookup on its own thread and returns once it waits: with a lookup in flight, only for its outcome
+    private <T> Future<T> waitingCaller(Callable<T> lookup) throws InterruptedException {
+        FutureTask<T> task = new FutureTask<>(lookup);
+        Thread caller = new Thread(task);
+        caller.setDaemon(true);
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (caller.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return task;
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.tstra.adapter.secondary.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedLoanApplicationIdGeneratorUnitTest {
+
+    @Test
+    public void itShouldGenerateStrictlyIncreasingIds() {
+        TimeOrderedLoanApplicationIdGenerator generator = new TimeOrderedLoanApplicationIdGenerator(42);
+
+        String previous = generator.generateId();
+        for (int i = 0; i < 100_000; i++) {
+            String id = generator.generateId();
+            assertTrue(id.compareTo(previous) > 0, id + " should be greater than " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void itShouldGenerateUniqueIdsAcrossThreads() throws Exception {
+        TimeOrderedLoanApplicationIdGenerator generator = new TimeOrderedLoanApplicationIdGenerator(42);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                List<String> ids = new ArrayList<>();
+                for (int i = 0; i < 50_000; i++) {
+                    ids.add(generator.generateId());
+                }
+                return ids;
+            }));
+        }
+
+        Set<String> ids = new HashSet<>();
+        for (Future<List<String>> future : futures) {
+            ids.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(8 * 50_000, ids.size());
+    }
+
+    @Test
+    public void itShouldEncodeTheTimestampAndTheNodeId() {
+        MutableClock clock = new MutableClock(TimeOrderedLoanApplicationIdGenerator.EPOCH.plusMillis(1234));
+        TimeOrderedLoanApplicationIdGenerator generator = new TimeOrderedLoanApplicationIdGenerator(7, Duration.ofSeconds(1), clock);
+
+        long id = generator.nextId();
+
+        assertEquals(1234, id >>> 22);
+        assertEquals(7, (id >>> 12) & TimeOrderedLoanApplicationIdGenerator.MAX_NODE_ID);
+        assertEquals(0, id & TimeOrderedLoanApplicationIdGenerator.MAX_SEQUENCE);
+        assertEquals(13, generator.generateId().length());
+    }
+
+    @Test
+    public void whenTheClockMovesBackwards_itShouldKeepGeneratingIncreasingIds() {
+        MutableClock clock = new MutableClock(TimeOrderedLoanApplicationIdGenerator.EPOCH.plusSeconds(60));
+        TimeOrderedLoanApplicationIdGenerator generator = new TimeOrderedLoanApplicationIdGenerator(1, Duration.ofSeconds(1), clock);
+        String beforeRollback = generator.generateId();
+
+        clock.advance(Duration.ofMillis(-500));
+        String afterRollback = generator.generateId();
+
+        assertTrue(afterRollback.compareTo(beforeRollback) > 0);
+    }
+
+    @Test
+    public void whenTheClockMovesBackwardsBeyondTheTolerance_itShouldKeepGeneratingIncreasingIdsPastTheSequence() {
+        MutableClock clock = new MutableClock(TimeOrderedLoanApplicationIdGenerator.EPOCH.plusSeconds(60));
+        TimeOrderedLoanApplicationIdGenerator generator = new TimeOrderedLoanApplicationIdGenerator(1, Duration.ofSeconds(1), clock);
+        String previous = generator.generateId();
+
+        clock.advance(Duration.ofSeconds(-5));
+
+        for (long i = 0; i <= 2 * TimeOrderedLoanApplicationIdGenerator.MAX_SEQUENCE; i++) {
+            String next = generator.generateId();
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis;
+
+        MutableClock(Instant instant) {
+            this.millis = new AtomicLong(instant.toEpochMilli());
+        }
+
+        void advance(Duration duration) {
+            this.millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return this.millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(this.millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.tstra.adapter.secondary.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MicrometerCreateLoanApplicationMonitorUnitTest {
+
+    @Test
+    public void itShouldRecordStageDurationsAndRejectionsByType() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerCreateLoanApplicationMonitor monitor = new MicrometerCreateLoanApplicationMonitor(registry);
+        CreateLoanApplication.CreateLoanApplicationRequest request = new CreateLoanApplication.CreateLoanApplicationRequest("m1", "p1", "fr", 100);
+
+        // when
+        monitor.stageCompleted(CreateLoanApplication.Stage.MERCHANT_LOOKUP, TimeUnit.MILLISECONDS.toNanos(3));
+        monitor.stageCompleted(CreateLoanApplication.Stage.MERCHANT_LOOKUP, TimeUnit.MILLISECONDS.toNanos(5));
+        monitor.stageCompleted(CreateLoanApplication.Stage.PERSISTENCE, TimeUnit.MILLISECONDS.toNanos(1));
+        monitor.rejected(request, new CreateLoanApplication.MerchantNotFoundException());
+        monitor.rejected(request, new CreateLoanApplication.MerchantNotFoundException());
+        monitor.rejected(request, new CreateLoanApplication.PurchaseAmountOutOfRange());
+
+        // then
+        assertEquals(2, registry.get(MicrometerCreateLoanApplicationMonitor.STAGE_DURATION).tag("stage", "merchant_lookup").timer().count());
+        assertEquals(8, registry.get(MicrometerCreateLoanApplicationMonitor.STAGE_DURATION).tag("stage", "merchant_lookup").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get(MicrometerCreateLoanApplicationMonitor.STAGE_DURATION).tag("stage", "persistence").timer().count());
+        assertEquals(0, registry.get(MicrometerCreateLoanApplicationMonitor.STAGE_DURATION).tag("stage", "validation").timer().count());
+        assertEquals(2, registry.get(MicrometerCreateLoanApplicationMonitor.REJECTIONS).tag("type", "MerchantNotFoundException").counter().count());
+        assertEquals(1, registry.get(MicrometerCreateLoanApplicationMonitor.REJECTIONS).tag("type", "PurchaseAmountOutOfRange").counter().count());
+    }
+}
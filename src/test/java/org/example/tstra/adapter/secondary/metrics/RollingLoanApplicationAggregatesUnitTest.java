@@ -0,0 +1,95 @@
+package org.example.tstra.adapter.secondary.metrics;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.example.tstra.domain.builders.LoanApplicationBuilder.aLoanApplication;
+import static org.example.tstra.adapter.secondary.metrics.RollingLoanApplicationAggregates.Window.ONE_DAY;
+import static org.example.tstra.adapter.secondary.metrics.RollingLoanApplicationAggregates.Window.ONE_HOUR;
+import static org.example.tstra.adapter.secondary.metrics.RollingLoanApplicationAggregates.Window.ONE_MINUTE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RollingLoanApplicationAggregatesUnitTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(10_000));
+    private final RollingLoanApplicationAggregates aggregates = new RollingLoanApplicationAggregates(100, this.now::get);
+
+    @Test
+    public void itShouldAggregateTheMerchantAndItsProducts() throws Exception {
+        // given
+        String merchantId = UUID.randomUUID().toString();
+
+        // when
+        this.aggregates.accepted(aLoanApplication().withMerchantId(merchantId).withProductId("p1").withPurchaseAmount(1000).build());
+        this.aggregates.accepted(aLoanApplication().withMerchantId(merchantId).withProductId("p1").withPurchaseAmount(2000).build());
+        this.aggregates.accepted(aLoanApplication().withMerchantId(merchantId).withProductId("p2").withPurchaseAmount(500).build());
+        this.aggregates.rejected(aRequest(merchantId, "p1"), new CreateLoanApplication.PurchaseAmountOutOfRange());
+
+        // then
+        assertAggregate(this.aggregates.ofMerchant(merchantId).get(ONE_MINUTE), 3, 1, 3500);
+        assertAggregate(this.aggregates.ofProduct(merchantId, "p1").get(ONE_HOUR), 2, 1, 3000);
+        assertAggregate(this.aggregates.ofProduct(merchantId, "p2").get(ONE_DAY), 1, 0, 500);
+        assertEquals(0.75, this.aggregates.ofMerchant(merchantId).get(ONE_MINUTE).getAcceptanceRatio());
+    }
+
+    @Test
+    public void itShouldForgetRequestsOlderThanTheWindow() throws Exception {
+        // given
+        String merchantId = UUID.randomUUID().toString();
+        this.aggregates.accepted(aLoanApplication().withMerchantId(merchantId).withProductId("p1").withPurchaseAmount(1000).build());
+
+        // when
+        this.now.addAndGet(TimeUnit.MINUTES.toMillis(2));
+        this.aggregates.accepted(aLoanApplication().withMerchantId(merchantId).withProductId("p1").withPurchaseAmount(2000).build());
+
+        // then
+        Map<RollingLoanApplicationAggregates.Window, RollingLoanApplicationAggregates.Aggregate> result = this.aggregates.ofMerchant(merchantId);
+        assertAggregate(result.get(ONE_MINUTE), 1, 0, 2000);
+        assertAggregate(result.get(ONE_HOUR), 2, 0, 3000);
+        assertAggregate(result.get(ONE_DAY), 2, 0, 3000);
+    }
+
+    @Test
+    public void itShouldReuseTheBucketsOfPastPeriods() throws Exception {
+        // given
+        String merchantId = UUID.randomUUID().toString();
+        this.aggregates.accepted(aLoanApplication().withMerchantId(merchantId).withProductId("p1").withPurchaseAmount(1000).build());
+
+        // when
+        this.now.addAndGet(TimeUnit.DAYS.toMillis(1));
+        this.aggregates.accepted(aLoanApplication().withMerchantId(merchantId).withProductId("p1").withPurchaseAmount(2000).build());
+
+        // then
+        assertAggregate(this.aggregates.ofMerchant(merchantId).get(ONE_DAY), 1, 0, 2000);
+    }
+
+    @Test
+    public void itShouldOnlyAggregateUnknownProductsForTheirMerchant() {
+        // given
+        String merchantId = UUID.randomUUID().toString();
+
+        // when
+        this.aggregates.rejected(aRequest("unknown", "p1"), new CreateLoanApplication.MerchantNotFoundException());
+        this.aggregates.rejected(aRequest(merchantId, "unknown"), new CreateLoanApplication.ProductNotFoundException());
+
+        // then
+        assertAggregate(this.aggregates.ofMerchant("unknown").get(ONE_MINUTE), 0, 0, 0);
+        assertAggregate(this.aggregates.ofMerchant(merchantId).get(ONE_MINUTE), 0, 1, 0);
+        assertAggregate(this.aggregates.ofProduct(merchantId, "unknown").get(ONE_MINUTE), 0, 0, 0);
+        assertNull(this.aggregates.ofProduct(merchantId, "unknown").get(ONE_MINUTE).getAcceptanceRatio());
+    }
+
+    private static void assertAggregate(RollingLoanApplicationAggregates.Aggregate aggregate, long accepted, long rejected, long purchaseAmountSum) {
+        assertEquals(new RollingLoanApplicationAggregates.Aggregate(accepted, rejected, purchaseAmountSum), aggregate);
+    }
+
+    private static CreateLoanApplication.CreateLoanApplicationRequest aRequest(String merchantId, String productId) {
+        return new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 1000);
+    }
+}
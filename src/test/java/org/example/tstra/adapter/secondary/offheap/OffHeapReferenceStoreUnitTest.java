@@ -0,0 +1,120 @@
+package org.example.tstra.adapter.secondary.offheap;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import static org.example.tstra.domain.builders.MerchantBuilder.aMerchant;
+import static org.example.tstra.domain.builders.ProductBuilder.aProduct;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapReferenceStoreUnitTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void whenMerchantsAndProductsAreWritten_itShouldFindThem() throws Exception {
+        // given
+        Merchant merchant = aMerchant();
+        Product product = aProduct();
+
+        // when
+        OffHeapReferenceStore store = OffHeapReferenceStore.allocate(36, 1, 1)
+            .putMerchant(merchant)
+            .putProduct(merchant.getMerchantId(), product)
+            .build();
+
+        // then
+        assertEquals(merchant, store.findMerchantId(merchant.getMerchantId()));
+        assertEquals(product, store.findProductId(merchant.getMerchantId(), product.getProductId()));
+        assertEquals(merchant, store.findMerchantIdAsync(merchant.getMerchantId(), Runnable::run).get());
+        assertThrows(CreateLoanApplication.MerchantNotFoundException.class, () -> store.findMerchantId("unknown"));
+        assertThrows(CreateLoanApplication.ProductNotFoundException.class, () -> store.findProductId("unknown", product.getProductId()));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> store.findProductIdAsync(merchant.getMerchantId(), "unknown", Runnable::run).get());
+        assertTrue(e.getCause() instanceof CreateLoanApplication.ProductNotFoundException);
+    }
+
+    @Test
+    public void whenASnapshotFileIsOpened_itShouldFindWhatWasWritten() throws Exception {
+        // given
+        Path file = this.directory.resolve("reference-data.snapshot");
+        OffHeapReferenceStore.Writer writer = OffHeapReferenceStore.create(file, 8, 10, 100);
+        for (int m = 0; m < 10; m++) {
+            writer.putMerchant(new Merchant("m" + m, PositiveAmount.of(m), PositiveAmount.of(1000 + m)));
+            for (int p = 0; p < 10; p++) {
+                writer.putProduct("m" + m, new Product("p" + p, PositiveAmount.of(p), PositiveAmount.of(100 * m + p)));
+            }
+        }
+        writer.build();
+
+        // when
+        OffHeapReferenceStore store = OffHeapReferenceStore.open(file);
+
+        // then
+        assertEquals(new Merchant("m3", PositiveAmount.of(3), PositiveAmount.of(1003)), store.findMerchantId("m3"));
+        assertEquals(new Product("p7", PositiveAmount.of(7), PositiveAmount.of(507)), store.findProductId("m5", "p7"));
+        assertThrows(CreateLoanApplication.ProductNotFoundException.class, () -> store.findProductId("m5", "p10"));
+    }
+
+    @Test
+    public void whenAnAmountOfTheSnapshotFileIsCorrupted_itShouldFailTheLookup() throws Exception {
+        // given
+        Path file = this.directory.resolve("reference-data.snapshot");
+        OffHeapReferenceStore.create(file, 8, 1, 1)
+            .putMerchant(new Merchant("m0", PositiveAmount.of(1), PositiveAmount.of(1000)))
+            .build();
+        byte[] bytes = Files.readAllBytes(file);
+        int key = indexOf(bytes, new byte[] {2, 'm', '0'});
+        // the key starts 4 bytes into the slot and the minimum amount 8 bytes before its end
+        ByteBuffer.wrap(bytes).putInt(key - 4 + OffHeapTable.slotSize(8) - 8, -1);
+        Files.write(file, bytes);
+
+        // when
+        OffHeapReferenceStore store = OffHeapReferenceStore.open(file);
+
+        // then
+        assertThrows(IllegalStateException.class, () -> store.findMerchantId("m0"));
+    }
+
+    @Test
+    public void whenASnapshotFileIsIncomplete_itShouldNotOpen() throws Exception {
+        // given
+        Path file = this.directory.resolve("reference-data.snapshot");
+        OffHeapReferenceStore.create(file, 36, 10, 100).putMerchant(aMerchant());
+
+        // when
+        assertThrows(IOException.class, () -> OffHeapReferenceStore.open(file));
+    }
+
+    @Test
+    public void whenAFileIsNotASnapshot_itShouldNotOpen() throws Exception {
+        // given
+        Path file = Files.write(this.directory.resolve("reference-data.snapshot"), new byte[] {1, 2, 3});
+
+        // when
+        assertThrows(IOException.class, () -> OffHeapReferenceStore.open(file));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] value) {
+        for (int i = 0; i + value.length <= bytes.length; i++) {
+            int j = 0;
+            while (j < value.length && bytes[i + j] == value[j]) {
+                j++;
+            }
+            if (j == value.length) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not found");
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.tstra.adapter.secondary.offheap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTableUnitTest {
+
+    @Test
+    public void whenEntriesArePut_itShouldFindTheirValues() {
+        // given
+        OffHeapTable table = OffHeapTable.allocate(8, OffHeapTable.capacityFor(1000));
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(table.put("m" + (i % 10), "p" + i, i, -i));
+        }
+
+        // then
+        for (int i = 0; i < 1000; i++) {
+            long slot = table.find("m" + (i % 10), "p" + i);
+            assertTrue(slot >= 0);
+            assertEquals(i, table.first(slot));
+            assertEquals(-i, table.second(slot));
+        }
+        assertEquals(-1, table.find("m1", "p2"));
+        assertEquals(-1, table.find("m1p", "1"));
+    }
+
+    @Test
+    public void whenAnEntryIsPutAgain_itShouldReplaceItsValues() {
+        // given
+        OffHeapTable table = OffHeapTable.allocate(8, 4);
+        table.put("m1", "", 1, 2);
+
+        // when
+        boolean added = table.put("m1", "", 3, 4);
+
+        // then
+        assertFalse(added);
+        long slot = table.find("m1", "");
+        assertEquals(3, table.first(slot));
+        assertEquals(4, table.second(slot));
+    }
+
+    @Test
+    public void whenTheIdsDoNotFit_itShouldRejectThemOnPutAndMissThemOnFind() {
+        // given
+        OffHeapTable table = OffHeapTable.allocate(4, 4);
+
+        // when
+        assertThrows(IllegalArgumentException.class, () -> table.put("12345", "", 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> table.put("caf\u00e9", "", 1, 2));
+
+        // then
+        assertEquals(-1, table.find("12345", ""));
+        assertEquals(-1, table.find("caf\u00e9", ""));
+    }
+
+    @Test
+    public void whenTheTableIsFull_itShouldRejectNewEntries() {
+        // given
+        OffHeapTable table = OffHeapTable.allocate(4, 2);
+        table.put("a", "", 1, 1);
+        table.put("b", "", 2, 2);
+
+        // when
+        assertThrows(IllegalStateException.class, () -> table.put("c", "", 3, 3));
+
+        // then
+        assertEquals(-1, table.find("c", ""));
+    }
+
+    @Test
+    public void whenSizedForEntries_itShouldKeepTheLoadFactorUnderThreeQuarters() {
+        assertEquals(2, OffHeapTable.capacityFor(0));
+        assertEquals(4, OffHeapTable.capacityFor(3));
+        assertEquals(8, OffHeapTable.capacityFor(4));
+        assertEquals(8, OffHeapTable.capacityFor(6));
+        assertEquals(16, OffHeapTable.capacityFor(7));
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.tstra.adapter.secondary.persistence;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.application.usecase.GetLoanApplication;
+import org.example.tstra.domain.LoanApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.example.tstra.domain.builders.LoanApplicationBuilder.aLoanApplication;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CachingLoanApplicationRepositoryUnitTest {
+
+    @Mock
+    private CreateLoanApplication.LoanApplicationRepository delegate;
+
+    @Mock
+    private GetLoanApplication.LoanApplicationReader delegateReader;
+
+    @Test
+    public void whenALoanApplicationIsPersisted_itShouldBeFoundWithoutReadingTheDelegate() throws Exception {
+        // given
+        LoanApplication loanApplication = aLoanApplication().build();
+        given(this.delegate.persist(loanApplication)).willReturn(loanApplication);
+        CachingLoanApplicationRepository repository = new CachingLoanApplicationRepository(this.delegate, this.delegateReader, 100);
+
+        // when
+        repository.persist(loanApplication);
+
+        // then
+        assertEquals(Optional.of(loanApplication), repository.findById(loanApplication.getLoanApplicationId()));
+        verify(this.delegateReader, never()).findById(loanApplication.getLoanApplicationId());
+    }
+
+    @Test
+    public void whenLoanApplicationsArePersistedTogether_itShouldFindEachWithoutReadingTheDelegate() throws Exception {
+        // given
+        List<LoanApplication> loanApplications = Arrays.asList(aLoanApplication().build(), aLoanApplication().build());
+        given(this.delegate.persistAll(loanApplications)).willReturn(loanApplications);
+        CachingLoanApplicationRepository repository = new CachingLoanApplicationRepository(this.delegate, this.delegateReader, 100);
+
+        // when
+        repository.persistAll(loanApplications);
+
+        // then
+        for (LoanApplication loanApplication : loanApplications) {
+            assertEquals(Optional.of(loanApplication), repository.findById(loanApplication.getLoanApplicationId()));
+        }
+        verify(this.delegateReader, never()).findById(loanApplications.get(0).getLoanApplicationId());
+    }
+
+    @Test
+    public void whenALoanApplicationIsMissing_itShouldReadTheDelegateOnce() throws Exception {
+        // given
+        LoanApplication loanApplication = aLoanApplication().build();
+        given(this.delegateReader.findById(loanApplication.getLoanApplicationId())).willReturn(Optional.of(loanApplication));
+        CachingLoanApplicationRepository repository = new CachingLoanApplicationRepository(this.delegate, this.delegateReader, 100);
+
+        // when
+        repository.findById(loanApplication.getLoanApplicationId());
+        Optional<LoanApplication> found = repository.findById(loanApplication.getLoanApplicationId());
+
+        // then
+        assertEquals(Optional.of(loanApplication), found);
+        verify(this.delegateReader, times(1)).findById(loanApplication.getLoanApplicationId());
+    }
+
+    @Test
+    public void whenALoanApplicationIsNotFound_itShouldNotCacheTheMiss() {
+        // given
+        given(this.delegateReader.findById("unknown")).willReturn(Optional.empty());
+        CachingLoanApplicationRepository repository = new CachingLoanApplicationRepository(this.delegate, this.delegateReader, 100);
+
+        // when
+        repository.findById("unknown");
+        Optional<LoanApplication> found = repository.findById("unknown");
+
+        // then
+        assertFalse(found.isPresent());
+        verify(this.delegateReader, times(2)).findById("unknown");
+    }
+}
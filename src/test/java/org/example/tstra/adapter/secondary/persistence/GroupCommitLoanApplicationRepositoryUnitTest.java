@@ -0,0 +1,150 @@
+package org.example.tstra.adapter.secondary.persistence;
+
+import org.example.tstra.application.usecase.CreateLoanApplication;
+import org.example.tstra.domain.LoanApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.example.tstra.domain.builders.LoanApplicationBuilder.aLoanApplication;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitLoanApplicationRepositoryUnitTest {
+
+    @Mock
+    private CreateLoanApplication.LoanApplicationRepository delegate;
+
+    @Test
+    public void itShouldPersistConcurrentWritesInBatches() throws Exception {
+        // given
+        given(this.delegate.persistAll(anyList())).will(invocation -> invocation.getArgument(0));
+        GroupCommitLoanApplicationRepository repository = new GroupCommitLoanApplicationRepository(this.delegate, 50, Duration.ofMillis(50), 1000);
+        ExecutorService callers = Executors.newFixedThreadPool(100);
+
+        // when
+        List<Future<LoanApplication>> results = new ArrayList<>();
+        List<LoanApplication> loanApplications = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            LoanApplication loanApplication = aLoanApplication().build();
+            loanApplications.add(loanApplication);
+            results.add(callers.submit(() -> repository.persist(loanApplication)));
+        }
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            assertEquals(loanApplications.get(i), results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        verify(this.delegate, atMost(10)).persistAll(anyList());
+
+        callers.shutdown();
+        repository.close();
+    }
+
+    @Test
+    public void whenTheDelegateFails_itShouldFailEveryWriteOfTheBatch() throws Exception {
+        // given
+        given(this.delegate.persistAll(anyList())).willThrow(new IllegalStateException("storage unavailable"));
+        GroupCommitLoanApplicationRepository repository = new GroupCommitLoanApplicationRepository(this.delegate, 10, Duration.ofMillis(50), 100);
+
+        // when
+        CompletableFuture<LoanApplication> first = repository.persistAsync(aLoanApplication().build());
+        CompletableFuture<LoanApplication> second = repository.persistAsync(aLoanApplication().build());
+
+        // then
+        ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertEquals("storage unavailable", firstFailure.getCause().getMessage());
+        assertEquals("storage unavailable", secondFailure.getCause().getMessage());
+        assertThrows(IllegalStateException.class, () -> repository.persist(aLoanApplication().build()));
+
+        repository.close();
+    }
+
+    @Test
+    public void whenTheDelegateMisbehaves_itShouldFailTheBatchAndKeepFlushing() throws Exception {
+        // given
+        LoanApplication loanApplication = aLoanApplication().build();
+        given(this.delegate.persistAll(anyList()))
+            .willReturn(new ArrayList<>())
+            .willThrow(new AssertionError("broken storage"))
+            .will(invocation -> invocation.getArgument(0));
+        GroupCommitLoanApplicationRepository repository = new GroupCommitLoanApplicationRepository(this.delegate, 10, Duration.ofMillis(1), 100);
+
+        // when
+        IllegalStateException shortList = assertThrows(IllegalStateException.class, () -> repository.persist(aLoanApplication().build()));
+        AssertionError error = assertThrows(AssertionError.class, () -> repository.persist(aLoanApplication().build()));
+        LoanApplication persisted = repository.persistAsync(loanApplication).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertTrue(shortList.getMessage().startsWith("Expected 1 persisted"));
+        assertEquals("broken storage", error.getMessage());
+        assertEquals(loanApplication, persisted);
+
+        repository.close();
+    }
+
+    @Test
+    public void whenWritingConcurrentlyWithClose_itShouldCompleteEveryAcceptedWrite() throws Exception {
+        // given
+        given(this.delegate.persistAll(anyList())).will(invocation -> invocation.getArgument(0));
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        for (int round = 0; round < 20; round++) {
+            GroupCommitLoanApplicationRepository repository = new GroupCommitLoanApplicationRepository(this.delegate, 10, Duration.ofMillis(1), 1000);
+            List<Future<CompletableFuture<LoanApplication>>> writes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                writes.add(callers.submit(() -> {
+                    try {
+                        return repository.persistAsync(aLoanApplication().build());
+                    } catch (IllegalStateException e) {
+                        return null;
+                    }
+                }));
+            }
+
+            // when
+            repository.close();
+
+            // then
+            for (Future<CompletableFuture<LoanApplication>> write : writes) {
+                CompletableFuture<LoanApplication> future = write.get(5, TimeUnit.SECONDS);
+                if (future != null) {
+                    try {
+                        future.get(5, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        assertEquals("Repository is closed", e.getCause().getMessage());
+                    }
+                }
+            }
+        }
+
+        callers.shutdown();
+    }
+
+    @Test
+    public void whenClosed_itShouldFlushThePendingWrites() throws Exception {
+        // given
+        given(this.delegate.persistAll(anyList())).will(invocation -> invocation.getArgument(0));
+        GroupCommitLoanApplicationRepository repository = new GroupCommitLoanApplicationRepository(this.delegate, 10, Duration.ofSeconds(10), 100);
+        CompletableFuture<LoanApplication> pending = repository.persistAsync(aLoanApplication().build());
+
+        // when
+        repository.close();
+
+        // then
+        assertTrue(pending.isDone());
+        assertFalse(pending.isCompletedExceptionally());
+        assertThrows(IllegalStateException.class, () -> repository.persistAsync(aLoanApplication().build()));
+    }
+}
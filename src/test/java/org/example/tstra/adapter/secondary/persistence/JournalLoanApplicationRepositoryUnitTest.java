@@ -0,0 +1,176 @@
+package org.example.tstra.adapter.secondary.persistence;
+
+import org.example.tstra.domain.Language;
+import org.example.tstra.domain.LoanApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.example.tstra.domain.builders.LoanApplicationBuilder.aLoanApplication;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalLoanApplicationRepositoryUnitTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void itShouldFindTheLoanApplicationsAfterARestart() throws Exception {
+        // given
+        LoanApplication first = aLoanApplication().withLanguage(Language.FR).withPurchaseAmount(40000).build();
+        LoanApplication second = aLoanApplication().withLanguage(Language.NL).withPurchaseAmount(125).build();
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1)) {
+            repository.persist(first);
+            repository.persistAll(Arrays.asList(second));
+        }
+
+        // when
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1)) {
+            // then
+            assertEquals(2, repository.size());
+            assertEquals(first, repository.findById(first.getLoanApplicationId()).orElse(null));
+            assertEquals(second, repository.findById(second.getLoanApplicationId()).orElse(null));
+            assertFalse(repository.findById(UUID.randomUUID().toString()).isPresent());
+        }
+    }
+
+    @Test
+    public void itShouldStreamTheLoanApplicationsOfAMerchantInIdOrderAfterARestart() throws Exception {
+        // given
+        LoanApplication third = aLoanApplication().withMerchantId("merchant").withLoanApplicationId("3").build();
+        LoanApplication first = aLoanApplication().withMerchantId("merchant").withLoanApplicationId("1").build();
+        LoanApplication second = aLoanApplication().withMerchantId("merchant").withLoanApplicationId("2").build();
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1)) {
+            repository.persistAll(Arrays.asList(third, aLoanApplication().withMerchantId("other").withLoanApplicationId("0").build(), first));
+            repository.persist(second);
+        }
+
+        // when
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1);
+             Stream<LoanApplication> all = repository.findByMerchantId("merchant", null);
+             Stream<LoanApplication> afterFirst = repository.findByMerchantId("merchant", "1");
+             Stream<LoanApplication> unknown = repository.findByMerchantId("unknown", null)) {
+            // then
+            assertEquals(Arrays.asList(first, second, third), all.collect(Collectors.toList()));
+            assertEquals(Arrays.asList(second, third), afterFirst.collect(Collectors.toList()));
+            assertEquals(0, unknown.count());
+        }
+    }
+
+    @Test
+    public void whenASegmentIsFull_itShouldRollOverToANewSegment() throws Exception {
+        // given
+        List<LoanApplication> loanApplications = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            loanApplications.add(aLoanApplication().withLanguage(Language.FR).withPurchaseAmount(i).build());
+        }
+
+        // when
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 1024, 10)) {
+            loanApplications.forEach(repository::persist);
+        }
+
+        // then
+        assertTrue(segments().size() > 1);
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 1024, 10)) {
+            assertEquals(50, repository.size());
+            for (LoanApplication loanApplication : loanApplications) {
+                assertEquals(loanApplication, repository.findById(loanApplication.getLoanApplicationId()).orElse(null));
+            }
+        }
+    }
+
+    @Test
+    public void whenTheLastRecordIsTorn_itShouldDiscardItAndResumeAppending() throws Exception {
+        // given
+        LoanApplication intact = aLoanApplication().withLanguage(Language.FR).withPurchaseAmount(40000).build();
+        LoanApplication torn = aLoanApplication().withLanguage(Language.NL).withPurchaseAmount(30000).build();
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1)) {
+            repository.persist(intact);
+            repository.persist(torn);
+        }
+        corruptLastByteOfLastRecord(segments().get(0));
+
+        // when
+        LoanApplication appended = aLoanApplication().withLanguage(Language.FR).withPurchaseAmount(100).build();
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1)) {
+            assertEquals(1, repository.size());
+            assertFalse(repository.findById(torn.getLoanApplicationId()).isPresent());
+            repository.persist(appended);
+        }
+
+        // then
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1)) {
+            assertEquals(2, repository.size());
+            assertEquals(intact, repository.findById(intact.getLoanApplicationId()).orElse(null));
+            assertEquals(appended, repository.findById(appended.getLoanApplicationId()).orElse(null));
+        }
+    }
+
+    @Test
+    public void whenARecordHoldsAnUnknownLanguage_itShouldFailTheRecovery() throws Exception {
+        // given
+        try (JournalLoanApplicationRepository repository = new JournalLoanApplicationRepository(this.directory, 4096, 1)) {
+            repository.persist(aLoanApplication().withLanguage(Language.NL).build());
+        }
+        replaceLanguageOfFirstRecord(segments().get(0), "nl", "xx");
+
+        // when
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> new JournalLoanApplicationRepository(this.directory, 4096, 1));
+
+        // then
+        assertTrue(error.getMessage().endsWith("unknown language xx"));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void replaceLanguageOfFirstRecord(Path segment, String language, String replacement) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            byte[] payload = new byte[buffer.getInt(0)];
+            buffer.position(8);
+            buffer.get(payload);
+            String decoded = new String(payload, StandardCharsets.ISO_8859_1);
+            int index = decoded.lastIndexOf(language);
+            assertTrue(index > 0);
+            byte[] replaced = (decoded.substring(0, index) + replacement + decoded.substring(index + language.length())).getBytes(StandardCharsets.ISO_8859_1);
+            CRC32 checksum = new CRC32();
+            checksum.update(replaced);
+            buffer.position(4);
+            buffer.putInt((int) checksum.getValue());
+            buffer.put(replaced);
+        }
+    }
+
+    private static void corruptLastByteOfLastRecord(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int offset = 0;
+            int last = 0;
+            while (buffer.getInt(offset) != 0) {
+                last = offset;
+                offset += 8 + buffer.getInt(offset);
+            }
+            buffer.put(offset - 1, (byte) (buffer.get(offset - 1) ^ 0xFF));
+            assertTrue(last > 0);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.example.tstra.application.service.EffectiveAmountRangeIndex;
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaReferenceDataLoaderUnitTest {
+
+    private static final String TOPIC = "reference-data";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+    private final KafkaReferenceDataLoader loader = new KafkaReferenceDataLoader(this.consumer, TOPIC, new ObjectMapper(), this.index);
+    private long offset;
+
+    @BeforeEach
+    public void before() {
+        this.consumer.updatePartitions(TOPIC, Collections.singletonList(new PartitionInfo(TOPIC, 0, null, null, null)));
+        this.consumer.updateBeginningOffsets(Collections.singletonMap(PARTITION, 0L));
+    }
+
+    @Test
+    public void whenTheTopicIsRead_itShouldServeItsMerchantsAndProducts() throws Exception {
+        // given
+        this.consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 2L));
+        this.loader.bootstrap();
+        this.record("merchant:m1", "{\"minLoanAmount\":100,\"maxLoanAmount\":5000}");
+        this.record("product:m1:p1", "{\"minAmount\":200,\"maxAmount\":3000}");
+
+        // when
+        this.loader.poll(Duration.ZERO);
+
+        // then
+        ReferenceDataSnapshot snapshot = this.loader.snapshot();
+        assertEquals(new Merchant("m1", PositiveAmount.of(100), PositiveAmount.of(5000)), snapshot.merchant("m1"));
+        assertEquals(new Product("p1", PositiveAmount.of(200), PositiveAmount.of(3000)), snapshot.product("m1", "p1"));
+        assertTrue(this.loader.isCaughtUp());
+    }
+
+    @Test
+    public void whenTheTopicIsPartiallyRead_itShouldNotBeCaughtUp() {
+        // given
+        this.consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 2L));
+        this.loader.bootstrap();
+        this.record("merchant:m1", "{\"minLoanAmount\":100,\"maxLoanAmount\":5000}");
+
+        // when
+        this.loader.poll(Duration.ZERO);
+
+        // then
+        assertNull(this.loader.snapshot().merchant("m1"));
+        assertFalse(this.loader.isCaughtUp());
+    }
+
+    @Test
+    public void whenTheLoaderDies_itShouldReportDown() throws Exception {
+        // given
+        this.consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 0L));
+        this.consumer.setPollException(new KafkaException("broken"));
+        ReferenceDataHealthIndicator healthIndicator = new ReferenceDataHealthIndicator(this.loader);
+
+        // when
+        this.loader.start();
+        for (int i = 0; i < 500 && this.loader.failure() == null; i++) {
+            Thread.sleep(10);
+        }
+
+        // then
+        assertTrue(this.loader.failure() instanceof KafkaException);
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    public void whenTheTopicIsEmpty_itShouldBeCaughtUp() {
+        // given
+        this.consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 0L));
+
+        // when
+        this.loader.bootstrap();
+
+        // then
+        assertTrue(this.loader.isCaughtUp());
+    }
+
+    @Test
+    public void whenATombstoneIsRead_itShouldRemoveTheEntryFromTheNextSnapshotOnly() {
+        // given
+        this.consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 0L));
+        this.loader.bootstrap();
+        this.record("merchant:m1", "{\"minLoanAmount\":100,\"maxLoanAmount\":5000}");
+        this.record("product:m1:p1", "{\"minAmount\":200,\"maxAmount\":3000}");
+        this.loader.poll(Duration.ZERO);
+        ReferenceDataSnapshot before = this.loader.snapshot();
+        this.record("merchant:m1", null);
+        this.record("product:m1:p1", null);
+
+        // when
+        this.loader.poll(Duration.ZERO);
+
+        // then
+        assertNull(this.loader.snapshot().merchant("m1"));
+        assertNull(this.loader.snapshot().product("m1", "p1"));
+        assertNotNull(before.merchant("m1"));
+        assertNotNull(before.product("m1", "p1"));
+    }
+
+    @Test
+    public void whenReferenceDataChanges_itShouldUpdateTheEffectiveAmountRangeIndex() {
+        // given
+        this.consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 0L));
+        this.loader.bootstrap();
+        this.record("merchant:m1", "{\"minLoanAmount\":100,\"maxLoanAmount\":5000}");
+        this.record("product:m1:p1", "{\"minAmount\":200,\"maxAmount\":6000}");
+        this.loader.poll(Duration.ZERO);
+        long before = this.index.find("m1", "p1");
+        this.record("product:m1:p1", null);
+
+        // when
+        this.loader.poll(Duration.ZERO);
+
+        // then
+        assertEquals(200, EffectiveAmountRangeIndex.minOf(before));
+        assertEquals(5000, EffectiveAmountRangeIndex.maxOf(before));
+        assertEquals(EffectiveAmountRangeIndex.NOT_INDEXED, this.index.find("m1", "p1"));
+    }
+
+    @Test
+    public void whenARecordIsMalformed_itShouldSkipIt() {
+        // given
+        this.consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 0L));
+        this.loader.bootstrap();
+        this.record("merchant:m1", "{");
+        this.record("merchant:m2", "{\"minLoanAmount\":-1,\"maxLoanAmount\":5000}");
+        this.record("product:p3", "{\"minAmount\":200,\"maxAmount\":3000}");
+        this.record(null, "{}");
+        this.record("merchant:m4", "{\"minLoanAmount\":100,\"maxLoanAmount\":5000}");
+
+        // when
+        this.loader.poll(Duration.ZERO);
+
+        // then
+        ReferenceDataSnapshot snapshot = this.loader.snapshot();
+        assertEquals(1, snapshot.merchantCount());
+        assertEquals(0, snapshot.productCount());
+        assertNotNull(snapshot.merchant("m4"));
+    }
+
+    private void record(String key, String value) {
+        this.consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, this.offset++, key, value == null ? null : value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.tstra.adapter.secondary.snapshot;
+
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import static org.example.tstra.domain.builders.MerchantBuilder.aMerchant;
+import static org.example.tstra.domain.builders.ProductBuilder.aProduct;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceDataSnapshotUnitTest {
+
+    @Test
+    public void whenMerchantsAndProductsArePut_itShouldFindThem() {
+        // given
+        Merchant merchant = aMerchant();
+        Product product = aProduct();
+
+        // when
+        ReferenceDataSnapshot snapshot = ReferenceDataSnapshot.EMPTY.toBuilder()
+            .putMerchant(merchant)
+            .putProduct(merchant.getMerchantId(), product)
+            .build();
+
+        // then
+        assertEquals(merchant, snapshot.merchant(merchant.getMerchantId()));
+        assertEquals(product, snapshot.product(merchant.getMerchantId(), product.getProductId()));
+        assertNull(snapshot.product("unknown", product.getProductId()));
+        assertEquals(1, snapshot.merchantCount());
+        assertEquals(1, snapshot.productCount());
+    }
+
+    @Test
+    public void whenASnapshotIsChanged_itShouldLeaveTheOriginalUnchanged() {
+        // given
+        Merchant merchant = aMerchant();
+        Product product = aProduct();
+        ReferenceDataSnapshot original = ReferenceDataSnapshot.EMPTY.toBuilder()
+            .putMerchant(merchant)
+            .putProduct(merchant.getMerchantId(), product)
+            .build();
+
+        // when
+        ReferenceDataSnapshot changed = original.toBuilder()
+            .removeMerchant(merchant.getMerchantId())
+            .removeProduct(merchant.getMerchantId(), product.getProductId())
+            .putProduct(merchant.getMerchantId(), aProduct())
+            .build();
+
+        // then
+        assertEquals(merchant, original.merchant(merchant.getMerchantId()));
+        assertEquals(product, original.product(merchant.getMerchantId(), product.getProductId()));
+        assertEquals(1, original.productCount());
+        assertNull(changed.merchant(merchant.getMerchantId()));
+        assertNull(changed.product(merchant.getMerchantId(), product.getProductId()));
+        assertEquals(1, changed.productCount());
+    }
+
+    @Test
+    public void whenAMerchantIsRemoved_itShouldRemoveItsProducts() {
+        // given
+        Merchant merchant = aMerchant();
+        Merchant other = aMerchant();
+        ReferenceDataSnapshot original = ReferenceDataSnapshot.EMPTY.toBuilder()
+            .putMerchant(merchant)
+            .putProduct(merchant.getMerchantId(), aProduct())
+            .putProduct(merchant.getMerchantId(), aProduct())
+            .putMerchant(other)
+            .putProduct(other.getMerchantId(), aProduct())
+            .build();
+
+        // when
+        ReferenceDataSnapshot changed = original.toBuilder()
+            .removeMerchant(merchant.getMerchantId())
+            .build();
+
+        // then
+        assertTrue(changed.products(merchant.getMerchantId()).isEmpty());
+        assertEquals(1, changed.products(other.getMerchantId()).size());
+        assertEquals(1, changed.productCount());
+        assertEquals(2, original.products(merchant.getMerchantId()).size());
+        assertEquals(3, original.productCount());
+    }
+
+    @Test
+    public void whenUnknownEntriesAreRemoved_itShouldReturnTheSameSnapshot() {
+        // given
+        ReferenceDataSnapshot original = ReferenceDataSnapshot.EMPTY.toBuilder().putMerchant(aMerchant()).build();
+
+        // when
+        ReferenceDataSnapshot changed = original.toBuilder()
+            .removeMerchant("unknown")
+            .removeProduct("unknown", "unknown")
+            .build();
+
+        // then
+        assertSame(original, changed);
+    }
+
+    @Test
+    public void whenABuilderIsReused_itShouldFail() {
+        // given
+        ReferenceDataSnapshot.Builder builder = ReferenceDataSnapshot.EMPTY.toBuilder();
+        builder.build();
+
+        // when
+        assertThrows(IllegalStateException.class, () -> builder.putMerchant(aMerchant()));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.tstra.application.service;
+
+import org.example.tstra.domain.Merchant;
+import org.example.tstra.domain.PositiveAmount;
+import org.example.tstra.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.example.tstra.domain.builders.MerchantBuilder.aMerchant;
+import static org.example.tstra.domain.builders.ProductBuilder.aProduct;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EffectiveAmountRangeIndexUnitTest {
+
+    @Test
+    public void itShouldIndexTheIntersectionOfTheMerchantAndProductRanges() throws PositiveAmount.InvalidPositiveAmount {
+        Merchant merchant = aMerchant()
+            .withMinLoanAmount(PositiveAmount.of(100))
+            .withMaxLoanAmount(PositiveAmount.of(200));
+        Product product = aProduct()
+            .withMinAmount(PositiveAmount.of(125))
+            .withMaxAmount(PositiveAmount.of(225));
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+
+        index.load(merchant, Collections.singletonList(product));
+
+        long range = index.find(merchant.getMerchantId(), product.getProductId());
+        assertEquals(125, EffectiveAmountRangeIndex.minOf(range));
+        assertEquals(200, EffectiveAmountRangeIndex.maxOf(range));
+        assertEquals(EffectiveAmountRangeIndex.NOT_INDEXED, index.find(merchant.getMerchantId(), aProduct().getProductId()));
+        assertEquals(EffectiveAmountRangeIndex.NOT_INDEXED, index.find(aMerchant().getMerchantId(), product.getProductId()));
+    }
+
+    @Test
+    public void itShouldOnlyHandTheRangeToTheMerchantAndProductItWasComputedFrom() throws PositiveAmount.InvalidPositiveAmount {
+        Merchant merchant = aMerchant()
+            .withMinLoanAmount(PositiveAmount.of(100))
+            .withMaxLoanAmount(PositiveAmount.of(200));
+        Product product = aProduct()
+            .withMinAmount(PositiveAmount.of(125))
+            .withMaxAmount(PositiveAmount.of(225));
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+
+        index.load(merchant, Collections.singletonList(product));
+
+        assertEquals(EffectiveAmountRangeIndex.pack(125, 200), index.find(merchant, product));
+        assertEquals(EffectiveAmountRangeIndex.NOT_INDEXED, index.find(merchant.withMaxLoanAmount(PositiveAmount.of(150)), product));
+        assertEquals(EffectiveAmountRangeIndex.NOT_INDEXED, index.find(merchant, product.withMinAmount(PositiveAmount.of(150))));
+    }
+
+    @Test
+    public void whenTheMerchantLimitsChange_itShouldUpdateTheRangesOfItsProducts() throws PositiveAmount.InvalidPositiveAmount {
+        Merchant merchant = aMerchant()
+            .withMinLoanAmount(PositiveAmount.of(100))
+            .withMaxLoanAmount(PositiveAmount.of(200));
+        Product first = aProduct()
+            .withMinAmount(PositiveAmount.of(50))
+            .withMaxAmount(PositiveAmount.of(150));
+        Product second = aProduct()
+            .withMinAmount(PositiveAmount.of(150))
+            .withMaxAmount(PositiveAmount.of(1000));
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+        index.load(merchant, Arrays.asList(first, second));
+
+        index.putMerchant(merchant.withMinLoanAmount(PositiveAmount.of(10)).withMaxLoanAmount(PositiveAmount.of(500)));
+
+        assertEquals(EffectiveAmountRangeIndex.pack(50, 150), index.find(merchant.getMerchantId(), first.getProductId()));
+        assertEquals(EffectiveAmountRangeIndex.pack(150, 500), index.find(merchant.getMerchantId(), second.getProductId()));
+    }
+
+    @Test
+    public void whenProductsChange_itShouldUpdateTheirRanges() throws PositiveAmount.InvalidPositiveAmount {
+        Merchant merchant = aMerchant();
+        Product product = aProduct()
+            .withMinAmount(PositiveAmount.of(50))
+            .withMaxAmount(PositiveAmount.of(150));
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+        index.load(merchant, Collections.emptyList());
+
+        index.putProduct(merchant.getMerchantId(), product);
+        assertEquals(EffectiveAmountRangeIndex.pack(50, 150), index.find(merchant.getMerchantId(), product.getProductId()));
+
+        index.putProduct(merchant.getMerchantId(), product.withMaxAmount(PositiveAmount.of(300)));
+        assertEquals(EffectiveAmountRangeIndex.pack(50, 300), index.find(merchant.getMerchantId(), product.getProductId()));
+
+        for (int i = 0; i < 100; i++) {
+            index.putProduct(merchant.getMerchantId(), aProduct());
+        }
+        assertEquals(EffectiveAmountRangeIndex.pack(50, 300), index.find(merchant.getMerchantId(), product.getProductId()));
+
+        index.removeProduct(merchant.getMerchantId(), product.getProductId());
+        assertEquals(EffectiveAmountRangeIndex.NOT_INDEXED, index.find(merchant.getMerchantId(), product.getProductId()));
+    }
+
+    @Test
+    public void whenAProductIsRemoved_itShouldNotHandItsRangeToTheNextProduct() throws PositiveAmount.InvalidPositiveAmount {
+        Merchant merchant = aMerchant();
+        Product removed = aProduct()
+            .withMinAmount(PositiveAmount.of(50))
+            .withMaxAmount(PositiveAmount.of(150));
+        Product added = aProduct()
+            .withMinAmount(PositiveAmount.of(300))
+            .withMaxAmount(PositiveAmount.of(400));
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+        index.load(merchant, Collections.singletonList(removed));
+
+        index.removeProduct(merchant.getMerchantId(), removed.getProductId());
+        index.putProduct(merchant.getMerchantId(), added);
+        index.putProduct(merchant.getMerchantId(), removed.withMaxAmount(PositiveAmount.of(200)));
+
+        assertEquals(EffectiveAmountRangeIndex.pack(300, 400), index.find(merchant.getMerchantId(), added.getProductId()));
+        assertEquals(EffectiveAmountRangeIndex.pack(50, 200), index.find(merchant.getMerchantId(), removed.getProductId()));
+    }
+}
@@ -6,12 +6,15 @@ import org.example.tstra.domain.Product;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.TestFactory;
 
+import java.util.Collections;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.example.tstra.domain.builders.MerchantBuilder.aMerchant;
 import static org.example.tstra.domain.builders.ProductBuilder.aProduct;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
@@ -74,4 +77,33 @@ public class PurchaseAmountInRangePolicyUnitTest {
             });
     }
 
+    @TestFactory
+    public Stream<DynamicTest> policyShouldFollowTheGivenMerchantAndProductOverAStaleIndex() throws PositiveAmount.InvalidPositiveAmount {
+        Merchant merchant = aMerchant()
+            .withMinLoanAmount(PositiveAmount.of(100))
+            .withMaxLoanAmount(PositiveAmount.of(200));
+
+        Product product = aProduct()
+            .withMinAmount(PositiveAmount.of(125))
+            .withMaxAmount(PositiveAmount.of(225));
+
+        EffectiveAmountRangeIndex index = new EffectiveAmountRangeIndex();
+        index.load(merchant.withMaxLoanAmount(PositiveAmount.of(150)), Collections.singletonList(product));
+
+        PurchaseAmountInRangePolicy purchaseAmountInRangePolicy = new PurchaseAmountInRangePolicy(index);
+
+        return IntStream.range(90, 240)
+            .boxed()
+            .map(i -> {
+                return dynamicTest(i + "", () -> {
+                    boolean inRange = i >= 125 && i <= 200;
+                    if (inRange) {
+                        assertTrue(purchaseAmountInRangePolicy.isSatisfiedBy(PositiveAmount.of(i), merchant, product));
+                    } else {
+                        assertFalse(purchaseAmountInRangePolicy.isSatisfiedBy(PositiveAmount.of(i), merchant, product));
+                    }
+                });
+            });
+    }
+
 }
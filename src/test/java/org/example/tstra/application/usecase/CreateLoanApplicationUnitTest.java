@@ -1,18 +1,36 @@
 package org.example.tstra.application.usecase;
 
+import org.example.tstra.application.service.PurchaseAmountInRangePolicy;
 import org.example.tstra.domain.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.example.tstra.domain.builders.MerchantBuilder.aMerchant;
 import static org.example.tstra.domain.builders.ProductBuilder.aProduct;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +48,12 @@ class CreateLoanApplicationUnitTest {
     @Mock
     private CreateLoanApplication.LoanApplicationRepository loanApplicationRepository;
 
+    @Spy
+    private PurchaseAmountInRangePolicy purchaseAmountInRangePolicy = new PurchaseAmountInRangePolicy();
+
+    @Mock
+    private CreateLoanApplication.Monitor monitor;
+
     @InjectMocks
     private CreateLoanApplication useCase;
 
@@ -218,4 +242,224 @@ class CreateLoanApplicationUnitTest {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void whenRequestsAreExecutedInBatch_itShouldLookUpEachMerchantAndProductOnce() throws CreateLoanApplication.MerchantNotFoundException, CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Merchant merchant = aMerchant().withMerchantId(merchantId);
+        final String productId = UUID.randomUUID().toString();
+        final Product product = aProduct().withProductId(productId);
+        final String unknownMerchantId = UUID.randomUUID().toString();
+
+        given(this.loanApplicationIdGenerator.generateId()).willReturn(UUID.randomUUID().toString());
+        given(this.merchantService.findMerchantId(any())).will(invocation -> {
+            if (unknownMerchantId.equals(invocation.getArgument(0))) {
+                throw new CreateLoanApplication.MerchantNotFoundException();
+            }
+            return merchant;
+        });
+        given(this.productService.findProductId(merchantId, productId)).willReturn(product);
+
+        // when
+        List<CreateLoanApplication.CreateLoanApplicationResult> results = useCase.executeAll(Arrays.asList(
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000),
+            new CreateLoanApplication.CreateLoanApplicationRequest(unknownMerchantId, productId, "fr", 40000),
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "en", 40000),
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "nl", 40000)
+        ));
+
+        // then
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertThrows(CreateLoanApplication.MerchantNotFoundException.class, () -> results.get(1).getOrThrow());
+        assertThrows(CreateLoanApplication.InvalidLanguageException.class, () -> results.get(2).getOrThrow());
+        assertTrue(results.get(3).isSuccess());
+
+        verify(this.merchantService, times(1)).findMerchantId(merchantId);
+        verify(this.productService, times(1)).findProductId(merchantId, productId);
+        verify(this.loanApplicationRepository, times(1)).persistAll(argThat(loanApplications -> loanApplications.size() == 2));
+        verify(this.loanApplicationRepository, never()).persist(any());
+    }
+
+    @Test
+    public void whenTheBatchedWriteFails_itShouldFailEveryAcceptedRequest() throws CreateLoanApplication.MerchantNotFoundException, CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Merchant merchant = aMerchant().withMerchantId(merchantId);
+        final String productId = UUID.randomUUID().toString();
+        final Product product = aProduct().withProductId(productId);
+
+        given(this.loanApplicationIdGenerator.generateId()).willReturn(UUID.randomUUID().toString());
+        given(this.merchantService.findMerchantId(merchantId)).willReturn(merchant);
+        given(this.productService.findProductId(merchantId, productId)).willReturn(product);
+        given(this.loanApplicationRepository.persistAll(anyList())).willThrow(new IllegalStateException("storage unavailable"));
+
+        // when
+        List<CreateLoanApplication.CreateLoanApplicationResult> results = useCase.executeAll(Arrays.asList(
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000),
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "en", 40000)
+        ));
+
+        // then
+        assertThrows(IllegalStateException.class, () -> results.get(0).getOrThrow());
+        assertThrows(CreateLoanApplication.InvalidLanguageException.class, () -> results.get(1).getOrThrow());
+    }
+
+    @Test
+    public void whenRequestsAreRejected_itShouldNotCaptureAStackTrace() throws CreateLoanApplication.MerchantNotFoundException, CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Merchant merchant = aMerchant().withMerchantId(merchantId);
+        final String productId = UUID.randomUUID().toString();
+        final Product product = aProduct().withProductId(productId);
+        final CreateLoanApplication.CreateLoanApplicationRequest request = new CreateLoanApplication.CreateLoanApplicationRequest(
+            merchantId,
+            productId,
+            "en",
+            40000
+        );
+
+        given(this.merchantService.findMerchantId(merchantId)).willReturn(merchant);
+        given(this.productService.findProductId(merchantId, productId)).willReturn(product);
+
+        // when
+        CreateLoanApplication.InvalidLanguageException first = assertThrows(CreateLoanApplication.InvalidLanguageException.class, () -> useCase.execute(request));
+        CreateLoanApplication.InvalidLanguageException second = assertThrows(CreateLoanApplication.InvalidLanguageException.class, () -> useCase.execute(request));
+
+        // then
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals(0, new CreateLoanApplication.MerchantNotFoundException().getStackTrace().length);
+    }
+
+    @Test
+    public void whenExecutedAsynchronously_itShouldLookUpTheMerchantAndTheProductConcurrently() throws Exception {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Merchant merchant = aMerchant().withMerchantId(merchantId);
+        final String productId = UUID.randomUUID().toString();
+        final Product product = aProduct().withProductId(productId);
+        final String loanApplicationId = UUID.randomUUID().toString();
+        final CountDownLatch productLookupStarted = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        given(this.loanApplicationIdGenerator.generateId()).willReturn(loanApplicationId);
+        given(this.merchantService.findMerchantIdAsync(any(), any())).willCallRealMethod();
+        given(this.productService.findProductIdAsync(any(), any(), any())).willCallRealMethod();
+        given(this.merchantService.findMerchantId(merchantId)).will(invocation -> {
+            // only completes if the product lookup runs at the same time
+            assertTrue(productLookupStarted.await(5, TimeUnit.SECONDS));
+            return merchant;
+        });
+        given(this.productService.findProductId(merchantId, productId)).will(invocation -> {
+            productLookupStarted.countDown();
+            return product;
+        });
+
+        // when
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> result = useCase.executeAsync(
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000),
+            executor
+        );
+
+        // then
+        assertEquals(loanApplicationId, result.get(5, TimeUnit.SECONDS).getLoanApplicationId());
+        verify(this.loanApplicationRepository).persist(any());
+        executor.shutdown();
+    }
+
+    @Test
+    public void whenBothLookupsFailAsynchronously_itShouldFailWithTheMerchantRejection() throws CreateLoanApplication.MerchantNotFoundException, CreateLoanApplication.ProductNotFoundException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final String productId = UUID.randomUUID().toString();
+
+        given(this.merchantService.findMerchantIdAsync(any(), any())).willCallRealMethod();
+        given(this.productService.findProductIdAsync(any(), any(), any())).willCallRealMethod();
+        given(this.merchantService.findMerchantId(merchantId)).willThrow(CreateLoanApplication.MerchantNotFoundException.class);
+        given(this.productService.findProductId(merchantId, productId)).willThrow(CreateLoanApplication.ProductNotFoundException.class);
+
+        // when
+        CompletableFuture<CreateLoanApplication.CreateLoanApplicationResponse> result = useCase.executeAsync(
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000),
+            Runnable::run
+        );
+
+        // then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof CreateLoanApplication.MerchantNotFoundException);
+    }
+
+    @Test
+    public void itShouldReportTheDurationOfEveryStage() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Merchant merchant = aMerchant().withMerchantId(merchantId);
+        final String productId = UUID.randomUUID().toString();
+        final Product product = aProduct().withProductId(productId);
+
+        given(this.loanApplicationIdGenerator.generateId()).willReturn(UUID.randomUUID().toString());
+        given(this.merchantService.findMerchantId(merchantId)).willReturn(merchant);
+        given(this.productService.findProductId(merchantId, productId)).willReturn(product);
+
+        // when
+        useCase.execute(new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000));
+
+        // then
+        for (CreateLoanApplication.Stage stage : CreateLoanApplication.Stage.values()) {
+            verify(this.monitor).stageCompleted(eq(stage), anyLong());
+        }
+        verify(this.monitor).accepted(any(LoanApplication.class));
+        verify(this.monitor, never()).rejected(any(), any());
+    }
+
+    @Test
+    public void whenExecutedAsynchronously_itShouldReportTheDurationOfEveryStage() throws Exception {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Merchant merchant = aMerchant().withMerchantId(merchantId);
+        final String productId = UUID.randomUUID().toString();
+        final Product product = aProduct().withProductId(productId);
+
+        given(this.loanApplicationIdGenerator.generateId()).willReturn(UUID.randomUUID().toString());
+        given(this.merchantService.findMerchantIdAsync(any(), any())).willCallRealMethod();
+        given(this.productService.findProductIdAsync(any(), any(), any())).willCallRealMethod();
+        given(this.merchantService.findMerchantId(merchantId)).willReturn(merchant);
+        given(this.productService.findProductId(merchantId, productId)).willReturn(product);
+
+        // when
+        useCase.executeAsync(new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000), Runnable::run)
+            .get(5, TimeUnit.SECONDS);
+
+        // then
+        for (CreateLoanApplication.Stage stage : CreateLoanApplication.Stage.values()) {
+            verify(this.monitor).stageCompleted(eq(stage), anyLong());
+        }
+    }
+
+    @Test
+    public void whenTheRequestIsRejected_itShouldReportTheRejection() throws CreateLoanApplication.CreateLoanApplicationException {
+        // given
+        final String merchantId = UUID.randomUUID().toString();
+        final Merchant merchant = aMerchant().withMerchantId(merchantId);
+        final String productId = UUID.randomUUID().toString();
+
+        given(this.merchantService.findMerchantId(merchantId)).willReturn(merchant);
+        given(this.productService.findProductId(merchantId, productId)).willThrow(new CreateLoanApplication.ProductNotFoundException());
+
+        // when
+        assertThrows(CreateLoanApplication.ProductNotFoundException.class, () -> useCase.execute(
+            new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000)
+        ));
+
+        // then
+        verify(this.monitor).stageCompleted(eq(CreateLoanApplication.Stage.MERCHANT_LOOKUP), anyLong());
+        verify(this.monitor).rejected(
+            eq(new CreateLoanApplication.CreateLoanApplicationRequest(merchantId, productId, "fr", 40000)),
+            isA(CreateLoanApplication.ProductNotFoundException.class)
+        );
+        verify(this.monitor, never()).accepted(any());
+        verify(this.monitor, never()).stageCompleted(eq(CreateLoanApplication.Stage.PERSISTENCE), anyLong());
+    }
+
+}
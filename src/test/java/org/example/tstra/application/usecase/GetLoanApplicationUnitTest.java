@@ -0,0 +1,77 @@
+package org.example.tstra.application.usecase;
+
+import org.example.tstra.domain.Language;
+import org.example.tstra.domain.LoanApplication;
+import org.example.tstra.domain.PositiveAmount;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class GetLoanApplicationUnitTest {
+
+    @Mock
+    private GetLoanApplication.LoanApplicationReader loanApplicationReader;
+
+    @InjectMocks
+    private GetLoanApplication getLoanApplication;
+
+    @Test
+    public void itShouldReturnTheLoanApplicationOfTheMerchant() throws Exception {
+        // given
+        given(this.loanApplicationReader.findById("1"))
+            .willReturn(Optional.of(new LoanApplication("1", "2", "3", Language.NL, PositiveAmount.of(4000))));
+
+        // when
+        GetLoanApplication.GetLoanApplicationResponse response = this.getLoanApplication.execute("2", "1");
+
+        // then
+        assertEquals(new GetLoanApplication.GetLoanApplicationResponse("1", "2", "3", "nl", 4000), response);
+    }
+
+    @Test
+    public void whenTheLoanApplicationIsUnknown_itShouldThrowAnException() {
+        // given
+        given(this.loanApplicationReader.findById("1")).willReturn(Optional.empty());
+
+        // when
+        assertThrows(GetLoanApplication.LoanApplicationNotFoundException.class, () -> this.getLoanApplication.execute("2", "1"));
+    }
+
+    @Test
+    public void whenTheLoanApplicationIsOfAnotherMerchant_itShouldThrowAnException() throws Exception {
+        // given
+        given(this.loanApplicationReader.findById("1"))
+            .willReturn(Optional.of(new LoanApplication("1", "2", "3", Language.NL, PositiveAmount.of(4000))));
+
+        // when
+        assertThrows(GetLoanApplication.LoanApplicationNotFoundException.class, () -> this.getLoanApplication.execute("other", "1"));
+    }
+
+    @Test
+    public void itShouldStreamTheLoanApplicationsOfTheMerchant() throws Exception {
+        // given
+        given(this.loanApplicationReader.findByMerchantId("2", "0"))
+            .willReturn(Stream.of(new LoanApplication("1", "2", "3", Language.FR, PositiveAmount.of(4000))));
+
+        // when
+        List<GetLoanApplication.GetLoanApplicationResponse> responses;
+        try (Stream<GetLoanApplication.GetLoanApplicationResponse> stream = this.getLoanApplication.stream("2", "0")) {
+            responses = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertEquals(Collections.singletonList(new GetLoanApplication.GetLoanApplicationResponse("1", "2", "3", "fr", 4000)), responses);
+    }
+}
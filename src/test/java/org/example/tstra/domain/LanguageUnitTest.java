@@ -8,6 +8,7 @@ import java.util.Locale;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
@@ -26,4 +27,11 @@ class LanguageUnitTest {
             .filter(language -> !Language.validLanguages.keySet().contains(language))
             .map(language -> dynamicTest(language, () -> assertThrows(Language.InvalidLanguageException.class, () -> Language.of(language))));
     }
-}
\ No newline at end of file
+
+    @TestFactory
+    Stream<DynamicTest> tryOfInvalidLanguages() {
+        return Arrays.stream(Locale.getISOLanguages())
+            .filter(language -> !Language.validLanguages.keySet().contains(language))
+            .map(language -> dynamicTest(language, () -> assertNull(Language.tryOf(language))));
+    }
+}
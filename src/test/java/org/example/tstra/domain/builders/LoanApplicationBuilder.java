@@ -0,0 +1,62 @@
+package org.example.tstra.domain.builders;
+
+import org.example.tstra.domain.Language;
+import org.example.tstra.domain.LoanApplication;
+import org.example.tstra.domain.PositiveAmount;
+
+import java.util.UUID;
+
+public class LoanApplicationBuilder {
+
+    private String loanApplicationId = UUID.randomUUID().toString();
+    private String merchantId = UUID.randomUUID().toString();
+    private String productId = UUID.randomUUID().toString();
+    private Language language = Language.FR;
+    private int purchaseAmount = 40000;
+
+    private LoanApplicationBuilder() {
+    }
+
+    public static LoanApplicationBuilder aLoanApplication() {
+        return new LoanApplicationBuilder();
+    }
+
+    public LoanApplicationBuilder withLoanApplicationId(String loanApplicationId) {
+        this.loanApplicationId = loanApplicationId;
+        return this;
+    }
+
+    public LoanApplicationBuilder withMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+        return this;
+    }
+
+    public LoanApplicationBuilder withProductId(String productId) {
+        this.productId = productId;
+        return this;
+    }
+
+    public LoanApplicationBuilder withLanguage(Language language) {
+        this.language = language;
+        return this;
+    }
+
+    public LoanApplicationBuilder withPurchaseAmount(int purchaseAmount) {
+        this.purchaseAmount = purchaseAmount;
+        return this;
+    }
+
+    public LoanApplication build() {
+        try {
+            return new LoanApplication(
+                this.loanApplicationId,
+                this.merchantId,
+                this.productId,
+                this.language,
+                PositiveAmount.of(this.purchaseAmount)
+            );
+        } catch (PositiveAmount.InvalidPositiveAmount invalidPositiveAmount) {
+            throw new RuntimeException(invalidPositiveAmount);
+        }
+    }
+}